@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import com.google.gwt.core.client.Duration;
+
+/**
+ * The time a {@link Task} has for running.
+ *
+ * @author Vaadin Ltd
+ */
+public final class Deadline {
+    /** A deadline that never passes. */
+    public static final Deadline UNLIMITED = new Deadline(
+            Double.POSITIVE_INFINITY);
+
+    private final double end;
+
+    private Deadline(double end) {
+        this.end = end;
+    }
+
+    /**
+     * Creates a deadline that passes after the given time.
+     *
+     * @param millis
+     *            the time until the deadline, in milliseconds
+     * @return a new deadline
+     */
+    public static Deadline in(double millis) {
+        return new Deadline(Duration.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Gets the time left until the deadline.
+     *
+     * @return the time left, in milliseconds, or 0 if the deadline has
+     *         passed
+     */
+    public double timeRemaining() {
+        return Math.max(0, end - Duration.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     *
+     * @return <code>true</code> iff there is no time left
+     */
+    public boolean hasPassed() {
+        return timeRemaining() <= 0;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * A bounded pool of DOM elements of one kind, so that elements that are
+ * thrown away can be reused instead of creating new ones.
+ * <p>
+ * An element is cleaned when it is released into the pool: it is detached,
+ * and all of its attributes (including <code>class</code> and
+ * <code>style</code>) and child nodes are removed. A pooled element is thus
+ * indistinguishable from a new one, except for any properties that have been
+ * set directly on the element object. Those are the responsibility of the
+ * code that set them.
+ * <p>
+ * Elements released into a full pool are left for the garbage collector.
+ *
+ * @param <E>
+ *            the type of the pooled elements
+ * @author Vaadin Ltd
+ */
+public class ElementPool<E extends Element> {
+
+    private final List<E> elements = new ArrayList<E>();
+
+    private int maxSize;
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * Creates a new element pool.
+     *
+     * @param maxSize
+     *            the maximum number of elements to keep in the pool
+     * @throws IllegalArgumentException
+     *             if {@code maxSize} is negative
+     */
+    public ElementPool(int maxSize) throws IllegalArgumentException {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * Sets the maximum number of elements to keep in the pool. If there are
+     * more elements in the pool, the extra ones are dropped.
+     *
+     * @param maxSize
+     *            the maximum number of elements to keep in the pool, or 0 to
+     *            not pool elements at all
+     * @throws IllegalArgumentException
+     *             if {@code maxSize} is negative
+     */
+    public void setMaxSize(int maxSize) throws IllegalArgumentException {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Max size may not be negative. " + maxSize + " was given.");
+        }
+        this.maxSize = maxSize;
+        while (elements.size() > maxSize) {
+            elements.remove(elements.size() - 1);
+        }
+    }
+
+    /**
+     * Gets the maximum number of elements kept in the pool.
+     *
+     * @return the maximum number of pooled elements
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Takes an element from the pool.
+     *
+     * @return a clean, detached element, or <code>null</code> if the pool is
+     *         empty
+     */
+    public E take() {
+        if (elements.isEmpty()) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return elements.remove(elements.size() - 1);
+    }
+
+    /**
+     * Detaches an element, cleans it and puts it into the pool, if the pool
+     * isn't full. The element must not be used by the caller afterwards.
+     *
+     * @param element
+     *            the element to release, not <code>null</code>
+     */
+    public void release(E element) {
+        assert element != null : "Element was null";
+        assert !elements.contains(element) : "Element was released twice";
+
+        element.removeFromParent();
+        if (elements.size() < maxSize) {
+            clean(element);
+            elements.add(element);
+        }
+    }
+
+    /**
+     * Drops all pooled elements.
+     */
+    public void clear() {
+        elements.clear();
+    }
+
+    /**
+     * Gets the number of elements currently in the pool.
+     *
+     * @return the number of pooled elements
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Gets the number of times {@link #take()} has returned a pooled element.
+     *
+     * @return the number of pool hits
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of times {@link #take()} has found the pool empty.
+     *
+     * @return the number of pool misses
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private static native void clean(Element element)
+    /*-{
+        var attributes = element.attributes;
+        while (attributes.length > 0) {
+            element.removeAttribute(attributes[attributes.length - 1].name);
+        }
+        while (element.lastChild) {
+            element.removeChild(element.lastChild);
+        }
+    }-*/;
+}
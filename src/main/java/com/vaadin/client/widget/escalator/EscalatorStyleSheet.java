@@ -0,0 +1,231 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.StyleElement;
+
+/**
+ * A stylesheet owned by a single Escalator, for styles that would otherwise
+ * have to be written into the inline style of many elements.
+ * <p>
+ * Each rule is identified by its selector. Changing a property of a rule is a
+ * single write into the rule's style, no matter how many elements the rule
+ * matches.
+ * <p>
+ * The rules are kept in this object, and are written into a
+ * <code>&lt;style&gt;</code> element only while the stylesheet is
+ * {@link #attach() attached}. This way the owner can detach the stylesheet
+ * from the document together with the widget, without losing the rules.
+ *
+ * @author Vaadin Ltd
+ */
+public class EscalatorStyleSheet {
+
+    private static final class Rule {
+        private final Map<String, String> properties = new LinkedHashMap<String, String>();
+
+        /** The CSSStyleRule in the document, or null if not attached. */
+        private JavaScriptObject cssRule;
+    }
+
+    private final Map<String, Rule> rules = new LinkedHashMap<String, Rule>();
+
+    private StyleElement styleElement = null;
+
+    /**
+     * Adds the stylesheet to the document, and writes all rules into it. Does
+     * nothing if the stylesheet is already attached.
+     */
+    public void attach() {
+        if (styleElement != null) {
+            return;
+        }
+
+        final Document document = Document.get();
+        styleElement = document.createStyleElement();
+        styleElement.setType("text/css");
+        document.getHead().appendChild(styleElement);
+
+        for (Entry<String, Rule> entry : rules.entrySet()) {
+            insertCssRule(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the stylesheet from the document. The rules are kept, and are
+     * written into the document again on the next {@link #attach()}.
+     */
+    public void detach() {
+        if (styleElement == null) {
+            return;
+        }
+
+        styleElement.removeFromParent();
+        styleElement = null;
+        for (Rule rule : rules.values()) {
+            rule.cssRule = null;
+        }
+    }
+
+    /**
+     * Checks whether the stylesheet is in the document.
+     *
+     * @return <code>true</code> iff the rules are currently applied
+     */
+    public boolean isAttached() {
+        return styleElement != null;
+    }
+
+    /**
+     * Sets a property of a rule. The rule is created if it doesn't exist.
+     *
+     * @param selector
+     *            the selector of the rule
+     * @param property
+     *            the CSS name of the property, e.g. <code>min-width</code>
+     * @param value
+     *            the value of the property, or <code>null</code> to remove
+     *            the property from the rule
+     */
+    public void setProperty(String selector, String property, String value) {
+        Rule rule = rules.get(selector);
+        if (rule == null) {
+            if (value == null) {
+                return;
+            }
+            rule = new Rule();
+            rules.put(selector, rule);
+            if (styleElement != null) {
+                insertCssRule(selector, rule);
+            }
+        }
+
+        if (value == null) {
+            rule.properties.remove(property);
+        } else {
+            rule.properties.put(property, value);
+        }
+
+        if (rule.cssRule != null) {
+            setCssProperty(rule.cssRule, property, value);
+        }
+    }
+
+    /**
+     * Gets the value of a property of a rule.
+     *
+     * @param selector
+     *            the selector of the rule
+     * @param property
+     *            the CSS name of the property
+     * @return the value of the property, or <code>null</code> if the rule
+     *         doesn't have the property
+     */
+    public String getProperty(String selector, String property) {
+        Rule rule = rules.get(selector);
+        if (rule == null) {
+            return null;
+        }
+        return rule.properties.get(property);
+    }
+
+    /**
+     * Removes a rule.
+     *
+     * @param selector
+     *            the selector of the rule to remove
+     */
+    public void removeRule(String selector) {
+        Rule rule = rules.remove(selector);
+        if (rule != null && rule.cssRule != null) {
+            deleteCssRule(styleElement, rule.cssRule);
+        }
+    }
+
+    /**
+     * Removes all rules whose selector starts with the given prefix.
+     *
+     * @param selectorPrefix
+     *            the prefix of the selectors to remove
+     */
+    public void removeRules(String selectorPrefix) {
+        List<String> selectors = new ArrayList<String>();
+        for (String selector : rules.keySet()) {
+            if (selector.startsWith(selectorPrefix)) {
+                selectors.add(selector);
+            }
+        }
+        for (String selector : selectors) {
+            removeRule(selector);
+        }
+    }
+
+    /**
+     * Gets the number of rules in this stylesheet.
+     *
+     * @return the number of rules
+     */
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    private void insertCssRule(String selector, Rule rule) {
+        rule.cssRule = insertCssRule(styleElement, selector);
+        for (Entry<String, String> property : rule.properties.entrySet()) {
+            setCssProperty(rule.cssRule, property.getKey(),
+                    property.getValue());
+        }
+    }
+
+    private static native JavaScriptObject insertCssRule(
+            StyleElement styleElement, String selector)
+    /*-{
+        var sheet = styleElement.sheet;
+        var index = sheet.cssRules.length;
+        sheet.insertRule(selector + " {}", index);
+        return sheet.cssRules[index];
+    }-*/;
+
+    private static native void deleteCssRule(StyleElement styleElement,
+            JavaScriptObject cssRule)
+    /*-{
+        var sheet = styleElement.sheet;
+        for (var i = sheet.cssRules.length - 1; i >= 0; i--) {
+            if (sheet.cssRules[i] === cssRule) {
+                sheet.deleteRule(i);
+                return;
+            }
+        }
+    }-*/;
+
+    private static native void setCssProperty(JavaScriptObject cssRule,
+            String property, String value)
+    /*-{
+        if (value == null) {
+            cssRule.style.removeProperty(property);
+        } else {
+            cssRule.style.setProperty(property, value);
+        }
+    }-*/;
+}
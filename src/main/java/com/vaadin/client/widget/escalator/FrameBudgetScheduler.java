@@ -0,0 +1,200 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Runs large pieces of rendering work in chunks, one chunk per animation
+ * frame, so that no frame is blocked for longer than a given budget.
+ * <p>
+ * Unlike {@link IdleWorkScheduler}, the work is run on every frame until it
+ * is done, as it is work the user is waiting to see. Each frame runs the
+ * queued {@link Task tasks} in order until the budget is spent, and at least
+ * one task per frame, so that the work always progresses. A task that didn't
+ * finish is continued on the next frame.
+ * <p>
+ * A task is queued only once, no matter how many times it is scheduled
+ * before it's run, so a task that keeps its own record of the work left
+ * merges new work into the work already queued.
+ *
+ * @author Vaadin Ltd
+ */
+public class FrameBudgetScheduler {
+
+    /** The default time each frame may spend on the work, in milliseconds. */
+    public static final double DEFAULT_BUDGET_MILLIS = 8;
+
+    private final ScheduledCommand completionCommand;
+
+    private final List<Task> queue = new ArrayList<Task>();
+
+    private double budgetMillis = DEFAULT_BUDGET_MILLIS;
+
+    private AnimationHandle frameHandle = null;
+
+    private final AnimationCallback frameCallback = new AnimationCallback() {
+        @Override
+        public void execute(double timestamp) {
+            frameHandle = null;
+            runTasks(Deadline.in(budgetMillis));
+        }
+    };
+
+    private int frameCount = 0;
+
+    /**
+     * Creates a new frame budget scheduler.
+     *
+     * @param completionCommand
+     *            the command to run each time all queued work is done, or
+     *            <code>null</code> to not be notified
+     */
+    public FrameBudgetScheduler(ScheduledCommand completionCommand) {
+        this.completionCommand = completionCommand;
+    }
+
+    /**
+     * Sets the time each frame may spend on the queued work.
+     *
+     * @param budgetMillis
+     *            the budget per frame, in milliseconds
+     * @throws IllegalArgumentException
+     *             if {@code budgetMillis} is not positive
+     */
+    public void setBudgetMillis(double budgetMillis)
+            throws IllegalArgumentException {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "Budget must be positive. " + budgetMillis
+                            + " was given.");
+        }
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Gets the time each frame may spend on the queued work.
+     *
+     * @return the budget per frame, in milliseconds
+     */
+    public double getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Queues a task to be run on the next frame. If the task is already
+     * queued, this does nothing.
+     *
+     * @param task
+     *            the task to run
+     */
+    public void schedule(Task task) {
+        if (!queue.contains(task)) {
+            queue.add(task);
+        }
+        requestFrameIfNeeded();
+    }
+
+    /**
+     * Removes a task from the queue, if it is queued.
+     *
+     * @param task
+     *            the task to cancel
+     */
+    public void cancel(Task task) {
+        queue.remove(task);
+        if (queue.isEmpty() && frameHandle != null) {
+            frameHandle.cancel();
+            frameHandle = null;
+        }
+    }
+
+    /**
+     * Runs all queued work to completion right away.
+     */
+    public void flush() {
+        if (frameHandle != null) {
+            frameHandle.cancel();
+            frameHandle = null;
+        }
+        while (!queue.isEmpty()) {
+            runTasks(Deadline.UNLIMITED);
+        }
+    }
+
+    /**
+     * Checks whether there is any queued work.
+     *
+     * @return <code>true</code> iff there are tasks waiting to be run
+     */
+    public boolean isPending() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Gets the number of frames in which queued work has been run.
+     *
+     * @return the number of frames
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    private void requestFrameIfNeeded() {
+        if (frameHandle == null && !queue.isEmpty()) {
+            frameHandle = AnimationScheduler.get().requestAnimationFrame(
+                    frameCallback);
+        }
+    }
+
+    private void runTasks(Deadline deadline) {
+        frameCount++;
+
+        final List<Task> tasks = new ArrayList<Task>(queue);
+        queue.clear();
+
+        int next = 0;
+        try {
+            while (next < tasks.size() && (next == 0 || !deadline.hasPassed())) {
+                final Task task = tasks.get(next++);
+                if (!task.run(deadline) && !queue.contains(task)) {
+                    queue.add(task);
+                }
+            }
+        } finally {
+            for (int i = tasks.size() - 1; i >= next; i--) {
+                final Task task = tasks.get(i);
+                if (!queue.contains(task)) {
+                    queue.add(0, task);
+                }
+            }
+        }
+
+        if (queue.isEmpty()) {
+            if (completionCommand != null) {
+                completionCommand.execute();
+            }
+        } else if (deadline != Deadline.UNLIMITED) {
+            requestFrameIfNeeded();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Runs deferred, non-urgent work when the browser is idle.
+ * <p>
+ * The work is run in <code>requestIdleCallback</code> callbacks, which the
+ * browser calls between frames when it has nothing else to do. Each callback
+ * comes with a deadline, and the tasks are expected to stop when the deadline
+ * has passed. A task that didn't finish is continued in the next idle period.
+ * If the browser is never idle, the work is run anyway after
+ * {@link #getTimeoutMillis()}.
+ * <p>
+ * Browsers without <code>requestIdleCallback</code> get a {@link Timer}
+ * instead, and the tasks get a deadline of {@value #FALLBACK_BUDGET_MILLIS}
+ * milliseconds.
+ * <p>
+ * A task is queued only once, no matter how many times it is scheduled
+ * before it's run.
+ *
+ * @author Vaadin Ltd
+ */
+public class IdleWorkScheduler {
+
+    /** The delay of the timer used when idle callbacks aren't supported. */
+    public static final int FALLBACK_DELAY_MILLIS = 20;
+
+    /**
+     * The time the tasks get when idle callbacks aren't supported, or when the
+     * idle callback timed out.
+     */
+    public static final double FALLBACK_BUDGET_MILLIS = 8;
+
+    private static final int NO_HANDLE = -1;
+
+    private final boolean idleCallbackSupported = isIdleCallbackSupported();
+    private final int timeoutMillis;
+
+    private final List<Task> queue = new ArrayList<Task>();
+
+    private int idleCallbackHandle = NO_HANDLE;
+
+    private final Timer fallbackTimer = new Timer() {
+        @Override
+        public void run() {
+            runTasks(FALLBACK_BUDGET_MILLIS);
+        }
+    };
+
+    private int runCount = 0;
+    private int splitCount = 0;
+    private int droppedCount = 0;
+
+    /**
+     * Creates a new idle work scheduler.
+     *
+     * @param timeoutMillis
+     *            the time, in milliseconds, after which scheduled work is run
+     *            even if the browser hasn't been idle
+     */
+    public IdleWorkScheduler(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Gets the time after which scheduled work is run even if the browser
+     * hasn't been idle.
+     *
+     * @return the timeout, in milliseconds
+     */
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Schedules a task to be run when the browser is idle. If the task is
+     * already scheduled, this does nothing (and is counted as dropped work).
+     *
+     * @param task
+     *            the task to run
+     */
+    public void schedule(Task task) {
+        if (queue.contains(task)) {
+            droppedCount++;
+            return;
+        }
+        queue.add(task);
+        requestCallbackIfNeeded();
+    }
+
+    /**
+     * Removes a task from the queue, if it is scheduled.
+     *
+     * @param task
+     *            the task to cancel
+     */
+    public void cancel(Task task) {
+        if (queue.remove(task)) {
+            droppedCount++;
+        }
+    }
+
+    /**
+     * Removes all tasks from the queue, and cancels the pending idle callback
+     * or timer.
+     */
+    public void cancelAll() {
+        droppedCount += queue.size();
+        queue.clear();
+        if (idleCallbackHandle != NO_HANDLE) {
+            cancelIdleCallback(idleCallbackHandle);
+            idleCallbackHandle = NO_HANDLE;
+        }
+        fallbackTimer.cancel();
+    }
+
+    /**
+     * Checks whether a task is scheduled.
+     *
+     * @param task
+     *            the task to check
+     * @return <code>true</code> iff the task is waiting to be run
+     */
+    public boolean isScheduled(Task task) {
+        return queue.contains(task);
+    }
+
+    /**
+     * Checks whether there is any scheduled work.
+     *
+     * @return <code>true</code> iff there are tasks waiting to be run
+     */
+    public boolean isPending() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Gets the number of times a task has been run to completion.
+     *
+     * @return the number of finished task runs
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * Gets the number of times a task has run out of time and has been
+     * continued in a later idle period.
+     *
+     * @return the number of split task runs
+     */
+    public int getSplitCount() {
+        return splitCount;
+    }
+
+    /**
+     * Gets the number of scheduled tasks that were never run, because they
+     * were already scheduled, or were cancelled.
+     *
+     * @return the number of dropped tasks
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void requestCallbackIfNeeded() {
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        if (idleCallbackSupported) {
+            if (idleCallbackHandle == NO_HANDLE) {
+                idleCallbackHandle = requestIdleCallback(timeoutMillis);
+            }
+        } else if (!fallbackTimer.isRunning()) {
+            fallbackTimer.schedule(FALLBACK_DELAY_MILLIS);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    // called from JSNI
+    private void onIdle(double timeRemaining, boolean didTimeout) {
+        idleCallbackHandle = NO_HANDLE;
+        if (didTimeout) {
+            runTasks(FALLBACK_BUDGET_MILLIS);
+        } else {
+            runTasks(timeRemaining);
+        }
+    }
+
+    private void runTasks(double budgetMillis) {
+        final Deadline deadline = Deadline.in(budgetMillis);
+
+        /*
+         * The tasks that are run in this period are taken off the queue
+         * first, so that tasks that don't finish, and tasks scheduled while
+         * running, wait for the next period.
+         */
+        final List<Task> tasks = new ArrayList<Task>(queue);
+        queue.clear();
+
+        int next = 0;
+        try {
+            /*
+             * At least one task is run, so that work gets done even if the
+             * browser is never idle for long.
+             */
+            while (next < tasks.size() && (next == 0 || !deadline.hasPassed())) {
+                final Task task = tasks.get(next++);
+
+                // A run covers any scheduling done since it was taken off
+                queue.remove(task);
+
+                if (task.run(deadline)) {
+                    runCount++;
+                } else {
+                    splitCount++;
+                    if (!queue.contains(task)) {
+                        queue.add(task);
+                    }
+                }
+            }
+        } finally {
+            // Put back the tasks that didn't get their turn, in order.
+            for (int i = tasks.size() - 1; i >= next; i--) {
+                final Task task = tasks.get(i);
+                if (!queue.contains(task)) {
+                    queue.add(0, task);
+                }
+            }
+            requestCallbackIfNeeded();
+        }
+    }
+
+    private static native boolean isIdleCallbackSupported()
+    /*-{
+        return typeof $wnd.requestIdleCallback === "function";
+    }-*/;
+
+    private native int requestIdleCallback(int timeout)
+    /*-{
+        var self = this;
+        return $wnd.requestIdleCallback($entry(function(deadline) {
+            self.@com.vaadin.client.widget.escalator.IdleWorkScheduler::onIdle(DZ)(deadline.timeRemaining(), deadline.didTimeout);
+        }), { timeout: timeout });
+    }-*/;
+
+    private static native void cancelIdleCallback(int handle)
+    /*-{
+        $wnd.cancelIdleCallback(handle);
+    }-*/;
+}
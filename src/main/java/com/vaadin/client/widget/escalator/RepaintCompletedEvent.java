@@ -0,0 +1,78 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Event fired once a repaint of the body that was cut into chunks, to stay
+ * within the frame budget, has been completed.
+ * 
+ * @author Vaadin Ltd
+ */
+public class RepaintCompletedEvent extends GwtEvent<RepaintCompletedHandler> {
+    /**
+     * The type of this event.
+     */
+    public static final Type<RepaintCompletedHandler> TYPE = new Type<RepaintCompletedHandler>();
+
+    private final int repaintedRowCount;
+    private final int frameCount;
+
+    /**
+     * Creates a new repaint completed event.
+     * 
+     * @param repaintedRowCount
+     *            the number of rows that were repainted in chunks
+     * @param frameCount
+     *            the number of frames the repaint was spread over
+     */
+    public RepaintCompletedEvent(int repaintedRowCount, int frameCount) {
+        this.repaintedRowCount = repaintedRowCount;
+        this.frameCount = frameCount;
+    }
+
+    /**
+     * Gets the number of rows that were repainted in chunks. Rows that were
+     * scrolled out of view, or were repainted in full by other means before
+     * their turn, are not counted.
+     * 
+     * @return the number of repainted rows
+     */
+    public int getRepaintedRowCount() {
+        return repaintedRowCount;
+    }
+
+    /**
+     * Gets the number of frames the repaint was spread over.
+     * 
+     * @return the number of frames
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public Type<RepaintCompletedHandler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(RepaintCompletedHandler handler) {
+        handler.onRepaintCompleted(this);
+    }
+
+}
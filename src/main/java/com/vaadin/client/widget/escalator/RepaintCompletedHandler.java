@@ -0,0 +1,36 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import com.google.gwt.event.shared.EventHandler;
+
+/**
+ * Event handler that gets notified when a repaint of the body, that was cut
+ * into chunks to stay within the frame budget, has been completed.
+ * 
+ * @author Vaadin Ltd
+ */
+public interface RepaintCompletedHandler extends EventHandler {
+
+    /**
+     * Called when all chunks of a repaint have been painted.
+     * 
+     * @param event
+     *            the repaint completed event describing the repaint
+     */
+    void onRepaintCompleted(RepaintCompletedEvent event);
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+/**
+ * The heights of the rows in a row container, as a default row height and a
+ * sparse set of rows with an explicit height.
+ * <p>
+ * Only the rows with an explicit height take up any memory, and all the
+ * queries (the top of a row, the row at a pixel position) are answered in
+ * logarithmic time in the number of explicit heights, regardless of the
+ * number of rows. When no row has an explicit height, the queries are simple
+ * multiplications and divisions by the default row height.
+ * <p>
+ * The pixel coordinates in this class do not take spacers into account; they
+ * are the offsets of the rows as if there were no spacers.
+ *
+ * @author Vaadin Ltd
+ */
+public class RowHeightIndex {
+
+    private final SparseRowSumTree heights = new SparseRowSumTree();
+
+    private double defaultHeight;
+
+    private final SparseRowSumTree.BaseOffset rowOffset = new SparseRowSumTree.BaseOffset() {
+        @Override
+        public double getBaseOffset(int row) {
+            return row * defaultHeight;
+        }
+    };
+
+    /**
+     * Creates a new index where all rows are of the default height.
+     *
+     * @param defaultHeight
+     *            the height of the rows without an explicit height
+     */
+    public RowHeightIndex(double defaultHeight) {
+        this.defaultHeight = defaultHeight;
+    }
+
+    /**
+     * Sets the height of the rows that don't have an explicit height.
+     *
+     * @param defaultHeight
+     *            the default row height
+     */
+    public void setDefaultHeight(double defaultHeight) {
+        this.defaultHeight = defaultHeight;
+    }
+
+    /**
+     * Gets the height of the rows that don't have an explicit height.
+     *
+     * @return the default row height
+     */
+    public double getDefaultHeight() {
+        return defaultHeight;
+    }
+
+    /**
+     * Checks whether any row has an explicit height.
+     *
+     * @return <code>true</code> iff there are rows with an explicit height
+     */
+    public boolean hasExplicitHeights() {
+        return !heights.isEmpty();
+    }
+
+    /**
+     * Sets an explicit height for a row.
+     *
+     * @param row
+     *            the index of the row
+     * @param height
+     *            the height of the row, or a negative value to make the row
+     *            use the default height again
+     */
+    public void setHeight(int row, double height) {
+        if (height < 0) {
+            heights.remove(row);
+        } else {
+            heights.put(row, height);
+        }
+    }
+
+    /**
+     * Checks whether a row has an explicit height.
+     *
+     * @param row
+     *            the index of the row
+     * @return <code>true</code> iff the row has an explicit height
+     */
+    public boolean hasExplicitHeight(int row) {
+        return heights.contains(row);
+    }
+
+    /**
+     * Gets the height of a row.
+     *
+     * @param row
+     *            the index of the row
+     * @return the explicit height of the row, or the default height
+     */
+    public double getHeight(int row) {
+        return heights.get(row, defaultHeight);
+    }
+
+    /**
+     * Gets the smallest height of any row.
+     *
+     * @return the smallest row height
+     */
+    public double getMinHeight() {
+        if (heights.isEmpty()) {
+            return defaultHeight;
+        }
+        return Math.min(defaultHeight, heights.getMin());
+    }
+
+    /**
+     * Gets the top offset of a row, i.e. the sum of the heights of all the
+     * rows before it.
+     *
+     * @param row
+     *            the index of the row
+     * @return the top offset of the row
+     */
+    public double getTop(int row) {
+        if (heights.isEmpty()) {
+            return row * defaultHeight;
+        }
+        int explicitRows = heights.getCountBefore(row);
+        return (row - explicitRows) * defaultHeight + heights.getSumBefore(row);
+    }
+
+    /**
+     * Gets the sum of the heights of a range of rows.
+     *
+     * @param fromRow
+     *            the first row (inclusive)
+     * @param toRow
+     *            the last row (exclusive)
+     * @return the sum of the heights of the rows
+     */
+    public double getHeightBetween(int fromRow, int toRow) {
+        if (heights.isEmpty()) {
+            return (toRow - fromRow) * defaultHeight;
+        }
+        return getTop(toRow) - getTop(fromRow);
+    }
+
+    /**
+     * Gets the index of the row at a pixel offset.
+     * <p>
+     * The rows beyond any explicit heights are assumed to be of the default
+     * height, so the returned row may be beyond the actual row count.
+     *
+     * @param px
+     *            the pixel offset from the top of the first row
+     * @return the index of the row that contains {@code px}
+     */
+    public int getRowAt(double px) {
+        if (heights.isEmpty()) {
+            return (int) (px / defaultHeight);
+        }
+
+        int row = heights.findLastAtOrBefore(px, rowOffset, -defaultHeight);
+        if (row == SparseRowSumTree.NOT_FOUND) {
+            return (int) (px / defaultHeight);
+        }
+
+        double bottom = getTop(row) + heights.get(row, defaultHeight);
+        if (px < bottom) {
+            return row;
+        } else {
+            return row + 1 + (int) ((px - bottom) / defaultHeight);
+        }
+    }
+
+    /**
+     * Gets the number of rows, starting from a row and going downwards, that
+     * fit completely into an amount of pixels.
+     *
+     * @param row
+     *            the first row to count
+     * @param px
+     *            the amount of pixels
+     * @return the number of rows that fit into {@code px}
+     */
+    public int getRowCountBelow(int row, double px) {
+        if (heights.isEmpty()) {
+            return (int) (px / defaultHeight);
+        }
+        return getRowAt(getTop(row) + px) - row;
+    }
+
+    /**
+     * Gets the number of rows, starting from the row above a row and going
+     * upwards, that are needed to cover an amount of pixels.
+     *
+     * @param row
+     *            the row below the first row to count
+     * @param px
+     *            the amount of pixels
+     * @return the number of rows needed to cover {@code px}
+     */
+    public int getRowCountAbove(int row, double px) {
+        if (heights.isEmpty()) {
+            return (int) Math.ceil(px / defaultHeight);
+        }
+        return row - getRowAt(getTop(row) - px);
+    }
+
+    /**
+     * Makes room for inserted rows. The inserted rows are of the default
+     * height.
+     *
+     * @param index
+     *            the index of the first inserted row
+     * @param numberOfRows
+     *            the number of inserted rows
+     */
+    public void insertRows(int index, int numberOfRows) {
+        heights.shiftKeys(index, numberOfRows);
+    }
+
+    /**
+     * Forgets the heights of removed rows, and moves the heights of the rows
+     * after them up.
+     *
+     * @param index
+     *            the index of the first removed row
+     * @param numberOfRows
+     *            the number of removed rows
+     */
+    public void removeRows(int index, int numberOfRows) {
+        heights.removeRange(index, index + numberOfRows);
+        heights.shiftKeys(index + numberOfRows, -numberOfRows);
+    }
+
+    /**
+     * Forgets all explicit row heights.
+     */
+    public void clear() {
+        heights.clear();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.shared.ui.grid.Range;
+
+/**
+ * Records the row insertions, removals and refreshes of a row container, so
+ * that they can be painted all at once.
+ * <p>
+ * The mutations are merged as they are recorded. Insertions next to each
+ * other become one insertion, removals next to each other become one
+ * removal, and removing rows that were inserted earlier in the same batch
+ * cancels out. Refreshed rows are kept as a set of ranges in the coordinates
+ * of the final rows, so that a row is refreshed at most once, and not at all
+ * if it is removed later in the batch.
+ * <p>
+ * The indices given to this class are not validated, as they are validated
+ * by the row container against {@link #getRowCount()}.
+ *
+ * @author Vaadin Ltd
+ */
+public class RowMutationBatch {
+
+    /**
+     * An insertion or removal of rows.
+     */
+    public static final class Mutation {
+        private final boolean insertion;
+        private int index;
+        private int count;
+
+        private Mutation(boolean insertion, int index, int count) {
+            this.insertion = insertion;
+            this.index = index;
+            this.count = count;
+        }
+
+        /**
+         * Checks whether rows are inserted or removed.
+         *
+         * @return <code>true</code> if rows are inserted, <code>false</code>
+         *         if rows are removed
+         */
+        public boolean isInsertion() {
+            return insertion;
+        }
+
+        /**
+         * Gets the logical index of the first inserted or removed row.
+         *
+         * @return the index of the first row
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the number of inserted or removed rows.
+         *
+         * @return the number of rows
+         */
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return (insertion ? "insert" : "remove") + "(" + index + ", "
+                    + count + ")";
+        }
+    }
+
+    private final List<Mutation> mutations = new ArrayList<Mutation>();
+
+    /** Sorted, non-overlapping and non-adjacent ranges. */
+    private final List<Range> refreshedRanges = new ArrayList<Range>();
+
+    private int rowCount;
+
+    private int recordedCount = 0;
+
+    /**
+     * Creates a new, empty batch.
+     *
+     * @param rowCount
+     *            the number of rows in the row container before the batch
+     */
+    public RowMutationBatch(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Gets the number of rows the row container has after all recorded
+     * mutations.
+     *
+     * @return the row count after the batch
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Records an insertion of rows.
+     *
+     * @param index
+     *            the logical index of the first inserted row
+     * @param numberOfRows
+     *            the number of inserted rows
+     */
+    public void insertRows(int index, int numberOfRows) {
+        recordedCount++;
+        rowCount += numberOfRows;
+
+        for (int i = 0; i < refreshedRanges.size(); i++) {
+            final Range range = refreshedRanges.get(i);
+            if (range.getStart() >= index) {
+                refreshedRanges.set(i, range.offsetBy(numberOfRows));
+            } else if (range.getEnd() > index) {
+                refreshedRanges.set(i, range.expand(0, numberOfRows));
+            }
+        }
+
+        final Mutation last = getMutationFromEnd(0);
+        if (last != null && last.insertion && index >= last.index
+                && index <= last.index + last.count) {
+            last.count += numberOfRows;
+            return;
+        }
+
+        /*
+         * An insertion after a removal can be done before the removal
+         * instead. This merges the insertions of a feed that appends rows at
+         * the end and removes rows from the start.
+         */
+        final Mutation previous = getMutationFromEnd(1);
+        if (last != null && !last.insertion && previous != null
+                && previous.insertion) {
+            final int indexBeforeRemoval = index <= last.index ? index : index
+                    + last.count;
+            if (indexBeforeRemoval >= previous.index
+                    && indexBeforeRemoval <= previous.index + previous.count) {
+                previous.count += numberOfRows;
+                if (index <= last.index) {
+                    last.index += numberOfRows;
+                }
+                return;
+            }
+        }
+
+        mutations.add(new Mutation(true, index, numberOfRows));
+    }
+
+    /**
+     * Records a removal of rows.
+     *
+     * @param index
+     *            the logical index of the first removed row
+     * @param numberOfRows
+     *            the number of removed rows
+     */
+    public void removeRows(int index, int numberOfRows) {
+        recordedCount++;
+        rowCount -= numberOfRows;
+
+        final int end = index + numberOfRows;
+        final List<Range> ranges = new ArrayList<Range>(refreshedRanges);
+        refreshedRanges.clear();
+        for (Range range : ranges) {
+            final int start = range.getStart() <= index ? range.getStart()
+                    : Math.max(index, range.getStart() - numberOfRows);
+            final int rangeEnd = range.getEnd() <= index ? range.getEnd()
+                    : Math.max(index, range.getEnd() - numberOfRows);
+            if (start < rangeEnd) {
+                addRefreshedRange(Range.between(start, rangeEnd));
+            }
+        }
+
+        final Mutation last = getMutationFromEnd(0);
+        if (last != null && last.insertion && index >= last.index
+                && end <= last.index + last.count) {
+            // The removed rows were never painted
+            last.count -= numberOfRows;
+            if (last.count == 0) {
+                mutations.remove(mutations.size() - 1);
+            }
+        } else if (last != null && !last.insertion && index == last.index) {
+            last.count += numberOfRows;
+        } else if (last != null && !last.insertion && end == last.index) {
+            last.index = index;
+            last.count += numberOfRows;
+        } else {
+            mutations.add(new Mutation(false, index, numberOfRows));
+        }
+    }
+
+    /**
+     * Records a refresh of rows.
+     *
+     * @param index
+     *            the logical index of the first refreshed row
+     * @param numberOfRows
+     *            the number of refreshed rows
+     */
+    public void refreshRows(int index, int numberOfRows) {
+        recordedCount++;
+        if (numberOfRows > 0) {
+            addRefreshedRange(Range.withLength(index, numberOfRows));
+        }
+    }
+
+    /**
+     * Gets the merged insertions and removals, in the order they should be
+     * painted in.
+     *
+     * @return the merged mutations
+     */
+    public List<Mutation> getMutations() {
+        return mutations;
+    }
+
+    /**
+     * Gets the rows that should be refreshed after the mutations have been
+     * painted, limited to the rows that exist after the batch.
+     *
+     * @return the refreshed row ranges, in ascending order
+     */
+    public List<Range> getRefreshedRanges() {
+        final List<Range> ranges = new ArrayList<Range>();
+        final Range allRows = Range.withLength(0, rowCount);
+        for (Range range : refreshedRanges) {
+            final Range restricted = range.restrictTo(allRows);
+            if (!restricted.isEmpty()) {
+                ranges.add(restricted);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Checks whether there is anything to paint.
+     *
+     * @return <code>true</code> iff no mutations or refreshes remain after
+     *         merging
+     */
+    public boolean isEmpty() {
+        return mutations.isEmpty() && refreshedRanges.isEmpty();
+    }
+
+    /**
+     * Gets the number of insertions, removals and refreshes that have been
+     * recorded, before merging.
+     *
+     * @return the number of recorded calls
+     */
+    public int getRecordedCount() {
+        return recordedCount;
+    }
+
+    private Mutation getMutationFromEnd(int offset) {
+        final int index = mutations.size() - 1 - offset;
+        return index >= 0 ? mutations.get(index) : null;
+    }
+
+    private void addRefreshedRange(Range added) {
+        int i = 0;
+        while (i < refreshedRanges.size()
+                && refreshedRanges.get(i).getEnd() < added.getStart()) {
+            i++;
+        }
+
+        Range merged = added;
+        while (i < refreshedRanges.size()
+                && refreshedRanges.get(i).getStart() <= merged.getEnd()) {
+            merged = merged.combineWith(refreshedRanges.remove(i));
+        }
+        refreshedRanges.add(i, merged);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+/**
+ * Decides how many body rows are rendered outside of the viewport.
+ * <p>
+ * While the body is at rest, {@link #getBaseRows()} rows are rendered both
+ * above and below the viewport. While it is being scrolled, more rows are
+ * rendered, enough to cover the distance the content moves in
+ * {@link #getLookaheadMillis()} milliseconds at the current scroll velocity.
+ * Most of those extra rows are placed in the direction of the scroll, as that
+ * is where the rows will be needed next.
+ * <p>
+ * More rows mean less blank space while scrolling fast, at the cost of more
+ * DOM elements and more rows to update. Instances of this class are
+ * immutable.
+ *
+ * @author Vaadin Ltd
+ */
+public class RowOverscanPolicy {
+
+    /** The default number of rows rendered on both sides of the viewport. */
+    public static final int DEFAULT_BASE_ROWS = 2;
+
+    /** The default maximum number of rows rendered on one side. */
+    public static final int DEFAULT_MAX_ROWS = 20;
+
+    /** The default time to render rows ahead for, in milliseconds. */
+    public static final double DEFAULT_LOOKAHEAD_MILLIS = 150;
+
+    /** The default share of the extra rows rendered in the scroll direction. */
+    public static final double DEFAULT_LEADING_SHARE = 0.75;
+
+    private final int baseRows;
+    private final int maxRows;
+    private final double lookaheadMillis;
+    private final double leadingShare;
+
+    /**
+     * Creates a policy with the default values.
+     */
+    public RowOverscanPolicy() {
+        this(DEFAULT_BASE_ROWS, DEFAULT_MAX_ROWS, DEFAULT_LOOKAHEAD_MILLIS,
+                DEFAULT_LEADING_SHARE);
+    }
+
+    /**
+     * Creates a new overscan policy.
+     *
+     * @param baseRows
+     *            the number of rows to render on both sides of the viewport
+     *            when the body isn't being scrolled
+     * @param maxRows
+     *            the maximum number of rows to render on one side of the
+     *            viewport
+     * @param lookaheadMillis
+     *            the time, in milliseconds, to render rows ahead for while
+     *            scrolling, or 0 to not grow the overscan while scrolling
+     * @param leadingShare
+     *            the share of the extra rows (between 0.5 and 1) that is
+     *            rendered in the direction of the scroll, while the rest is
+     *            rendered behind it
+     * @throws IllegalArgumentException
+     *             if {@code baseRows} or {@code lookaheadMillis} is negative,
+     *             if {@code maxRows} is less than {@code baseRows}, or if
+     *             {@code leadingShare} is outside of 0.5..1
+     */
+    public RowOverscanPolicy(int baseRows, int maxRows,
+            double lookaheadMillis, double leadingShare)
+            throws IllegalArgumentException {
+        if (baseRows < 0) {
+            throw new IllegalArgumentException(
+                    "Base rows may not be negative. " + baseRows
+                            + " was given.");
+        }
+        if (maxRows < baseRows) {
+            throw new IllegalArgumentException("Max rows (" + maxRows
+                    + ") may not be less than base rows (" + baseRows + ")");
+        }
+        if (lookaheadMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Lookahead may not be negative. " + lookaheadMillis
+                            + " was given.");
+        }
+        if (leadingShare < 0.5 || leadingShare > 1) {
+            throw new IllegalArgumentException(
+                    "Leading share must be between 0.5 and 1. "
+                            + leadingShare + " was given.");
+        }
+        this.baseRows = baseRows;
+        this.maxRows = maxRows;
+        this.lookaheadMillis = lookaheadMillis;
+        this.leadingShare = leadingShare;
+    }
+
+    /**
+     * Gets the number of rows rendered on both sides of the viewport when the
+     * body isn't being scrolled.
+     *
+     * @return the number of base overscan rows
+     */
+    public int getBaseRows() {
+        return baseRows;
+    }
+
+    /**
+     * Gets the maximum number of rows rendered on one side of the viewport.
+     *
+     * @return the maximum number of overscan rows per side
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Gets the time to render rows ahead for while scrolling.
+     *
+     * @return the lookahead, in milliseconds
+     */
+    public double getLookaheadMillis() {
+        return lookaheadMillis;
+    }
+
+    /**
+     * Gets the share of the extra rows that is rendered in the direction of
+     * the scroll.
+     *
+     * @return the leading share, between 0.5 and 1
+     */
+    public double getLeadingShare() {
+        return leadingShare;
+    }
+
+    /**
+     * Gets the number of rows to render above the viewport.
+     *
+     * @param velocity
+     *            the vertical scroll velocity, in pixels per millisecond.
+     *            Positive values scroll down.
+     * @param rowHeight
+     *            the height of a row, in pixels
+     * @return the number of rows to render above the viewport
+     */
+    public int getRowsAbove(double velocity, double rowHeight) {
+        if (velocity < 0) {
+            return getLeadingRows(-velocity, rowHeight);
+        } else {
+            return getTrailingRows(velocity, rowHeight);
+        }
+    }
+
+    /**
+     * Gets the number of rows to render below the viewport.
+     *
+     * @param velocity
+     *            the vertical scroll velocity, in pixels per millisecond.
+     *            Positive values scroll down.
+     * @param rowHeight
+     *            the height of a row, in pixels
+     * @return the number of rows to render below the viewport
+     */
+    public int getRowsBelow(double velocity, double rowHeight) {
+        if (velocity > 0) {
+            return getLeadingRows(velocity, rowHeight);
+        } else {
+            return getTrailingRows(-velocity, rowHeight);
+        }
+    }
+
+    private int getLeadingRows(double speed, double rowHeight) {
+        double extraRows = getExtraRows(speed, rowHeight) * leadingShare;
+        return (int) Math.min(maxRows, baseRows + Math.ceil(extraRows));
+    }
+
+    private int getTrailingRows(double speed, double rowHeight) {
+        double extraRows = getExtraRows(speed, rowHeight)
+                * (1 - leadingShare);
+        return (int) Math.min(maxRows, baseRows + Math.floor(extraRows));
+    }
+
+    private double getExtraRows(double speed, double rowHeight) {
+        if (rowHeight <= 0) {
+            return 0;
+        }
+        return Math.ceil(speed * lookaheadMillis / rowHeight);
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import com.google.gwt.dom.client.TableRowElement;
+
+/**
+ * The visual order of the physical body rows in an Escalator, kept in a
+ * circular buffer of row slots.
+ * <p>
+ * The buffer is always exactly as large as the number of rows in it. This
+ * means that moving the topmost rows to the bottom (or vice versa), which is
+ * what happens on every scroll, is done by just rotating the head pointer.
+ * No elements are copied, and no list nodes are created. Indexed access is a
+ * constant time operation.
+ * <p>
+ * Inserting or removing rows in the middle rebuilds the buffer, but that
+ * happens only when the number of escalator rows changes, which is rare
+ * compared to scrolling.
+ * <p>
+ * Each slot also carries some metadata in parallel primitive arrays: the
+ * logical index of the row that is rendered into the slot, the top position
+ * the slot's row was placed at, the height that was applied to the slot's
+ * row, and a set of bit flags for work that is pending on the slot's row. The
+ * metadata travels with the slot, so it survives rotations.
+ * <p>
+ * <em>Note:</em> The slot of each row is stored as a property in the row
+ * element, which makes {@link #indexOf(Object)} and
+ * {@link #contains(Object)} constant time operations as well.
+ *
+ * @author Vaadin Ltd
+ */
+public class RowSlotRing extends AbstractList<TableRowElement> implements
+        RandomAccess {
+
+    /** The element property that contains the row's slot index */
+    private static final String SLOT_PROPERTY = "vRowSlot";
+
+    /** The value of the logical index metadata when nothing is rendered */
+    public static final int NO_LOGICAL_INDEX = -1;
+
+    private TableRowElement[] rows = new TableRowElement[0];
+    private int[] logicalIndices = new int[0];
+    private double[] tops = new double[0];
+    private double[] heights = new double[0];
+    private int[] flags = new int[0];
+
+    /** The number of slots that have any flags set */
+    private int flaggedCount = 0;
+
+    /** The slot of the visually first row */
+    private int head = 0;
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    @Override
+    public TableRowElement get(int index) {
+        return rows[slotOf(index)];
+    }
+
+    @Override
+    public TableRowElement set(int index, TableRowElement tr) {
+        int slot = slotOf(index);
+        TableRowElement old = rows[slot];
+        rows[slot] = tr;
+        tr.setPropertyInt(SLOT_PROPERTY, slot);
+        logicalIndices[slot] = NO_LOGICAL_INDEX;
+        tops[slot] = Double.NaN;
+        heights[slot] = Double.NaN;
+        if (flags[slot] != 0) {
+            flags[slot] = 0;
+            flaggedCount--;
+        }
+        return old;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof TableRowElement) || rows.length == 0) {
+            return -1;
+        }
+
+        TableRowElement tr = (TableRowElement) o;
+        int slot = tr.getPropertyInt(SLOT_PROPERTY);
+        if (slot < 0 || slot >= rows.length || rows[slot] != tr) {
+            return -1;
+        }
+
+        int index = slot - head;
+        return index < 0 ? index + rows.length : index;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        // a row can be in the ring only once.
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void add(int index, TableRowElement tr) {
+        insert(index, new TableRowElement[] { tr });
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends TableRowElement> c) {
+        if (c.isEmpty()) {
+            return false;
+        }
+        insert(index, c.toArray(new TableRowElement[c.size()]));
+        return true;
+    }
+
+    @Override
+    public TableRowElement remove(int index) {
+        TableRowElement removed = get(index);
+        int size = rows.length;
+
+        TableRowElement[] newRows = new TableRowElement[size - 1];
+        int[] newLogicalIndices = new int[size - 1];
+        double[] newTops = new double[size - 1];
+        double[] newHeights = new double[size - 1];
+        int[] newFlags = new int[size - 1];
+        int target = 0;
+        for (int i = 0; i < size; i++) {
+            if (i != index) {
+                copySlot(slotOf(i), newRows, newLogicalIndices, newTops,
+                        newHeights, newFlags, target++);
+            }
+        }
+        replaceBuffers(newRows, newLogicalIndices, newTops, newHeights,
+                newFlags);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        replaceBuffers(new TableRowElement[0], new int[0], new double[0],
+                new double[0], new int[0]);
+    }
+
+    /**
+     * Gets the visually first row.
+     *
+     * @return the first row
+     * @throws IndexOutOfBoundsException
+     *             if the ring is empty
+     */
+    public TableRowElement getFirst() throws IndexOutOfBoundsException {
+        return get(0);
+    }
+
+    /**
+     * Gets the visually last row.
+     *
+     * @return the last row
+     * @throws IndexOutOfBoundsException
+     *             if the ring is empty
+     */
+    public TableRowElement getLast() throws IndexOutOfBoundsException {
+        return get(rows.length - 1);
+    }
+
+    /**
+     * Appends a row to the bottom of the visual order.
+     *
+     * @param tr
+     *            the row to add
+     */
+    public void addLast(TableRowElement tr) {
+        add(rows.length, tr);
+    }
+
+    /**
+     * Moves a range of rows to another place in the visual order.
+     * <p>
+     * Moving rows from the top to the bottom, or from the bottom to the top,
+     * is a constant time operation. Other moves rebuild the buffer.
+     *
+     * @param start
+     *            the visual index of the first row to move
+     * @param length
+     *            the number of rows to move
+     * @param targetIndex
+     *            the visual index of the first moved row <em>after</em> the
+     *            move is done
+     * @throws IndexOutOfBoundsException
+     *             if the source or the target range is out of bounds
+     */
+    public void move(int start, int length, int targetIndex)
+            throws IndexOutOfBoundsException {
+        int size = rows.length;
+        if (start < 0 || length < 0 || start + length > size) {
+            throw new IndexOutOfBoundsException("Source range [" + start
+                    + ".." + (start + length) + ") is out of bounds (size: "
+                    + size + ")");
+        }
+        if (targetIndex < 0 || targetIndex + length > size) {
+            throw new IndexOutOfBoundsException("Target range ["
+                    + targetIndex + ".." + (targetIndex + length)
+                    + ") is out of bounds (size: " + size + ")");
+        }
+
+        if (length == 0 || length == size || start == targetIndex) {
+            return;
+        }
+
+        modCount++;
+
+        if (start == 0 && targetIndex == size - length) {
+            // top rows to the bottom
+            head = slotOf(length);
+        } else if (start + length == size && targetIndex == 0) {
+            // bottom rows to the top
+            head = slotOf(start);
+        } else {
+            TableRowElement[] newRows = new TableRowElement[size];
+            int[] newLogicalIndices = new int[size];
+            double[] newTops = new double[size];
+            double[] newHeights = new double[size];
+            int[] newFlags = new int[size];
+
+            int target = 0;
+            for (int i = 0; i < size; i++) {
+                if (target == targetIndex) {
+                    for (int j = start; j < start + length; j++) {
+                        copySlot(slotOf(j), newRows, newLogicalIndices,
+                                newTops, newHeights, newFlags, target++);
+                    }
+                }
+                if (i < start || i >= start + length) {
+                    copySlot(slotOf(i), newRows, newLogicalIndices, newTops,
+                            newHeights, newFlags, target++);
+                }
+            }
+            if (target == targetIndex) {
+                for (int j = start; j < start + length; j++) {
+                    copySlot(slotOf(j), newRows, newLogicalIndices, newTops,
+                            newHeights, newFlags, target++);
+                }
+            }
+            replaceBuffers(newRows, newLogicalIndices, newTops, newHeights,
+                    newFlags);
+        }
+    }
+
+    /**
+     * Gets the logical index of the row rendered in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @return the logical index of the rendered row, or
+     *         {@value #NO_LOGICAL_INDEX} if nothing has been rendered in the
+     *         slot
+     */
+    public int getLogicalIndex(int index) {
+        return logicalIndices[slotOf(index)];
+    }
+
+    /**
+     * Sets the logical index of the row rendered in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @param logicalIndex
+     *            the logical index of the rendered row, or
+     *            {@value #NO_LOGICAL_INDEX}
+     */
+    public void setLogicalIndex(int index, int logicalIndex) {
+        logicalIndices[slotOf(index)] = logicalIndex;
+    }
+
+    /**
+     * Gets the top position of the row in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @return the top position of the row, or {@link Double#NaN} if the row
+     *         hasn't been positioned since it was added
+     */
+    public double getTop(int index) {
+        return tops[slotOf(index)];
+    }
+
+    /**
+     * Sets the top position of the row in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @param top
+     *            the top position of the row
+     */
+    public void setTop(int index, double top) {
+        tops[slotOf(index)] = top;
+    }
+
+    /**
+     * Gets the height that was applied to the row in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @return the applied height, or {@link Double#NaN} if the row has the
+     *         default height, or no height has been applied since the row
+     *         was added
+     */
+    public double getHeight(int index) {
+        return heights[slotOf(index)];
+    }
+
+    /**
+     * Sets the height that was applied to the row in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @param height
+     *            the applied height, or {@link Double#NaN} for the default
+     *            height
+     */
+    public void setHeight(int index, double height) {
+        heights[slotOf(index)] = height;
+    }
+
+    /**
+     * Gets the flags of the row in a slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @return the flags of the row, or 0 if none are set
+     */
+    public int getFlags(int index) {
+        return flags[slotOf(index)];
+    }
+
+    /**
+     * Sets the flags of the row in a slot. The flags are cleared when a new
+     * row is put in the slot.
+     *
+     * @param index
+     *            the visual index of the slot
+     * @param slotFlags
+     *            the flags of the row, or 0 to clear them
+     */
+    public void setFlags(int index, int slotFlags) {
+        int slot = slotOf(index);
+        if (flags[slot] != 0) {
+            flaggedCount--;
+        }
+        flags[slot] = slotFlags;
+        if (slotFlags != 0) {
+            flaggedCount++;
+        }
+    }
+
+    /**
+     * Gets the number of slots that have any flags set.
+     *
+     * @return the number of flagged slots
+     */
+    public int getFlaggedCount() {
+        return flaggedCount;
+    }
+
+    /**
+     * Clears the flags of all slots.
+     */
+    public void clearFlags() {
+        if (flaggedCount > 0) {
+            for (int slot = 0; slot < flags.length; slot++) {
+                flags[slot] = 0;
+            }
+            flaggedCount = 0;
+        }
+    }
+
+    private int slotOf(int index) {
+        if (index < 0 || index >= rows.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+                    + rows.length);
+        }
+        int slot = head + index;
+        return slot < rows.length ? slot : slot - rows.length;
+    }
+
+    private void insert(int index, TableRowElement[] added) {
+        int size = rows.length;
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: "
+                    + size);
+        }
+
+        int newSize = size + added.length;
+        TableRowElement[] newRows = new TableRowElement[newSize];
+        int[] newLogicalIndices = new int[newSize];
+        double[] newTops = new double[newSize];
+        double[] newHeights = new double[newSize];
+        int[] newFlags = new int[newSize];
+
+        int target = 0;
+        for (int i = 0; i < index; i++) {
+            copySlot(slotOf(i), newRows, newLogicalIndices, newTops,
+                    newHeights, newFlags, target++);
+        }
+        for (TableRowElement tr : added) {
+            newRows[target] = tr;
+            newLogicalIndices[target] = NO_LOGICAL_INDEX;
+            newTops[target] = Double.NaN;
+            newHeights[target] = Double.NaN;
+            target++;
+        }
+        for (int i = index; i < size; i++) {
+            copySlot(slotOf(i), newRows, newLogicalIndices, newTops,
+                    newHeights, newFlags, target++);
+        }
+        replaceBuffers(newRows, newLogicalIndices, newTops, newHeights,
+                newFlags);
+    }
+
+    private void copySlot(int slot, TableRowElement[] newRows,
+            int[] newLogicalIndices, double[] newTops, double[] newHeights,
+            int[] newFlags, int target) {
+        newRows[target] = rows[slot];
+        newLogicalIndices[target] = logicalIndices[slot];
+        newTops[target] = tops[slot];
+        newHeights[target] = heights[slot];
+        newFlags[target] = flags[slot];
+    }
+
+    private void replaceBuffers(TableRowElement[] newRows,
+            int[] newLogicalIndices, double[] newTops, double[] newHeights,
+            int[] newFlags) {
+        rows = newRows;
+        logicalIndices = newLogicalIndices;
+        tops = newTops;
+        heights = newHeights;
+        flags = newFlags;
+        head = 0;
+        modCount++;
+
+        flaggedCount = 0;
+        for (int slot = 0; slot < rows.length; slot++) {
+            rows[slot].setPropertyInt(SLOT_PROPERTY, slot);
+            if (flags[slot] != 0) {
+                flaggedCount++;
+            }
+        }
+    }
+}
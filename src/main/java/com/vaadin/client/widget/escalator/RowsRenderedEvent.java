@@ -0,0 +1,79 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+import com.google.gwt.event.shared.GwtEvent;
+import com.vaadin.shared.ui.grid.Range;
+
+/**
+ * Event fired once the body rows that were shown as placeholders during fast
+ * scrolling have had their content rendered.
+ * 
+ * @author Vaadin Ltd
+ */
+public class RowsRenderedEvent extends GwtEvent<RowsRenderedHandler> {
+    /**
+     * The type of this event.
+     */
+    public static final Type<RowsRenderedHandler> TYPE = new Type<RowsRenderedHandler>();
+
+    private final Range renderedRows;
+    private final int renderedRowCount;
+
+    /**
+     * Creates a new rows rendered event.
+     * 
+     * @param renderedRows
+     *            the range of logical rows that spans all the rendered rows
+     * @param renderedRowCount
+     *            the number of rows whose content was rendered
+     */
+    public RowsRenderedEvent(Range renderedRows, int renderedRowCount) {
+        this.renderedRows = renderedRows;
+        this.renderedRowCount = renderedRowCount;
+    }
+
+    /**
+     * Gets the range of logical rows that spans all the rows whose content
+     * was rendered. Rows within the range that already had their content
+     * aren't rendered again.
+     * 
+     * @return the range of rendered rows
+     */
+    public Range getRenderedRowRange() {
+        return renderedRows;
+    }
+
+    /**
+     * Gets the number of rows whose content was rendered.
+     * 
+     * @return the number of rendered rows
+     */
+    public int getRenderedRowCount() {
+        return renderedRowCount;
+    }
+
+    @Override
+    public Type<RowsRenderedHandler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(RowsRenderedHandler handler) {
+        handler.onRowsRendered(this);
+    }
+
+}
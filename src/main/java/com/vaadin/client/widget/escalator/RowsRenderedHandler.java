@@ -0,0 +1,37 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.client.widget.escalator;
+
+import com.google.gwt.event.shared.EventHandler;
+
+/**
+ * Event handler that gets notified when the content of rows, that were shown
+ * as placeholders during fast scrolling, has been rendered.
+ * 
+ * @author Vaadin Ltd
+ */
+public interface RowsRenderedHandler extends EventHandler {
+
+    /**
+     * Called when the content of placeholder rows has been rendered.
+     * 
+     * @param event
+     *            the rows rendered event describing the rendered rows
+     */
+    void onRowsRendered(RowsRenderedEvent event);
+
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+/**
+ * A sparse mapping from row indices to pixel values (e.g. spacer heights or
+ * row height overrides), which can answer prefix sum queries in logarithmic
+ * time.
+ * <p>
+ * The entries are stored in a randomized balanced search tree (a treap) keyed
+ * by row index. Each node is augmented with the number of entries, the sum of
+ * the values and the smallest value in its subtree. Shifting all row indices
+ * from a given row onwards (which is what happens when rows are inserted or
+ * removed) is done lazily, and costs as much as a single lookup.
+ * <p>
+ * The pixel based queries ({@link #findLastAtOrBefore(double, BaseOffset)})
+ * assume that the entries are laid out so that an entry's position is its
+ * {@link BaseOffset base offset} plus the values of all the entries before
+ * it. This is how e.g. spacers are placed in the Escalator body.
+ *
+ * @author Vaadin Ltd
+ */
+public class SparseRowSumTree {
+
+    /**
+     * The position of an entry, excluding the values of the entries before
+     * it.
+     * <p>
+     * The base offset must never decrease as the key increases.
+     */
+    public interface BaseOffset {
+        /**
+         * Gets the base offset of an entry.
+         *
+         * @param key
+         *            the row index of the entry
+         * @return the position of the entry at {@code key}, not counting any
+         *         of the values in this tree
+         */
+        double getBaseOffset(int key);
+    }
+
+    /** The return value of searches that don't find anything */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static final class Node {
+        private int key;
+        private double value;
+        private final int priority;
+
+        private Node left;
+        private Node right;
+
+        /** Number of nodes in the subtree */
+        private int count = 1;
+        /** Sum of the values in the subtree */
+        private double sum;
+        /** Smallest value in the subtree */
+        private double min;
+        /** Key shift not yet applied to the children */
+        private int pendingShift = 0;
+
+        private Node(int key, double value, int priority) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            sum = value;
+            min = value;
+        }
+    }
+
+    private Node root;
+
+    /** State of the xorshift generator used for the node priorities */
+    private int seed = 0x2545F491;
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return count(root);
+    }
+
+    /**
+     * Checks whether there are any entries.
+     *
+     * @return <code>true</code> iff there are no entries
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Sets the value for a row index, replacing any previous value.
+     *
+     * @param key
+     *            the row index
+     * @param value
+     *            the value for the row
+     */
+    public void put(int key, double value) {
+        Node node = find(key);
+        if (node != null) {
+            node.value = value;
+            /*
+             * The ancestors' aggregates are stale now. Re-inserting would also
+             * work, but it's easier to just recalculate along the path.
+             */
+            updatePath(key);
+        } else {
+            Node[] lessAndRest = split(root, key);
+            root = merge(merge(lessAndRest[0], new Node(key, value,
+                    nextPriority())), lessAndRest[1]);
+        }
+    }
+
+    /**
+     * Removes the value of a row index.
+     *
+     * @param key
+     *            the row index
+     * @return <code>true</code> if there was a value to remove
+     */
+    public boolean remove(int key) {
+        Node[] lessAndRest = split(root, key);
+        Node[] equalAndGreater = split(lessAndRest[1], key + 1);
+        root = merge(lessAndRest[0], equalAndGreater[1]);
+        return equalAndGreater[0] != null;
+    }
+
+    /**
+     * Removes the values of a range of row indices.
+     *
+     * @param fromKey
+     *            the first row index to remove (inclusive)
+     * @param toKey
+     *            the last row index to remove (exclusive)
+     * @return the number of removed values
+     */
+    public int removeRange(int fromKey, int toKey) {
+        if (fromKey >= toKey) {
+            return 0;
+        }
+        Node[] lessAndRest = split(root, fromKey);
+        Node[] removedAndGreater = split(lessAndRest[1], toKey);
+        root = merge(lessAndRest[0], removedAndGreater[1]);
+        return count(removedAndGreater[0]);
+    }
+
+    /**
+     * Checks whether a row index has a value.
+     *
+     * @param key
+     *            the row index
+     * @return <code>true</code> iff the row has a value
+     */
+    public boolean contains(int key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Gets the value of a row index.
+     *
+     * @param key
+     *            the row index
+     * @param defaultValue
+     *            the value to return if there's no value for {@code key}
+     * @return the value for {@code key}, or {@code defaultValue}
+     */
+    public double get(int key, double defaultValue) {
+        Node node = find(key);
+        return node != null ? node.value : defaultValue;
+    }
+
+    /**
+     * Gets the sum of all the values.
+     *
+     * @return the sum of all values, or 0 if there are none
+     */
+    public double getSum() {
+        return root != null ? root.sum : 0;
+    }
+
+    /**
+     * Gets the smallest value.
+     *
+     * @return the smallest value, or {@link Double#NaN} if there are none
+     */
+    public double getMin() {
+        return root != null ? root.min : Double.NaN;
+    }
+
+    /**
+     * Gets the sum of the values of all row indices before a given index.
+     *
+     * @param key
+     *            the row index (exclusive)
+     * @return the sum of the values of the entries with a smaller key
+     */
+    public double getSumBefore(int key) {
+        double sum = 0;
+        Node node = root;
+        while (node != null) {
+            push(node);
+            if (node.key < key) {
+                sum += sum(node.left) + node.value;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the number of entries with a row index before a given index.
+     *
+     * @param key
+     *            the row index (exclusive)
+     * @return the number of entries with a smaller key
+     */
+    public int getCountBefore(int key) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            push(node);
+            if (node.key < key) {
+                count += count(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the entry with the largest key whose position is at or before a
+     * pixel coordinate.
+     * <p>
+     * The position of an entry is its base offset plus the values of all the
+     * entries before it.
+     *
+     * @param px
+     *            the pixel coordinate
+     * @param baseOffset
+     *            the base offsets of the entries
+     * @return the key of the found entry, or {@link #NOT_FOUND} if all
+     *         entries are positioned after {@code px}
+     */
+    public int findLastAtOrBefore(double px, BaseOffset baseOffset) {
+        return findLastAtOrBefore(px, baseOffset, 0);
+    }
+
+    /**
+     * Finds the entry with the largest key whose position is at or before a
+     * pixel coordinate.
+     * <p>
+     * The position of an entry is its base offset plus the values of all the
+     * entries before it, plus {@code entryOffset} for each of the entries
+     * before it. The entry offset can be used when the values replace some
+     * amount already included in the base offset, e.g. when the values are
+     * row heights that replace the default row height.
+     *
+     * @param px
+     *            the pixel coordinate
+     * @param baseOffset
+     *            the base offsets of the entries
+     * @param entryOffset
+     *            the amount to add to the position for each entry before it
+     * @return the key of the found entry, or {@link #NOT_FOUND} if all
+     *         entries are positioned after {@code px}
+     */
+    public int findLastAtOrBefore(double px, BaseOffset baseOffset,
+            double entryOffset) {
+        int found = NOT_FOUND;
+        double valuesBefore = 0;
+        int countBefore = 0;
+        Node node = root;
+        while (node != null) {
+            push(node);
+            double valuesBeforeNode = valuesBefore + sum(node.left);
+            int countBeforeNode = countBefore + count(node.left);
+            double position = baseOffset.getBaseOffset(node.key)
+                    + valuesBeforeNode + countBeforeNode * entryOffset;
+            if (position <= px) {
+                found = node.key;
+                valuesBefore = valuesBeforeNode + node.value;
+                countBefore = countBeforeNode + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets the smallest key that is greater than or equal to the given key.
+     *
+     * @param key
+     *            the key to look for
+     * @return the ceiling key, or {@link #NOT_FOUND} if there is none
+     */
+    public int ceilingKey(int key) {
+        int found = NOT_FOUND;
+        Node node = root;
+        while (node != null) {
+            push(node);
+            if (node.key >= key) {
+                found = node.key;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Shifts the row indices of all entries at or after a given row index.
+     * <p>
+     * <em>Note:</em> When shifting upwards (with a negative {@code delta}),
+     * the caller needs to make sure that the range the entries are shifted
+     * into is empty, i.e. that the entries of the removed rows have already
+     * been removed.
+     *
+     * @param fromKey
+     *            the first row index to shift
+     * @param delta
+     *            the amount of rows to shift by
+     */
+    public void shiftKeys(int fromKey, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        Node[] lessAndRest = split(root, fromKey);
+        Node rest = lessAndRest[1];
+        if (rest != null) {
+            rest.key += delta;
+            rest.pendingShift += delta;
+        }
+        root = merge(lessAndRest[0], rest);
+    }
+
+    private Node find(int key) {
+        Node node = root;
+        while (node != null) {
+            push(node);
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void updatePath(int key) {
+        Node[] lessAndRest = split(root, key);
+        root = merge(lessAndRest[0], lessAndRest[1]);
+    }
+
+    /**
+     * Splits a subtree into the nodes with a key smaller than {@code key} and
+     * the rest.
+     */
+    private static Node[] split(Node node, int key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        push(node);
+        if (node.key < key) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        } else {
+            Node[] parts = split(node.left, key);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+    }
+
+    /**
+     * Merges two subtrees, where all keys in {@code left} are smaller than
+     * all keys in {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        } else if (left.priority > right.priority) {
+            push(left);
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        } else {
+            push(right);
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    /** Applies a pending key shift to the children of a node. */
+    private static void push(Node node) {
+        if (node.pendingShift != 0) {
+            if (node.left != null) {
+                node.left.key += node.pendingShift;
+                node.left.pendingShift += node.pendingShift;
+            }
+            if (node.right != null) {
+                node.right.key += node.pendingShift;
+                node.right.pendingShift += node.pendingShift;
+            }
+            node.pendingShift = 0;
+        }
+    }
+
+    private static void update(Node node) {
+        node.count = 1 + count(node.left) + count(node.right);
+        node.sum = node.value + sum(node.left) + sum(node.right);
+        double min = node.value;
+        if (node.left != null && node.left.min < min) {
+            min = node.left.min;
+        }
+        if (node.right != null && node.right.min < min) {
+            min = node.right.min;
+        }
+        node.min = min;
+    }
+
+    private static int count(Node node) {
+        return node != null ? node.count : 0;
+    }
+
+    private static double sum(Node node) {
+        return node != null ? node.sum : 0;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
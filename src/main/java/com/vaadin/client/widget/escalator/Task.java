@@ -0,0 +1,34 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+/**
+ * A piece of deferred work, run by {@link IdleWorkScheduler} or
+ * {@link FrameBudgetScheduler}.
+ *
+ * @author Vaadin Ltd
+ */
+public interface Task {
+    /**
+     * Runs the task, or a part of it.
+     *
+     * @param deadline
+     *            the deadline by which the task should return
+     * @return <code>true</code> if the task is done, <code>false</code>
+     *         if there is work left and the task should be run again
+     */
+    boolean run(Deadline deadline);
+}
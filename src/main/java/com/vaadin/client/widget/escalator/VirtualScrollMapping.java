@@ -0,0 +1,269 @@
+/*
+ * Copyright 2000-2014 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.widget.escalator;
+
+/**
+ * Maps a logical scroll range onto a physical scrollbar that can't be made as
+ * large as the logical range.
+ * <p>
+ * Browsers limit the size of an element (to somewhere between 1.5 and 33.5
+ * million pixels, depending on the browser), which means that a scrollbar
+ * can't scroll through an arbitrary amount of content. When the logical
+ * scroll size exceeds {@link #getMaxPhysicalSize()}, the physical scrollbar
+ * is capped to that size and the positions are scaled between the two
+ * ranges.
+ * <p>
+ * The logical position is the master value. When the logical position is
+ * set, e.g. when scrolling programmatically or with the mouse wheel, it is
+ * kept exactly as given, and the physical scrollbar is just moved to the
+ * corresponding spot. When the physical scrollbar is moved by the user (e.g.
+ * by dragging the scroll handle), the logical position jumps proportionally.
+ * The ends of the physical range always map onto the ends of the logical
+ * range, so that the first and last rows stay reachable.
+ * <p>
+ * The logical positions are too large for the DOM as well: browsers clamp
+ * large <code>top</code> values, and large transforms lose their subpixel
+ * precision. The content is thus positioned in the DOM relative to an
+ * {@link #getOrigin() origin}, which is moved along when the scroll position
+ * gets too far from it.
+ *
+ * @author Vaadin Ltd
+ */
+public class VirtualScrollMapping {
+
+    /**
+     * The default maximum size of the physical scrollbar. This is well below
+     * the element size limits of Chrome and Firefox.
+     */
+    public static final double DEFAULT_MAX_PHYSICAL_SIZE = 10000000;
+
+    /**
+     * The furthest the scroll position may get from the origin before the
+     * origin is moved. Positions this small keep their subpixel precision
+     * even as floats.
+     */
+    public static final double MAX_ORIGIN_DISTANCE = 100000;
+
+    private double maxPhysicalSize = DEFAULT_MAX_PHYSICAL_SIZE;
+
+    private double origin = 0;
+
+    private double logicalSize = 0;
+    private double viewportSize = 0;
+
+    private double logicalPos = 0;
+
+    /**
+     * The physical position that corresponds to {@link #logicalPos}. A
+     * physical position different from this means that the scrollbar was
+     * moved by something else than this mapping.
+     */
+    private double physicalPos = 0;
+
+    /**
+     * Sets the largest size the physical scrollbar may be given.
+     *
+     * @param maxPhysicalSize
+     *            the maximum size of the physical scrollbar, in pixels
+     * @throws IllegalArgumentException
+     *             if {@code maxPhysicalSize} is not positive
+     */
+    public void setMaxPhysicalSize(double maxPhysicalSize)
+            throws IllegalArgumentException {
+        if (maxPhysicalSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Max physical size must be positive. " + maxPhysicalSize
+                            + " was given.");
+        }
+        this.maxPhysicalSize = maxPhysicalSize;
+        physicalPos = toPhysical(logicalPos);
+    }
+
+    /**
+     * Gets the largest size the physical scrollbar may be given.
+     *
+     * @return the maximum size of the physical scrollbar, in pixels
+     */
+    public double getMaxPhysicalSize() {
+        return maxPhysicalSize;
+    }
+
+    /**
+     * Sets the size of the logical scroll range.
+     *
+     * @param logicalSize
+     *            the size of the scrolled content, in pixels
+     * @param viewportSize
+     *            the size of the scrollbar (i.e. the visible part of the
+     *            content), in pixels
+     */
+    public void setSize(double logicalSize, double viewportSize) {
+        this.logicalSize = Math.max(0, logicalSize);
+        this.viewportSize = Math.max(0, viewportSize);
+        logicalPos = Math.max(0, Math.min(getMaxLogicalPos(), logicalPos));
+        physicalPos = toPhysical(logicalPos);
+    }
+
+    /**
+     * Gets the size of the logical scroll range.
+     *
+     * @return the size of the scrolled content, in pixels
+     */
+    public double getLogicalSize() {
+        return logicalSize;
+    }
+
+    /**
+     * Gets the size the physical scrollbar should be given.
+     *
+     * @return the size for the physical scrollbar, in pixels
+     */
+    public double getPhysicalSize() {
+        return Math.min(logicalSize, maxPhysicalSize);
+    }
+
+    /**
+     * Checks whether the logical range is larger than the physical range.
+     *
+     * @return <code>true</code> iff the positions are scaled between the
+     *         physical and the logical scroll range
+     */
+    public boolean isScaled() {
+        return logicalSize > maxPhysicalSize
+                && maxPhysicalSize > viewportSize;
+    }
+
+    /**
+     * Gets the number of logical pixels one physical pixel represents.
+     *
+     * @return the scale between the logical and the physical range, or 1 if
+     *         the range is not {@link #isScaled() scaled}
+     */
+    public double getScale() {
+        if (!isScaled()) {
+            return 1;
+        }
+        return getMaxLogicalPos() / getMaxPhysicalPos();
+    }
+
+    /**
+     * Gets the logical scroll position that corresponds to a physical one.
+     * <p>
+     * If the physical position is the same as the one this mapping last
+     * gave, the precise logical position is returned. Otherwise, the
+     * scrollbar has been moved from the outside, and the logical position is
+     * updated proportionally.
+     *
+     * @param physical
+     *            the current position of the physical scrollbar
+     * @return the logical scroll position
+     */
+    public double toLogical(double physical) {
+        if (!isScaled()) {
+            logicalPos = physical;
+            physicalPos = physical;
+        } else if (physical != physicalPos) {
+            if (physical >= getMaxPhysicalPos()) {
+                logicalPos = getMaxLogicalPos();
+            } else {
+                logicalPos = Math.max(0, physical * getScale());
+            }
+            physicalPos = physical;
+        }
+        return logicalPos;
+    }
+
+    /**
+     * Sets the logical scroll position.
+     *
+     * @param logical
+     *            the new logical scroll position
+     * @return the position the physical scrollbar should be moved to
+     */
+    public double setLogicalPosition(double logical) {
+        logicalPos = Math.max(0, Math.min(getMaxLogicalPos(), logical));
+        physicalPos = toPhysical(logicalPos);
+        return physicalPos;
+    }
+
+    /**
+     * Gets the current logical scroll position.
+     *
+     * @return the logical scroll position
+     */
+    public double getLogicalPosition() {
+        return logicalPos;
+    }
+
+    /**
+     * Gets the logical position that the content is positioned relative to
+     * in the DOM.
+     *
+     * @return the logical position of the origin
+     */
+    public double getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Converts a logical position to one relative to the origin, to be
+     * written into the DOM.
+     *
+     * @param logical
+     *            the logical position
+     * @return the position relative to the origin
+     */
+    public double toLocal(double logical) {
+        return logical - origin;
+    }
+
+    /**
+     * Moves the origin to the given scroll position, if the scroll position
+     * is more than {@value #MAX_ORIGIN_DISTANCE} pixels away from it.
+     *
+     * @param logicalScrollPos
+     *            the logical scroll position
+     * @return <code>true</code> if the origin was moved, and the positions
+     *         relative to it need to be written again
+     */
+    public boolean updateOrigin(double logicalScrollPos) {
+        if (Math.abs(logicalScrollPos - origin) <= MAX_ORIGIN_DISTANCE) {
+            return false;
+        }
+        origin = Math.floor(logicalScrollPos);
+        return true;
+    }
+
+    private double toPhysical(double logical) {
+        if (!isScaled()) {
+            return logical;
+        }
+        /*
+         * The scrollbars only support whole pixels, so the value is truncated
+         * the same way ScrollbarBundle does it. Otherwise the physical
+         * position read back from the scrollbar wouldn't match this one.
+         */
+        return Math.floor(logical / getScale());
+    }
+
+    private double getMaxLogicalPos() {
+        return Math.max(0, logicalSize - viewportSize);
+    }
+
+    private double getMaxPhysicalPos() {
+        return Math.max(0, getPhysicalSize() - viewportSize);
+    }
+}
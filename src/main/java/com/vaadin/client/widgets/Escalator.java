@@ -16,6 +16,9 @@
 package com.vaadin.client.widgets;
 
 import com.google.gwt.animation.client.Animation;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
@@ -53,9 +56,14 @@ import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.ui.SubPartAware;
 import com.vaadin.client.widget.escalator.Cell;
 import com.vaadin.client.widget.escalator.ColumnConfiguration;
+import com.vaadin.client.widget.escalator.Deadline;
+import com.vaadin.client.widget.escalator.ElementPool;
+import com.vaadin.client.widget.escalator.EscalatorStyleSheet;
 import com.vaadin.client.widget.escalator.EscalatorUpdater;
 import com.vaadin.client.widget.escalator.FlyweightCell;
 import com.vaadin.client.widget.escalator.FlyweightRow;
+import com.vaadin.client.widget.escalator.FrameBudgetScheduler;
+import com.vaadin.client.widget.escalator.IdleWorkScheduler;
 import com.vaadin.client.widget.escalator.PositionFunction;
 import com.vaadin.client.widget.escalator.PositionFunction.AbsolutePosition;
 import com.vaadin.client.widget.escalator.PositionFunction.Translate3DPosition;
@@ -65,12 +73,24 @@ import com.vaadin.client.widget.escalator.Row;
 import com.vaadin.client.widget.escalator.RowContainer;
 import com.vaadin.client.widget.escalator.RowContainer.BodyRowContainer;
 import com.vaadin.client.widget.escalator.RowVisibilityChangeEvent;
+import com.vaadin.client.widget.escalator.RepaintCompletedEvent;
+import com.vaadin.client.widget.escalator.RepaintCompletedHandler;
+import com.vaadin.client.widget.escalator.RowHeightIndex;
+import com.vaadin.client.widget.escalator.RowMutationBatch;
+import com.vaadin.client.widget.escalator.RowMutationBatch.Mutation;
+import com.vaadin.client.widget.escalator.RowOverscanPolicy;
+import com.vaadin.client.widget.escalator.RowSlotRing;
+import com.vaadin.client.widget.escalator.SparseRowSumTree;
+import com.vaadin.client.widget.escalator.VirtualScrollMapping;
 import com.vaadin.client.widget.escalator.RowVisibilityChangeHandler;
+import com.vaadin.client.widget.escalator.RowsRenderedEvent;
+import com.vaadin.client.widget.escalator.RowsRenderedHandler;
 import com.vaadin.client.widget.escalator.ScrollbarBundle;
 import com.vaadin.client.widget.escalator.ScrollbarBundle.HorizontalScrollbarBundle;
 import com.vaadin.client.widget.escalator.ScrollbarBundle.VerticalScrollbarBundle;
 import com.vaadin.client.widget.escalator.Spacer;
 import com.vaadin.client.widget.escalator.SpacerUpdater;
+import com.vaadin.client.widget.escalator.Task;
 import com.vaadin.client.widget.grid.events.ScrollEvent;
 import com.vaadin.client.widget.grid.events.ScrollHandler;
 import com.vaadin.client.widgets.Escalator.JsniUtil.TouchHandlerBundle;
@@ -84,11 +104,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -401,10 +422,38 @@ public class Escalator extends Widget implements RequiresResize,
                     speeds.clear();
                     prevPos = pagePosition(event);
                     prevTime = Duration.currentTimeMillis();
-                    scrollMax = scroll.getScrollSize() - scroll.getOffsetSize();
+                    scrollMax = getScrollSize() - scroll.getOffsetSize();
                     delta = 0;
                 }
 
+                /*
+                 * The positions are logical, so that touch scrolling stays
+                 * pixel-exact even if the vertical scrollbar is scaled.
+                 */
+                double getScrollPos() {
+                    return vertical ? escalator.getScrollTop() : escalator
+                            .getScrollLeft();
+                }
+
+                void setScrollPos(double p) {
+                    if (vertical) {
+                        escalator.setScrollTop(p);
+                    } else {
+                        escalator.setScrollLeft(p);
+                    }
+                }
+
+                void setScrollPosByDelta(double d) {
+                    if (d != 0) {
+                        setScrollPos(getScrollPos() + d);
+                    }
+                }
+
+                double getScrollSize() {
+                    return vertical ? escalator.getScrollHeight() : escalator
+                            .getScrollWidth();
+                }
+
                 public void moveTouch(CustomTouchEvent event) {
                     double pagePosition = pagePosition(event);
                     run = false;
@@ -422,7 +471,7 @@ public class Escalator extends Widget implements RequiresResize,
                         speeds.add(0, velocity);
                         prevTime = now;
                         prevPos = pagePosition;
-                        position = scroll.getScrollPos();
+                        position = getScrollPos();
                     }
                 }
 
@@ -441,7 +490,7 @@ public class Escalator extends Widget implements RequiresResize,
                     for (double s : speeds) {
                         velocity += s / speeds.size();
                     }
-                    position = scroll.getScrollPos();
+                    position = getScrollPos();
 
                     // Compute offset, and adjust it with an easing curve so as
                     // movement is smoother.
@@ -458,7 +507,7 @@ public class Escalator extends Widget implements RequiresResize,
                 void stepAnimation(double progress) {
                     if (run) {
                         double p = position + offset * progress;
-                        scroll.setScrollPos(p);
+                        setScrollPos(p);
                         run = inScrollRange(p);
                     }
                 }
@@ -483,6 +532,7 @@ public class Escalator extends Widget implements RequiresResize,
                 public void onUpdate(double progress) {
                     xMov.stepAnimation(progress);
                     yMov.stepAnimation(progress);
+                    escalator.scroller.scheduleScrollFrame();
                     if (!xMov.run && !yMov.run) {
                         // Stop animation as soon as we reach the border,
                         // so as we do not wait to move the external scroll.
@@ -547,12 +597,13 @@ public class Escalator extends Widget implements RequiresResize,
                     xMov.validate(yMov);
                     yMov.validate(xMov);
                     if (xMov.run) {
-                        xMov.scroll.setScrollPosByDelta(xMov.delta);
+                        xMov.setScrollPosByDelta(xMov.delta);
                     }
                     if (yMov.run) {
-                        yMov.scroll.setScrollPosByDelta(yMov.delta);
+                        yMov.setScrollPosByDelta(yMov.delta);
                     }
                     if (xMov.run || yMov.run) {
+                        escalator.scroller.scheduleScrollFrame();
                         // If we move the scroll prevent default, otherwise
                         // pass the control to the device.
                         event.preventDefault();
@@ -608,13 +659,13 @@ public class Escalator extends Widget implements RequiresResize,
             boolean movex = !Double.isNaN(deltaX);
             boolean movey = !Double.isNaN(deltaY);
             if (movex || movey) {
-                escalator.bodyElem.addClassName("scrolling");
                 if (movex) {
                     escalator.horizontalScrollbar.setScrollPosByDelta(deltaX);
                 }
                 if (movey) {
-                    escalator.verticalScrollbar.setScrollPosByDelta(deltaY);
+                    escalator.setVerticalScrollPosByDelta(deltaY);
                 }
+                escalator.scroller.scheduleScrollFrame();
                 escalator.body.domSorter.reschedule();
 
                 /*
@@ -712,10 +763,134 @@ public class Escalator extends Widget implements RequiresResize,
         private double lastScrollTop = 0;
         private double lastScrollLeft = 0;
 
+        /**
+         * Whether the scroll handling has already been queued for the next
+         * animation frame.
+         */
+        private boolean scrollFrameQueued = false;
+
+        /**
+         * The number of scroll updates that were merged into an already
+         * pending animation frame, instead of being processed on their own.
+         */
+        private int coalescedScrollEventCount = 0;
+
+        /** The scroll top, as measured in the current frame */
+        private double frameScrollTop = 0;
+        /** The scroll left, as measured in the current frame */
+        private double frameScrollLeft = 0;
+
+        /**
+         * The vertical scroll velocity, in pixels per millisecond, averaged
+         * over the last scroll frames. Positive values scroll down.
+         */
+        private double scrollVelocity = 0;
+        private double lastVerticalScrollTime = 0;
+
+        /**
+         * Shrinks the row overscan back to the base amount, and ends the
+         * {@link ScrollState#SCROLLING scrolling state}, once the body hasn't
+         * been scrolled for {@link #OVERSCAN_IDLE_MILLIS}.
+         */
+        private final Timer overscanIdleTimer = new Timer() {
+            @Override
+            public void run() {
+                domPhases.mutate(overscanShrinkCommand);
+            }
+        };
+
+        private final ScheduledCommand overscanShrinkCommand = new ScheduledCommand() {
+            @Override
+            public void execute() {
+                resetRowOverscan();
+            }
+        };
+
+        private final ScheduledCommand scrollMeasureCommand = new ScheduledCommand() {
+            @Override
+            public void execute() {
+                scrollFrameQueued = false;
+                measureScrollFrame();
+                domPhases.mutate(frozenColumnsScrollCommand);
+                domPhases.mutate(rowsScrollCommand);
+                domPhases.mutate(spacersScrollCommand);
+            }
+        };
+
+        private final ScheduledCommand frozenColumnsScrollCommand = new ScheduledCommand() {
+            @Override
+            public void execute() {
+                applyHorizontalScroll();
+            }
+        };
+
+        private final ScheduledCommand rowsScrollCommand = new ScheduledCommand() {
+            @Override
+            public void execute() {
+                updateRowOverscan();
+                applyVerticalScroll();
+            }
+        };
+
+        private final ScheduledCommand spacersScrollCommand = new ScheduledCommand() {
+            @Override
+            public void execute() {
+                body.spacerContainer.updateSpacerDecosVisibility();
+                fireEvent(new ScrollEvent());
+            }
+        };
+
         public Scroller() {
             super(Escalator.this);
         }
 
+        /**
+         * Requests the logical scroll handling to be run on the next animation
+         * frame.
+         * <p>
+         * Native scroll events, mousewheel events and touch movements can all
+         * arrive several times between two rendered frames (e.g. on high
+         * refresh rate trackpads). Since the scroll positions are cached in
+         * the scrollbar bundles, all those deltas are gathered there, and the
+         * expensive part &ndash; repositioning, row recycling and the row
+         * visibility event &ndash; only needs to be done once per frame.
+         * <p>
+         * The work is split into the phases of {@link DomPhaseScheduler}: the
+         * scroll positions and the viewport size are measured first, then the
+         * frozen columns, the rows and the spacers are updated based on those
+         * measurements.
+         */
+        public void scheduleScrollFrame() {
+            if (!scrollFrameQueued) {
+                scrollFrameQueued = true;
+                domPhases.measure(scrollMeasureCommand);
+            } else {
+                coalescedScrollEventCount++;
+            }
+        }
+
+        public boolean isScrollFramePending() {
+            return scrollFrameQueued;
+        }
+
+        /**
+         * Forgets about a queued scroll frame. The queued command itself needs
+         * to be dropped with {@link DomPhaseScheduler#cancel()}.
+         */
+        public void cancelScrollFrame() {
+            scrollFrameQueued = false;
+        }
+
+        /**
+         * Reads everything that the scroll handling needs to know from the
+         * DOM, so that no layout is forced while the rows are being moved.
+         */
+        private void measureScrollFrame() {
+            frameScrollTop = getVerticalScrollPos();
+            frameScrollLeft = horizontalScrollbar.getScrollPos();
+            body.measureHeightOfSection();
+        }
+
         @Override
         protected native JavaScriptObject createScrollListenerFunction(
                 Escalator esc)
@@ -826,8 +1001,8 @@ public class Escalator extends Widget implements RequiresResize,
             double headerHeight = header.getHeightOfSection();
             double vScrollbarHeight = Math.max(0, tableWrapperHeight
                     - footerHeight - headerHeight);
-            verticalScrollbar.setOffsetSize(vScrollbarHeight);
-            verticalScrollbar.setScrollSize(scrollContentHeight);
+            setVerticalScrollOffsetSize(vScrollbarHeight);
+            setVerticalScrollSize(scrollContentHeight);
 
             /*
              * If decreasing the amount of frozen columns, and scrolled to the
@@ -883,17 +1058,26 @@ public class Escalator extends Widget implements RequiresResize,
 
         /**
          * Logical scrolling event handler for the entire widget.
+         * <p>
+         * This runs the measure and the mutate parts of the scroll handling
+         * synchronously, one after the other. Scroll events coming from the
+         * browser go through {@link #scheduleScrollFrame()} instead.
          */
         public void onScroll() {
+            measureScrollFrame();
+            applyHorizontalScroll();
+            applyVerticalScroll();
+            body.spacerContainer.updateSpacerDecosVisibility();
+        }
 
-            final double scrollTop = verticalScrollbar.getScrollPos();
-            final double scrollLeft = horizontalScrollbar.getScrollPos();
+        /**
+         * Moves the frozen columns, the header and the footer according to the
+         * measured scroll left.
+         */
+        private void applyHorizontalScroll() {
+            final double scrollLeft = frameScrollLeft;
             if (lastScrollLeft != scrollLeft) {
-                for (int i = 0; i < columnConfiguration.frozenColumns; i++) {
-                    header.updateFreezePosition(i, scrollLeft);
-                    body.updateFreezePosition(i, scrollLeft);
-                    footer.updateFreezePosition(i, scrollLeft);
-                }
+                applyFrozenCellPosition(scrollLeft);
 
                 position.set(headElem, -scrollLeft, 0);
 
@@ -918,18 +1102,97 @@ public class Escalator extends Widget implements RequiresResize,
                 }
 
                 lastScrollLeft = scrollLeft;
+                body.updateColumnWindow();
             }
+        }
 
-            body.setBodyScrollPosition(scrollLeft, scrollTop);
+        /**
+         * Moves the body according to the measured scroll positions, and
+         * recycles the escalator rows as needed.
+         */
+        private void applyVerticalScroll() {
+            body.setBodyScrollPosition(frameScrollLeft, frameScrollTop);
 
-            lastScrollTop = scrollTop;
+            lastScrollTop = frameScrollTop;
             body.updateEscalatorRowsOnScroll();
-            body.spacerContainer.updateSpacerDecosVisibility();
-            /*
-             * TODO [[optimize]]: Might avoid a reflow by first calculating new
-             * scrolltop and scrolleft, then doing the escalator magic based on
-             * those numbers and only updating the positions after that.
-             */
+        }
+
+        /**
+         * Measures the vertical scroll velocity, and grows the amount of body
+         * rows rendered outside of the viewport according to
+         * {@link Escalator#rowOverscanPolicy}.
+         * <p>
+         * The overscan is only grown while scrolling, so that the escalator
+         * rows aren't added and removed back and forth as the velocity
+         * fluctuates. It's shrunk back when the scrolling stops.
+         * <p>
+         * The velocity is measured from the scroll positions of the frames,
+         * so it covers the mouse wheel, touch scrolling and dragging the
+         * scrollbar alike. This is only done for scroll frames, since
+         * {@link #onScroll()} is also used for jumping around internally.
+         * <p>
+         * The velocity also drives the {@link ScrollState} of the body.
+         */
+        private void updateRowOverscan() {
+            final double delta = frameScrollTop - lastScrollTop;
+            if (delta == 0) {
+                return;
+            }
+
+            final double now = Duration.currentTimeMillis();
+            final double elapsed = now - lastVerticalScrollTime;
+            lastVerticalScrollTime = now;
+            if (elapsed > 0 && elapsed < OVERSCAN_IDLE_MILLIS) {
+                scrollVelocity = (scrollVelocity + delta / elapsed) / 2;
+            } else {
+                // The first frame of a scroll tells nothing about its speed
+                scrollVelocity = 0;
+            }
+
+            if (Math.abs(scrollVelocity) > fastScrollThreshold) {
+                body.setScrollState(ScrollState.FAST_SCROLLING);
+            } else {
+                body.setScrollState(ScrollState.SCROLLING);
+            }
+
+            final double rowHeight = body.getDefaultRowHeight();
+            final int rowsAbove = rowOverscanPolicy.getRowsAbove(
+                    scrollVelocity, rowHeight);
+            final int rowsBelow = rowOverscanPolicy.getRowsBelow(
+                    scrollVelocity, rowHeight);
+            body.setOverscanRows(Math.max(rowsAbove, body.overscanRowsAbove),
+                    Math.max(rowsBelow, body.overscanRowsBelow));
+
+            overscanIdleTimer.schedule(OVERSCAN_IDLE_MILLIS);
+        }
+
+        /**
+         * Sets the amount of body rows rendered outside of the viewport back
+         * to what {@link Escalator#rowOverscanPolicy} wants while the body
+         * isn't being scrolled.
+         */
+        private void resetRowOverscan() {
+            overscanIdleTimer.cancel();
+            scrollVelocity = 0;
+
+            final int baseRows = rowOverscanPolicy.getBaseRows();
+            body.setOverscanRows(baseRows, baseRows);
+            body.updateEscalatorRowsOnScroll();
+            body.setScrollState(ScrollState.IDLE);
+        }
+
+        /**
+         * Forgets the scroll velocity and the row overscan it has grown,
+         * without touching the rows, as the escalator is being detached.
+         */
+        private void cancelRowOverscan() {
+            overscanIdleTimer.cancel();
+            scrollVelocity = 0;
+            lastVerticalScrollTime = 0;
+
+            final int baseRows = rowOverscanPolicy.getBaseRows();
+            body.overscanRowsAbove = baseRows;
+            body.overscanRowsBelow = baseRows;
         }
 
         public native void attachScrollListener(Element element)
@@ -1091,11 +1354,9 @@ public class Escalator extends Widget implements RequiresResize,
         public void scrollToRow(final int rowIndex,
                 final ScrollDestination destination, final double padding) {
 
-            final double targetStartPx = (body.getDefaultRowHeight() * rowIndex)
-                    + body.spacerContainer
-                            .getSpacerHeightsSumUntilIndex(rowIndex);
+            final double targetStartPx = body.getRowTop(rowIndex);
             final double targetEndPx = targetStartPx
-                    + body.getDefaultRowHeight();
+                    + body.getRowHeight(rowIndex);
 
             final double viewportStartPx = getScrollTop();
             final double viewportEndPx = viewportStartPx
@@ -1132,6 +1393,40 @@ public class Escalator extends Widget implements RequiresResize,
 
         private boolean defaultRowHeightShouldBeAutodetected = true;
 
+        /** The removed row elements of this container, for reuse. */
+        private final ElementPool<TableRowElement> rowPool = new ElementPool<TableRowElement>(
+                DEFAULT_ELEMENT_POOL_SIZE);
+
+        /** The removed cell elements of this container, for reuse. */
+        private final ElementPool<TableCellElement> cellPool = new ElementPool<TableCellElement>(
+                DEFAULT_ELEMENT_POOL_SIZE);
+
+        /** @see #getPrototypeRow() */
+        private TableRowElement prototypeRow = null;
+
+        /** The cells removed by {@link #paintRemoveColumns(int, int)}. */
+        private final List<TableCellElement> removedCells = new ArrayList<TableCellElement>();
+
+        /** The selector of this container's rule for the default row height. */
+        private String rowHeightSelector = null;
+
+        /** @see #setCellContentDiffingEnabled(boolean) */
+        private boolean cellContentDiffingEnabled = false;
+
+        /**
+         * The generation of cell content that is up to date. Cells that were
+         * updated in an older generation are updated again when refreshed.
+         */
+        private int contentGeneration = 0;
+
+        /**
+         * The mutations recorded during an update, or <code>null</code> if
+         * mutations are painted right away.
+         * 
+         * @see Escalator#beginUpdate()
+         */
+        private RowMutationBatch mutationBatch = null;
+
         private double defaultRowHeight = INITIAL_DEFAULT_ROW_HEIGHT;
 
         private boolean autodetectRowHeightLaterQueued = false;
@@ -1181,6 +1476,7 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             updater = escalatorUpdater;
+            markAllCellsDirty();
 
             if (hasColumnAndRowData() && getRowCount() > 0) {
                 refreshRows(0, getRowCount());
@@ -1200,7 +1496,13 @@ public class Escalator extends Widget implements RequiresResize,
         public void removeRows(final int index, final int numberOfRows) {
             assertArgumentsAreValidAndWithinRange(index, numberOfRows);
 
+            if (mutationBatch != null) {
+                mutationBatch.removeRows(index, numberOfRows);
+                return;
+            }
+
             rows -= numberOfRows;
+            shiftShownRows(index, -numberOfRows);
 
             if (!isAttached()) {
                 return;
@@ -1244,15 +1546,23 @@ public class Escalator extends Widget implements RequiresResize,
                 final int logicalRowIndex) {
 
             flyweightRow.setup(tr, logicalRowIndex,
-                    columnConfiguration.getCalculatedColumnWidths());
+                    columnConfiguration.getFlyweightColumnWidths());
 
-            getEscalatorUpdater().preDetach(flyweightRow,
-                    flyweightRow.getCells());
+            final Range[] columnsWithContent = getColumnsWithContent(Range
+                    .withLength(0, columnConfiguration.getColumnCount()));
+            for (Range columns : columnsWithContent) {
+                getEscalatorUpdater().preDetach(flyweightRow,
+                        flyweightRow.getCells(columns.getStart(),
+                                columns.length()));
+            }
 
             tr.removeFromParent();
 
-            getEscalatorUpdater().postDetach(flyweightRow,
-                    flyweightRow.getCells());
+            for (Range columns : columnsWithContent) {
+                getEscalatorUpdater().postDetach(flyweightRow,
+                        flyweightRow.getCells(columns.getStart(),
+                                columns.length()));
+            }
 
             /*
              * the "assert" guarantees that this code is run only during
@@ -1260,6 +1570,77 @@ public class Escalator extends Widget implements RequiresResize,
              */
             assert flyweightRow.teardown();
 
+            releaseRowElement(tr);
+        }
+
+        /**
+         * Creates an empty row element, or takes one from the element pool.
+         * 
+         * @return a row element without any attributes or cells
+         */
+        TableRowElement createRowElement() {
+            TableRowElement tr = rowPool.take();
+            if (tr == null) {
+                tr = TableRowElement.as(DOM.createTR());
+            }
+            return tr;
+        }
+
+        /**
+         * Creates an empty cell element, or takes one from the element pool.
+         * 
+         * @return a cell element without any attributes or content
+         * @see #createCellElement(double)
+         */
+        TableCellElement createEmptyCellElement() {
+            TableCellElement cell = cellPool.take();
+            if (cell == null) {
+                cell = TableCellElement.as(DOM
+                        .createElement(getCellElementTagName()));
+            }
+            return cell;
+        }
+
+        /**
+         * Puts a removed row element, and its cells, into the element pools.
+         * The updater must already have been told that the row is detached.
+         * 
+         * @param tr
+         *            the removed row element, which must not be used
+         *            afterwards
+         */
+        void releaseRowElement(TableRowElement tr) {
+            positions.remove(tr);
+            cellContents.forget(tr);
+            final NodeList<TableCellElement> cells = tr.getCells();
+            for (int i = cells.getLength() - 1; i >= 0; i--) {
+                cellPool.release(cells.getItem(i));
+            }
+            rowPool.release(tr);
+        }
+
+        /**
+         * Sets the maximum number of row elements, and of cell elements, kept
+         * for reuse.
+         * 
+         * @param maxSize
+         *            the maximum number of pooled elements of each kind
+         */
+        void setElementPoolSize(int maxSize) {
+            rowPool.setMaxSize(maxSize);
+            cellPool.setMaxSize(maxSize);
+        }
+
+        int getElementPoolSize() {
+            return rowPool.getMaxSize();
+        }
+
+        int getElementPoolHitCount() {
+            return rowPool.getHitCount() + cellPool.getHitCount();
+        }
+
+        int getElementPoolMissCount() {
+            return rowPool.getMissCount() + cellPool.getMissCount();
         }
 
         protected void assertArgumentsAreValidAndWithinRange(final int index,
@@ -1271,11 +1652,11 @@ public class Escalator extends Widget implements RequiresResize,
                                 + numberOfRows + ")");
             }
 
-            if (index < 0 || index + numberOfRows > getRowCount()) {
+            if (index < 0 || index + numberOfRows > getUpdatedRowCount()) {
                 throw new IndexOutOfBoundsException("The given "
                         + "row range (" + index + ".." + (index + numberOfRows)
                         + ") was outside of the current number of rows ("
-                        + getRowCount() + ")");
+                        + getUpdatedRowCount() + ")");
             }
         }
 
@@ -1284,6 +1665,59 @@ public class Escalator extends Widget implements RequiresResize,
             return rows;
         }
 
+        /**
+         * Gets the number of rows this container has once the mutations
+         * recorded during an update have been painted. This is what new
+         * mutations are validated against.
+         * 
+         * @return the row count after the ongoing update, or the current row
+         *         count if there is no update
+         */
+        private int getUpdatedRowCount() {
+            if (mutationBatch != null) {
+                return mutationBatch.getRowCount();
+            }
+            return rows;
+        }
+
+        /**
+         * Starts recording row insertions, removals and refreshes instead of
+         * painting them. Does nothing if they are already being recorded.
+         * 
+         * @see Escalator#beginUpdate()
+         */
+        void beginMutationBatch() {
+            if (mutationBatch == null) {
+                mutationBatch = new RowMutationBatch(rows);
+            }
+        }
+
+        /**
+         * Stops recording mutations, and paints the merged mutations.
+         * 
+         * @return the number of recorded calls that have been painted
+         * @see Escalator#commit()
+         */
+        int commitMutationBatch() {
+            final RowMutationBatch batch = mutationBatch;
+            if (batch == null) {
+                return 0;
+            }
+            mutationBatch = null;
+
+            for (Mutation mutation : batch.getMutations()) {
+                if (mutation.isInsertion()) {
+                    insertRows(mutation.getIndex(), mutation.getCount());
+                } else {
+                    removeRows(mutation.getIndex(), mutation.getCount());
+                }
+            }
+            for (Range range : batch.getRefreshedRanges()) {
+                refreshRows(range.getStart(), range.length());
+            }
+            return batch.getRecordedCount();
+        }
+
         /**
          * This method calculates the current row count directly from the DOM.
          * <p>
@@ -1311,10 +1745,10 @@ public class Escalator extends Widget implements RequiresResize,
          */
         @Override
         public void insertRows(final int index, final int numberOfRows) {
-            if (index < 0 || index > getRowCount()) {
+            if (index < 0 || index > getUpdatedRowCount()) {
                 throw new IndexOutOfBoundsException("The given index (" + index
                         + ") was outside of the current number of rows (0.."
-                        + getRowCount() + ")");
+                        + getUpdatedRowCount() + ")");
             }
 
             if (numberOfRows < 1) {
@@ -1323,7 +1757,13 @@ public class Escalator extends Widget implements RequiresResize,
                                 + numberOfRows + ")");
             }
 
+            if (mutationBatch != null) {
+                mutationBatch.insertRows(index, numberOfRows);
+                return;
+            }
+
             rows += numberOfRows;
+            shiftShownRows(index, numberOfRows);
 
             /*
              * only add items in the DOM if the widget itself is attached to the
@@ -1383,29 +1823,50 @@ public class Escalator extends Widget implements RequiresResize,
                 referenceRow = null;
             }
 
-            for (int row = visualIndex; row < visualIndex + numberOfRows; row++) {
-                final TableRowElement tr = TableRowElement.as(DOM.createTR());
-                addedRows.add(tr);
-                tr.addClassName(getStylePrimaryName() + "-row");
-
-                for (int col = 0; col < columnConfiguration.getColumnCount(); col++) {
-                    final double colWidth = columnConfiguration
-                            .getColumnWidthActual(col);
-                    final TableCellElement cellElem = createCellElement(colWidth);
-                    tr.appendChild(cellElem);
+            for (int row = 0; row < numberOfRows; row++) {
+                addedRows.add(createNewRowElement());
+            }
 
-                    // Set stylename and position if new cell is frozen
-                    if (col < columnConfiguration.frozenColumns) {
-                        cellElem.addClassName("frozen");
-                        position.set(cellElem, scroller.lastScrollLeft, 0);
-                    }
-                    if (columnConfiguration.frozenColumns > 0
-                            && col == columnConfiguration.frozenColumns - 1) {
-                        cellElem.addClassName("last-frozen");
-                    }
+            /*
+             * The rows are inserted as one batch. Each row still gets its
+             * updater calls: preAttach before the row is in the DOM, and
+             * postAttach followed by an update after.
+             */
+            final double[] columnWidths = columnConfiguration
+                    .getFlyweightColumnWidths();
+            final Range allColumns = Range.withLength(0,
+                    getColumnConfiguration().getColumnCount());
+            final Range[] columnsWithContent = getColumnsWithContent(
+                    allColumns);
+            final Node fragment = createDocumentFragment();
+            for (int row = 0; row < numberOfRows; row++) {
+                final TableRowElement tr = addedRows.get(row);
+                flyweightRow.setup(tr, visualIndex + row, columnWidths);
+                for (Range columns : columnsWithContent) {
+                    getEscalatorUpdater().preAttach(flyweightRow,
+                            flyweightRow.getCells(columns.getStart(),
+                                    columns.length()));
                 }
+                assert flyweightRow.teardown();
+                fragment.appendChild(tr);
+            }
+
+            if (referenceRow != null) {
+                root.insertAfter(fragment, referenceRow);
+            } else {
+                root.insertFirst(fragment);
+            }
 
-                referenceRow = paintInsertRow(referenceRow, tr, row);
+            for (int row = 0; row < numberOfRows; row++) {
+                flyweightRow.setup(addedRows.get(row), visualIndex + row,
+                        columnWidths);
+                for (Range columns : columnsWithContent) {
+                    getEscalatorUpdater().postAttach(flyweightRow,
+                            flyweightRow.getCells(columns.getStart(),
+                                    columns.length()));
+                }
+                updateCells(allColumns);
+                assert flyweightRow.teardown();
             }
             reapplyRowWidths();
 
@@ -1415,44 +1876,78 @@ public class Escalator extends Widget implements RequiresResize,
         }
 
         /**
-         * Inserts a single row into the DOM, invoking
-         * {@link #getEscalatorUpdater()}
-         * {@link EscalatorUpdater#preAttach(Row, Iterable) preAttach} and
-         * {@link EscalatorUpdater#postAttach(Row, Iterable) postAttach} before
-         * and after inserting the row, respectively. The row should have its
-         * cells already inserted.
+         * Creates a new row element with its cells, ready to be inserted.
+         * <p>
+         * If the element pools can provide the whole row, the row is built
+         * from pooled elements. Otherwise it is cloned from the
+         * {@link #getPrototypeRow() prototype row}, which is a lot cheaper
+         * than creating and setting up each cell one by one.
          * 
-         * @param referenceRow
-         *            the row after which to insert or null if insert as first
-         * @param tr
-         *            the row to be inserted
-         * @param logicalRowIndex
-         *            the logical index of the inserted row
-         * @return the inserted row to be used as the new reference
+         * @return a new, detached row element
          */
-        protected Node paintInsertRow(Node referenceRow,
-                final TableRowElement tr, int logicalRowIndex) {
-            flyweightRow.setup(tr, logicalRowIndex,
-                    columnConfiguration.getCalculatedColumnWidths());
+        private TableRowElement createNewRowElement() {
+            if (rowPool.size() > 0
+                    && cellPool.size() >= columnConfiguration.getColumnCount()) {
+                final TableRowElement tr = createRowElement();
+                setupNewRowElement(tr);
+                return tr;
+            }
+            return getPrototypeRow().cloneNode(true).cast();
+        }
 
-            getEscalatorUpdater().preAttach(flyweightRow,
-                    flyweightRow.getCells());
+        /**
+         * Gets a row element that is set up the way a new row of this
+         * container is, for the current column configuration.
+         * 
+         * @return the prototype row element, not to be attached
+         * @see #invalidatePrototypeRow()
+         */
+        private TableRowElement getPrototypeRow() {
+            if (prototypeRow == null) {
+                prototypeRow = createRowElement();
+                setupNewRowElement(prototypeRow);
+            }
+            return prototypeRow;
+        }
 
-            referenceRow = insertAfterReferenceAndUpdateIt(root, tr,
-                    referenceRow);
+        /**
+         * Discards the prototype row, so that it gets rebuilt the next time
+         * rows are created. Needs to be called whenever something that is
+         * baked into new rows changes: the columns, their widths, the frozen
+         * columns or the style name.
+         */
+        void invalidatePrototypeRow() {
+            prototypeRow = null;
+        }
 
-            getEscalatorUpdater().postAttach(flyweightRow,
-                    flyweightRow.getCells());
-            updater.update(flyweightRow, flyweightRow.getCells());
+        private void setupNewRowElement(final TableRowElement tr) {
+            tr.addClassName(getStylePrimaryName() + "-row");
 
-            /*
-             * the "assert" guarantees that this code is run only during
-             * development/debugging.
-             */
-            assert flyweightRow.teardown();
-            return referenceRow;
+            for (int col = 0; col < columnConfiguration.getColumnCount(); col++) {
+                final double colWidth = columnConfiguration
+                        .getColumnWidthActual(col);
+                final TableCellElement cellElem = createCellElement(colWidth);
+                tr.appendChild(cellElem);
+
+                /*
+                 * Set stylename if new cell is frozen. The frozen cell
+                 * position rule takes care of its position.
+                 */
+                if (col < columnConfiguration.frozenColumns) {
+                    cellElem.addClassName("frozen");
+                }
+                if (columnConfiguration.frozenColumns > 0
+                        && col == columnConfiguration.frozenColumns - 1) {
+                    cellElem.addClassName("last-frozen");
+                }
+            }
         }
 
+        private native Node createDocumentFragment()
+        /*-{
+            return $doc.createDocumentFragment();
+        }-*/;
+
         private Node insertAfterReferenceAndUpdateIt(final Element parent,
                 final Element elem, final Node referenceNode) {
             if (referenceNode != null) {
@@ -1492,6 +1987,11 @@ public class Escalator extends Widget implements RequiresResize,
         @Override
         // overridden because of JavaDoc
         public void refreshRows(final int index, final int numberOfRows) {
+            if (mutationBatch != null) {
+                mutationBatch.refreshRows(index, numberOfRows);
+                return;
+            }
+
             Range rowRange = Range.withLength(index, numberOfRows);
             Range colRange = Range.withLength(0, getColumnConfiguration()
                     .getColumnCount());
@@ -1508,11 +2008,17 @@ public class Escalator extends Widget implements RequiresResize,
 
         void refreshRow(final TableRowElement tr, final int logicalRowIndex,
                 Range colRange) {
+            if (cellContentDiffingEnabled) {
+                colRange = cellContents.getStaleColumns(tr, logicalRowIndex,
+                        colRange, contentGeneration);
+                if (colRange.isEmpty()) {
+                    return;
+                }
+            }
+
             flyweightRow.setup(tr, logicalRowIndex,
-                    columnConfiguration.getCalculatedColumnWidths());
-            Iterable<FlyweightCell> cellsToUpdate = flyweightRow.getCells(
-                    colRange.getStart(), colRange.length());
-            updater.update(flyweightRow, cellsToUpdate);
+                    columnConfiguration.getFlyweightColumnWidths());
+            updateCells(colRange);
 
             /*
              * the "assert" guarantees that this code is run only during
@@ -1522,22 +2028,200 @@ public class Escalator extends Widget implements RequiresResize,
         }
 
         /**
-         * Create and setup an empty cell element.
-         * 
-         * @param width
-         *            the width of the cell, in pixels
+         * Gets the parts of a range of columns whose cells have content, and
+         * have been through the updater's attach calls. The cells of the
+         * other columns are empty.
+         * <p>
+         * All cells have content unless this is the body and column
+         * virtualization is enabled.
          * 
-         * @return a set-up empty cell element
+         * @param colRange
+         *            the columns to check
+         * @return the parts of {@code colRange} whose cells have content,
+         *         possibly empty ranges
+         * @see Escalator#setColumnVirtualizationEnabled(boolean)
          */
-        public TableCellElement createCellElement(final double width) {
-            final TableCellElement cellElem = TableCellElement.as(DOM
-                    .createElement(getCellElementTagName()));
+        Range[] getColumnsWithContent(Range colRange) {
+            return new Range[] { colRange };
+        }
+
+        /**
+         * Updates the content of the given columns of the row that
+         * {@link #flyweightRow} is currently set up for.
+         * 
+         * @param colRange
+         *            the columns to update
+         */
+        void updateCells(Range colRange) {
+            Iterable<FlyweightCell> cellsToUpdate = flyweightRow.getCells(
+                    colRange.getStart(), colRange.length());
+            updater.update(flyweightRow, cellsToUpdate);
+
+            if (cellContentDiffingEnabled) {
+                cellContents.markUpdated(flyweightRow.getElement(),
+                        flyweightRow.getRow(), colRange, contentGeneration);
+            }
+
+            if (styleSheetColumnWidthsEnabled) {
+                registerColspanWidthRules(flyweightRow.getElement(), colRange);
+            }
+        }
+
+        /**
+         * Makes sure that the cells with a colspan in the given columns of a
+         * row have a width rule in the stylesheet.
+         * <p>
+         * {@link FlyweightCell#setColSpan(int)} writes an inline width for
+         * the spanning cell. That width is cleared, as it would override the
+         * rule, and would not be updated when the columns are resized.
+         * 
+         * @param tr
+         *            the row element
+         * @param colRange
+         *            the columns to check
+         * @see #setStyleSheetColumnWidthsEnabled(boolean)
+         */
+        private void registerColspanWidthRules(TableRowElement tr,
+                Range colRange) {
+            final NodeList<TableCellElement> cells = tr.getCells();
+            final int end = Math.min(colRange.getEnd(), cells.getLength());
+            for (int col = colRange.getStart(); col < end; col++) {
+                final TableCellElement cell = cells.getItem(col);
+                final int colspan = cell
+                        .getPropertyInt(FlyweightCell.COLSPAN_ATTR);
+                if (colspan > 1) {
+                    cell.getStyle().clearWidth();
+                    columnConfiguration.registerColspanWidthRule(col, colspan);
+                }
+            }
+        }
+
+        /**
+         * Sets whether rows are refreshed only where their content may have
+         * changed.
+         * 
+         * @param enabled
+         *            <code>true</code> to skip updating cells that are up to
+         *            date
+         * @see Escalator#setCellContentDiffingEnabled(boolean)
+         */
+        void setCellContentDiffingEnabled(boolean enabled) {
+            if (enabled && !cellContentDiffingEnabled) {
+                // Nothing has been recorded while disabled
+                markAllCellsDirty();
+            }
+            cellContentDiffingEnabled = enabled;
+        }
+
+        boolean isCellContentDiffingEnabled() {
+            return cellContentDiffingEnabled;
+        }
+
+        /**
+         * Gets the row element that shows a logical row.
+         * 
+         * @param logicalRowIndex
+         *            the logical index of the row
+         * @return the row element, or <code>null</code> if the row isn't in
+         *         the DOM
+         */
+        TableRowElement getTrByLogicalIndex(int logicalRowIndex) {
+            if (logicalRowIndex < 0 || logicalRowIndex >= getDomRowCount()) {
+                return null;
+            }
+            return getTrByVisualIndex(logicalRowIndex);
+        }
+
+        /**
+         * Marks a cell to be updated on the next refresh of its row, even if
+         * the row element still shows the same logical row. Does nothing if
+         * the row isn't in the DOM, as it is updated in full once it is.
+         * 
+         * @param logicalRowIndex
+         *            the logical index of the row
+         * @param column
+         *            the index of the column
+         */
+        void markCellDirty(int logicalRowIndex, int column) {
+            if (!cellContentDiffingEnabled) {
+                return;
+            }
+            final TableRowElement tr = getTrByLogicalIndex(logicalRowIndex);
+            if (tr != null) {
+                cellContents.markStale(tr, column);
+            }
+        }
+
+        /**
+         * Marks all cells of a row to be updated on the next refresh of the
+         * row.
+         * 
+         * @param logicalRowIndex
+         *            the logical index of the row
+         * @see #markCellDirty(int, int)
+         */
+        void markRowDirty(int logicalRowIndex) {
+            if (!cellContentDiffingEnabled) {
+                return;
+            }
+            final TableRowElement tr = getTrByLogicalIndex(logicalRowIndex);
+            if (tr != null) {
+                cellContents.forget(tr);
+            }
+        }
+
+        /**
+         * Marks all cells of this container to be updated on their next
+         * refresh.
+         */
+        void markAllCellsDirty() {
+            contentGeneration++;
+        }
+
+        /**
+         * Keeps the record of which logical row each row element shows in
+         * step with rows being inserted or removed, so that rows that only
+         * get a new logical index aren't updated again.
+         * 
+         * @param index
+         *            the logical index of the first inserted or removed row
+         * @param delta
+         *            the number of inserted rows, or the negated number of
+         *            removed rows
+         */
+        private void shiftShownRows(int index, int delta) {
+            if (!cellContentDiffingEnabled) {
+                return;
+            }
+            final int firstShifted = delta < 0 ? index - delta : index;
+            final NodeList<TableRowElement> trs = root.getRows();
+            for (int i = 0; i < trs.getLength(); i++) {
+                final TableRowElement tr = trs.getItem(i);
+                final int shownRow = cellContents.getShownRow(tr);
+                if (shownRow >= firstShifted) {
+                    cellContents.setShownRow(tr, shownRow + delta);
+                } else if (shownRow >= index) {
+                    // Shows a removed row
+                    cellContents.forget(tr);
+                }
+            }
+        }
 
-            final double height = getDefaultRowHeight();
-            assert height >= 0 : "defaultRowHeight was negative. There's a setter leak somewhere.";
-            cellElem.getStyle().setHeight(height, Unit.PX);
+        /**
+         * Create and setup an empty cell element.
+         * <p>
+         * The cell is given no height, as the default row height comes from
+         * the row height rule of the stylesheet.
+         * 
+         * @param width
+         *            the width of the cell, in pixels
+         * 
+         * @return a set-up empty cell element
+         */
+        public TableCellElement createCellElement(final double width) {
+            final TableCellElement cellElem = createEmptyCellElement();
 
-            if (width >= 0) {
+            if (width >= 0 && !styleSheetColumnWidthsEnabled) {
                 cellElem.getStyle().setWidth(width, Unit.PX);
             }
             cellElem.addClassName(getStylePrimaryName() + "-cell");
@@ -1563,34 +2247,58 @@ public class Escalator extends Widget implements RequiresResize,
 
         protected void paintRemoveColumns(final int offset,
                 final int numberOfColumns) {
+            invalidatePrototypeRow();
+            final Range[] columnsWithContent = getColumnsWithContent(Range
+                    .withLength(offset, numberOfColumns));
             for (int i = 0; i < getDomRowCount(); i++) {
                 TableRowElement row = getTrByVisualIndex(i);
+                cellContents.removeColumns(row, offset, numberOfColumns);
                 flyweightRow.setup(row, i,
-                        columnConfiguration.getCalculatedColumnWidths());
+                        columnConfiguration.getFlyweightColumnWidths());
 
-                Iterable<FlyweightCell> attachedCells = flyweightRow.getCells(
-                        offset, numberOfColumns);
-                getEscalatorUpdater().preDetach(flyweightRow, attachedCells);
+                for (Range columns : columnsWithContent) {
+                    Iterable<FlyweightCell> attachedCells = flyweightRow
+                            .getCells(columns.getStart(), columns.length());
+                    getEscalatorUpdater().preDetach(flyweightRow,
+                            attachedCells);
+                }
 
                 for (int j = 0; j < numberOfColumns; j++) {
-                    row.getCells().getItem(offset).removeFromParent();
+                    final TableCellElement cell = row.getCells().getItem(
+                            offset);
+                    cell.removeFromParent();
+                    removedCells.add(cell);
                 }
 
-                Iterable<FlyweightCell> detachedCells = flyweightRow
-                        .getUnattachedCells(offset, numberOfColumns);
-                getEscalatorUpdater().postDetach(flyweightRow, detachedCells);
+                for (Range columns : columnsWithContent) {
+                    Iterable<FlyweightCell> detachedCells = flyweightRow
+                            .getUnattachedCells(columns.getStart(),
+                                    columns.length());
+                    getEscalatorUpdater().postDetach(flyweightRow,
+                            detachedCells);
+                }
 
                 assert flyweightRow.teardown();
+
+                for (TableCellElement cell : removedCells) {
+                    cellPool.release(cell);
+                }
+                removedCells.clear();
             }
         }
 
         protected void paintInsertColumns(final int offset,
                 final int numberOfColumns, boolean frozen) {
+            invalidatePrototypeRow();
 
+            final Range[] columnsWithContent = getColumnsWithContent(Range
+                    .withLength(offset, numberOfColumns));
             for (int row = 0; row < getDomRowCount(); row++) {
                 final TableRowElement tr = getTrByVisualIndex(row);
                 int logicalRowIndex = getLogicalRowIndex(tr);
-                paintInsertCells(tr, logicalRowIndex, offset, numberOfColumns);
+                cellContents.insertColumns(tr, offset, numberOfColumns);
+                paintInsertCells(tr, logicalRowIndex, offset, numberOfColumns,
+                        columnsWithContent);
             }
             reapplyRowWidths();
 
@@ -1620,26 +2328,48 @@ public class Escalator extends Widget implements RequiresResize,
          *            the index of the first cell
          * @param numberOfCells
          *            the number of cells to insert
+         * @param columnsWithContent
+         *            the parts of the inserted columns whose cells get
+         *            content, as given by {@link #getColumnsWithContent(Range)}
          */
         private void paintInsertCells(final TableRowElement tr,
-                int logicalRowIndex, final int offset, final int numberOfCells) {
+                int logicalRowIndex, final int offset, final int numberOfCells,
+                final Range[] columnsWithContent) {
 
             assert root.isOrHasChild(tr) : "The row must be attached to the document";
 
             flyweightRow.setup(tr, logicalRowIndex,
-                    columnConfiguration.getCalculatedColumnWidths());
+                    columnConfiguration.getFlyweightColumnWidths());
 
             Iterable<FlyweightCell> cells = flyweightRow.getUnattachedCells(
                     offset, numberOfCells);
 
+            /*
+             * A row with a height other than the default has it inline in all
+             * of its cells, so the new cells need it too.
+             */
+            final String rowHeight;
+            if (tr.getCells().getLength() > 0) {
+                rowHeight = tr.getCells().getItem(0).getStyle().getHeight();
+            } else {
+                rowHeight = "";
+            }
+
             for (FlyweightCell cell : cells) {
                 final double colWidth = columnConfiguration
                         .getColumnWidthActual(cell.getColumn());
                 final TableCellElement cellElem = createCellElement(colWidth);
+                if (!rowHeight.isEmpty()) {
+                    cellElem.getStyle().setProperty("height", rowHeight);
+                }
                 cell.setElement(cellElem);
             }
 
-            getEscalatorUpdater().preAttach(flyweightRow, cells);
+            for (Range columns : columnsWithContent) {
+                getEscalatorUpdater().preAttach(flyweightRow,
+                        flyweightRow.getUnattachedCells(columns.getStart(),
+                                columns.length()));
+            }
 
             Node referenceCell;
             if (offset != 0) {
@@ -1653,22 +2383,30 @@ public class Escalator extends Widget implements RequiresResize,
                         cell.getElement(), referenceCell);
             }
 
-            getEscalatorUpdater().postAttach(flyweightRow, cells);
-            getEscalatorUpdater().update(flyweightRow, cells);
+            for (Range columns : columnsWithContent) {
+                final Iterable<FlyweightCell> attachedCells = flyweightRow
+                        .getUnattachedCells(columns.getStart(),
+                                columns.length());
+                getEscalatorUpdater().postAttach(flyweightRow, attachedCells);
+                getEscalatorUpdater().update(flyweightRow, attachedCells);
+            }
+
+            if (styleSheetColumnWidthsEnabled) {
+                registerColspanWidthRules(tr,
+                        Range.withLength(offset, numberOfCells));
+            }
 
             assert flyweightRow.teardown();
         }
 
         public void setColumnFrozen(int column, boolean frozen) {
+            // the frozen cell position rule applies through the class name
             toggleFrozenColumnClass(column, frozen, "frozen");
-
-            if (frozen) {
-                updateFreezePosition(column, scroller.lastScrollLeft);
-            }
         }
 
         private void toggleFrozenColumnClass(int column, boolean frozen,
                 String className) {
+            invalidatePrototypeRow();
             final NodeList<TableRowElement> childRows = root.getRows();
 
             for (int row = 0; row < childRows.getLength(); row++) {
@@ -1691,6 +2429,20 @@ public class Escalator extends Widget implements RequiresResize,
             toggleFrozenColumnClass(column, lastFrozen, "last-frozen");
         }
 
+        /**
+         * Positions the cells of a frozen column by writing the position into
+         * the inline style of every cell.
+         * 
+         * @param column
+         *            the index of the frozen column
+         * @param scrollLeft
+         *            the horizontal scroll position
+         * @deprecated The frozen cells are positioned by a single stylesheet
+         *             rule, which is updated as the escalator is scrolled.
+         *             An inline position overrides the rule, and is not
+         *             updated when scrolling.
+         */
+        @Deprecated
         public void updateFreezePosition(int column, double scrollLeft) {
             final NodeList<TableRowElement> childRows = root.getRows();
 
@@ -1749,27 +2501,24 @@ public class Escalator extends Widget implements RequiresResize,
         /**
          * Reapplies all the cells' widths according to the calculated widths in
          * the column configuration.
+         * <p>
+         * If the column widths are in the
+         * {@link #setStyleSheetColumnWidthsEnabled(boolean) stylesheet}, the
+         * cells are left alone, and only the widths of the rows are updated.
          */
         public void reapplyColumnWidths() {
+            invalidatePrototypeRow();
+
+            if (styleSheetColumnWidthsEnabled) {
+                reapplyRowWidths();
+                return;
+            }
+
             Element row = root.getFirstChildElement();
             while (row != null) {
                 // Only handle non-spacer rows
                 if (!body.spacerContainer.isSpacer(row)) {
-                    Element cell = row.getFirstChildElement();
-                    int columnIndex = 0;
-                    while (cell != null) {
-                        final double width = getCalculatedColumnWidthWithColspan(
-                                cell, columnIndex);
-
-                        /*
-                         * TODO Should Escalator implement ProvidesResize at
-                         * some point, this is where we need to do that.
-                         */
-                        cell.getStyle().setWidth(width, Unit.PX);
-
-                        cell = cell.getNextSiblingElement();
-                        columnIndex++;
-                    }
+                    reapplyCellWidths(row);
                 }
                 row = row.getNextSiblingElement();
             }
@@ -1777,6 +2526,33 @@ public class Escalator extends Widget implements RequiresResize,
             reapplyRowWidths();
         }
 
+        /**
+         * Reapplies the widths of the cells of one row according to the
+         * calculated widths in the column configuration.
+         * 
+         * @param row
+         *            the row element, not a spacer
+         */
+        void reapplyCellWidths(Element row) {
+            final NodeList<TableCellElement> cells = TableRowElement.as(row)
+                    .getCells();
+            for (Range columns : getColumnsWithContent(Range.withLength(0,
+                    cells.getLength()))) {
+                for (int columnIndex = columns.getStart(); columnIndex < columns
+                        .getEnd(); columnIndex++) {
+                    final TableCellElement cell = cells.getItem(columnIndex);
+                    final double width = getCalculatedColumnWidthWithColspan(
+                            cell, columnIndex);
+
+                    /*
+                     * TODO Should Escalator implement ProvidesResize at some
+                     * point, this is where we need to do that.
+                     */
+                    cell.getStyle().setWidth(width, Unit.PX);
+                }
+            }
+        }
+
         private double getCalculatedColumnWidthWithColspan(final Element cell,
                 final int columnIndex) {
             final int colspan = cell.getPropertyInt(FlyweightCell.COLSPAN_ATTR);
@@ -1794,6 +2570,31 @@ public class Escalator extends Widget implements RequiresResize,
                     .getCalculatedColumnsWidth(spannedColumns);
         }
 
+        /**
+         * Clears the inline widths of all cells, and registers the colspans
+         * of all cells with the stylesheet. Called when the column widths are
+         * moved into the stylesheet.
+         * 
+         * @see #setStyleSheetColumnWidthsEnabled(boolean)
+         */
+        void moveColumnWidthsToStyleSheet() {
+            invalidatePrototypeRow();
+            Element row = root.getFirstChildElement();
+            while (row != null) {
+                // Only handle non-spacer rows
+                if (!body.spacerContainer.isSpacer(row)) {
+                    final TableRowElement tr = TableRowElement.as(row);
+                    final NodeList<TableCellElement> cells = tr.getCells();
+                    for (int i = 0; i < cells.getLength(); i++) {
+                        cells.getItem(i).getStyle().clearWidth();
+                    }
+                    registerColspanWidthRules(tr,
+                            Range.withLength(0, cells.getLength()));
+                }
+                row = row.getNextSiblingElement();
+            }
+        }
+
         /**
          * Applies the total length of the columns to each row element.
          * <p>
@@ -1834,6 +2635,16 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             this.primaryStyleName = primaryStyleName;
+            invalidatePrototypeRow();
+
+            // the selector of the row height rule includes the style name
+            if (rowHeightSelector != null) {
+                styleSheet.removeRule(rowHeightSelector);
+            }
+            rowHeightSelector = getStyleSheetRowSelector(root.getTagName()
+                    .toLowerCase())
+                    + " > *";
+            applyDefaultRowHeightRule();
 
             // Update already rendered rows and cells
             Element row = root.getRows().getItem(0);
@@ -1869,6 +2680,7 @@ public class Escalator extends Widget implements RequiresResize,
 
             defaultRowHeightShouldBeAutodetected = false;
             defaultRowHeight = px;
+            applyDefaultRowHeightRule();
             reapplyDefaultRowHeights();
         }
 
@@ -1877,11 +2689,24 @@ public class Escalator extends Widget implements RequiresResize,
             return defaultRowHeight;
         }
 
+        /**
+         * Writes the default row height into the row height rule of the
+         * stylesheet, which gives all the rows of this container without an
+         * inline height their height.
+         */
+        private void applyDefaultRowHeightRule() {
+            assert defaultRowHeight >= 0 : "defaultRowHeight was negative. There's a setter leak somewhere.";
+            styleSheet.setProperty(rowHeightSelector, "height",
+                    defaultRowHeight + "px");
+        }
+
         /**
          * The default height of rows has (most probably) changed.
          * <p>
-         * Make sure that the displayed rows with a default height are updated
-         * in height and top position.
+         * The rows with a default height get their height from the row height
+         * rule, which has already been updated. Make sure that the displayed
+         * rows are updated in top position, and that the rows with a height of
+         * their own are updated in height.
          * <p>
          * <em>Note:</em>This implementation should not call
          * {@link Escalator#recalculateElementSizes()} - it is done by the
@@ -1889,6 +2714,16 @@ public class Escalator extends Widget implements RequiresResize,
          */
         protected abstract void reapplyDefaultRowHeights();
 
+        /**
+         * Gives a row a height other than the default row height, by writing
+         * it into the inline style of every cell.
+         * 
+         * @param tr
+         *            the row element
+         * @param heightPx
+         *            the height of the row, in pixels
+         * @see #clearRowHeight(TableRowElement)
+         */
         protected void reapplyRowHeight(final TableRowElement tr,
                 final double heightPx) {
             assert heightPx >= 0 : "Height must not be negative";
@@ -1905,6 +2740,22 @@ public class Escalator extends Widget implements RequiresResize,
              */
         }
 
+        /**
+         * Removes the inline height of a row, so that it gets the default row
+         * height from the row height rule again.
+         * 
+         * @param tr
+         *            the row element
+         * @see #reapplyRowHeight(TableRowElement, double)
+         */
+        protected void clearRowHeight(final TableRowElement tr) {
+            Element cellElem = tr.getFirstChildElement();
+            while (cellElem != null) {
+                cellElem.getStyle().clearHeight();
+                cellElem = cellElem.getNextSiblingElement();
+            }
+        }
+
         protected void setRowPosition(final TableRowElement tr, final int x,
                 final double y) {
             positions.set(tr, x, y);
@@ -1961,6 +2812,11 @@ public class Escalator extends Widget implements RequiresResize,
                 detectionTr.appendChild(cellElem);
             }
 
+            /*
+             * The detection row is matched by the row height rule, which would
+             * give the detected height right back.
+             */
+            styleSheet.setProperty(rowHeightSelector, "height", null);
             root.appendChild(detectionTr);
             double boundingHeight = WidgetUtil
                     .getRequiredHeightBoundingClientRectDouble(cellElem);
@@ -1970,10 +2826,13 @@ public class Escalator extends Widget implements RequiresResize,
             if (boundingHeight >= 1) {
                 defaultRowHeight = boundingHeight;
                 defaultRowHeightShouldBeAutodetected = false;
+                applyDefaultRowHeightRule();
                 if (root.hasChildNodes()) {
                     reapplyDefaultRowHeights();
                     applyHeightByRows();
                 }
+            } else {
+                applyDefaultRowHeightRule();
             }
         }
 
@@ -2171,13 +3030,13 @@ public class Escalator extends Widget implements RequiresResize,
              * If Escalator, at some point, gets a JIT evaluation functionality,
              * this re-setting is a strong candidate for removal.
              */
-            double oldScrollPos = verticalScrollbar.getScrollPos();
+            double oldScrollPos = getVerticalScrollPos();
 
             super.removeRows(index, numberOfRows);
             recalculateElementSizes();
             applyHeightByRows();
 
-            verticalScrollbar.setScrollPos(oldScrollPos);
+            setVerticalScrollPos(oldScrollPos);
         }
 
         @Override
@@ -2188,11 +3047,10 @@ public class Escalator extends Widget implements RequiresResize,
 
             Profiler.enter("Escalator.AbstractStaticRowContainer.reapplyDefaultRowHeights");
 
-            Element tr = root.getRows().getItem(0);
-            while (tr != null) {
-                reapplyRowHeight(TableRowElement.as(tr), getDefaultRowHeight());
-                tr = tr.getNextSiblingElement();
-            }
+            /*
+             * The static rows all have the default height, which they get from
+             * the row height rule.
+             */
 
             /*
              * Because all rows are immediately displayed in the static row
@@ -2220,7 +3078,7 @@ public class Escalator extends Widget implements RequiresResize,
                  * body.verifyEscalatorCount. This is because the logical row
                  * indices are calculated from the scrollbar position.
                  */
-                verticalScrollbar.setOffsetSize(heightOfEscalator
+                setVerticalScrollOffsetSize(heightOfEscalator
                         - header.getHeightOfSection()
                         - footer.getHeightOfSection());
 
@@ -2342,24 +3200,23 @@ public class Escalator extends Widget implements RequiresResize,
             footerDeco.getStyle().setHeight(footer.getHeightOfSection(),
                     Unit.PX);
 
-            verticalScrollbar.setOffsetSize(vscrollHeight);
+            setVerticalScrollOffsetSize(vscrollHeight);
         }
     }
 
     private class BodyRowContainerImpl extends AbstractRowContainer implements
             BodyRowContainer {
-        /*
-         * TODO [[optimize]]: check whether a native JsArray might be faster
-         * than LinkedList
-         */
         /**
          * The order in which row elements are rendered visually in the browser,
          * with the help of CSS tricks. Usually has nothing to do with the DOM
          * order.
+         * <p>
+         * Each slot also remembers the logical index that was last rendered
+         * into it, and the top position of its row.
          * 
          * @see #sortDomElements()
          */
-        private final LinkedList<TableRowElement> visualRowOrder = new LinkedList<TableRowElement>();
+        private final RowSlotRing visualRowOrder = new RowSlotRing();
 
         /**
          * The logical index of the topmost row.
@@ -2397,94 +3254,384 @@ public class Escalator extends Widget implements RequiresResize,
             setTopRowLogicalIndex(topRowLogicalIndex + diff);
         }
 
-        private class DeferredDomSorter extends Timer implements ScheduledCommand {
-            // 1000/50 (@50fps)
-            private static final int SORT_DELAY_MILLIS = 20;
-
+        /**
+         * Sorts the rows in the DOM when the browser is idle, so that it
+         * doesn't cause long frames while scrolling.
+         */
+        private class DeferredDomSorter implements Task {
             public void reschedule() {
-                schedule(SORT_DELAY_MILLIS);
-            }
-
-            @Override
-            public void run() {
-                Scheduler.get().scheduleFinally(this);
+                idleWork.schedule(this);
             }
 
             @Override
-            public void execute() {
-                sortDomElements();
-                bodyElem.removeClassName("scrolling");
+            public boolean run(Deadline deadline) {
+                return sortDomElements(deadline);
             }
         }
 
         private DeferredDomSorter domSorter = new DeferredDomSorter();
 
-        private final SpacerContainer spacerContainer = new SpacerContainer();
+        /**
+         * Repaints body rows in chunks that fit in the frame budget, starting
+         * from the row in the middle of the viewport and moving outwards.
+         * <p>
+         * The rows to repaint are recorded as flags on their slots in
+         * {@link #visualRowOrder}, so the flags follow the row elements when
+         * rows are moved, inserted or removed, and new repaints are merged
+         * into the ones already waiting. Rows that get new content when they
+         * are scrolled, or that are refreshed by other means before their
+         * turn, have their flags cleared.
+         * 
+         * @see Escalator#setFrameBudget(double)
+         */
+        private class ChunkedRepaint implements Task {
+            /** The flag of a row whose content is to be refreshed. */
+            private static final int REFRESH = 1;
 
-        public BodyRowContainerImpl(final TableSectionElement bodyElement) {
-            super(bodyElement);
-        }
+            /** The flag of a row whose cells are to get their widths. */
+            private static final int RESIZE = 2;
 
-        @Override
-        public void setStylePrimaryName(String primaryStyleName) {
-            super.setStylePrimaryName(primaryStyleName);
-            UIObject.setStylePrimaryName(root, primaryStyleName + "-body");
-            spacerContainer.setStylePrimaryName(primaryStyleName);
-        }
+            /**
+             * The columns to refresh in the rows flagged with
+             * {@link #REFRESH}, or <code>null</code> if there are no rows to
+             * refresh.
+             */
+            private Range columnsToRefresh = null;
 
-        public void updateEscalatorRowsOnScroll() {
-            if (visualRowOrder.isEmpty()) {
-                return;
+            private int repaintedRowCount = 0;
+            private int firstFrame = 0;
+
+            /**
+             * Queues rows to be refreshed.
+             * 
+             * @param visualRows
+             *            the visual indices of the rows to refresh
+             * @param colRange
+             *            the columns to refresh
+             */
+            public void refresh(Range visualRows, Range colRange) {
+                startIfIdle();
+                for (int i = visualRows.getStart(); i < visualRows.getEnd(); i++) {
+                    addFlags(i, REFRESH);
+                }
+                if (columnsToRefresh == null) {
+                    columnsToRefresh = colRange;
+                } else {
+                    columnsToRefresh = Range.between(
+                            Math.min(columnsToRefresh.getStart(),
+                                    colRange.getStart()),
+                            Math.max(columnsToRefresh.getEnd(),
+                                    colRange.getEnd()));
+                }
+                frameWork.schedule(this);
             }
 
-            boolean rowsWereMoved = false;
+            /**
+             * Queues the cells of all body rows to get their widths
+             * reapplied.
+             */
+            public void resizeAll() {
+                startIfIdle();
+                for (int i = 0; i < visualRowOrder.size(); i++) {
+                    addFlags(i, RESIZE);
+                }
+                frameWork.schedule(this);
+            }
 
-            final double topElementPosition;
-            final double nextRowBottomOffset;
-            SpacerContainer.SpacerImpl topSpacer = spacerContainer
-                    .getSpacer(getTopRowLogicalIndex() - 1);
+            /**
+             * Drops a queued refresh of a row, as the row has just been
+             * refreshed by other means.
+             * 
+             * @param visualIndex
+             *            the visual index of the refreshed row
+             * @param colRange
+             *            the refreshed columns
+             */
+            public void rowRefreshed(int visualIndex, Range colRange) {
+                if (columnsToRefresh != null
+                        && colRange.getStart() <= columnsToRefresh.getStart()
+                        && colRange.getEnd() >= columnsToRefresh.getEnd()) {
+                    visualRowOrder.setFlags(visualIndex,
+                            visualRowOrder.getFlags(visualIndex) & ~REFRESH);
+                }
+            }
 
-            if (topSpacer != null) {
-                topElementPosition = topSpacer.getTop();
-                nextRowBottomOffset = topSpacer.getHeight()
-                        + getDefaultRowHeight();
-            } else {
-                topElementPosition = getRowTop(visualRowOrder.getFirst());
-                nextRowBottomOffset = getDefaultRowHeight();
+            public boolean isPending() {
+                return visualRowOrder.getFlaggedCount() > 0;
             }
 
-            // TODO [[mpixscroll]]
-            final double scrollTop = tBodyScrollTop;
-            final double viewportOffset = topElementPosition - scrollTop;
+            /**
+             * Drops all queued work.
+             */
+            public void cancel() {
+                frameWork.cancel(this);
+                clear();
+            }
 
-            /*
-             * TODO [[optimize]] this if-else can most probably be refactored
-             * into a neater block of code
+            /**
+             * Gets the number of rows repainted since the repaint started,
+             * and starts counting anew.
+             * 
+             * @return the number of repainted rows
              */
+            public int takeRepaintedRowCount() {
+                final int count = repaintedRowCount;
+                repaintedRowCount = 0;
+                return count;
+            }
 
-            if (viewportOffset > 0) {
-                // there's empty room on top
+            public int getFirstFrame() {
+                return firstFrame;
+            }
 
-                double rowPx = getRowHeightsSumBetweenPx(scrollTop,
-                        topElementPosition);
-                int originalRowsToMove = (int) Math.ceil(rowPx
-                        / getDefaultRowHeight());
-                int rowsToMove = Math.min(originalRowsToMove,
-                        visualRowOrder.size());
+            @Override
+            public boolean run(Deadline deadline) {
+                final int size = visualRowOrder.size();
+                int middle = 0;
+                if (size > 0) {
+                    final int middleRow = getLogicalRowIndex(getScrollTop()
+                            + getHeightOfSection() / 2);
+                    middle = Math.max(0, Math.min(size - 1, middleRow
+                            - getTopRowLogicalIndex()));
+                }
 
-                final int end = visualRowOrder.size();
-                final int start = end - rowsToMove;
-                final int logicalRowIndex = getLogicalRowIndex(scrollTop);
+                /*
+                 * Visit the visual indices middle, middle+1, middle-1,
+                 * middle+2, and so on. At least one row is repainted per
+                 * frame, so that the repaint always progresses.
+                 */
+                boolean repaintedAny = false;
+                for (int i = 0; i < 2 * size; i++) {
+                    final int offset = (i % 2 == 0) ? i / 2 : -(i + 1) / 2;
+                    final int visualIndex = middle + offset;
+                    if (visualIndex < 0 || visualIndex >= size) {
+                        continue;
+                    }
+                    if (repaintedAny && deadline.hasPassed()) {
+                        return false;
+                    }
+                    if (repaintRow(visualIndex)) {
+                        repaintedAny = true;
+                    }
+                }
 
-                moveAndUpdateEscalatorRows(Range.between(start, end), 0,
-                        logicalRowIndex);
+                clear();
+                return true;
+            }
 
-                setTopRowLogicalIndex(logicalRowIndex);
+            private boolean repaintRow(int visualIndex) {
+                final int flags = visualRowOrder.getFlags(visualIndex);
+                if (flags == 0) {
+                    return false;
+                }
+                visualRowOrder.setFlags(visualIndex, 0);
 
-                rowsWereMoved = true;
+                final TableRowElement tr = visualRowOrder.get(visualIndex);
+                if ((flags & RESIZE) != 0) {
+                    reapplyCellWidths(tr);
+                }
+                if ((flags & REFRESH) != 0) {
+                    refreshRow(tr, getTopRowLogicalIndex() + visualIndex,
+                            columnsToRefresh);
+                }
+
+                repaintedRowCount++;
+                return true;
             }
 
-            else if (viewportOffset + nextRowBottomOffset <= 0) {
+            private void startIfIdle() {
+                if (!isPending()) {
+                    firstFrame = frameWork.getFrameCount();
+                }
+            }
+
+            private void addFlags(int visualIndex, int flags) {
+                visualRowOrder.setFlags(visualIndex,
+                        visualRowOrder.getFlags(visualIndex) | flags);
+            }
+
+            private void clear() {
+                visualRowOrder.clearFlags();
+                columnsToRefresh = null;
+            }
+        }
+
+        private final ChunkedRepaint chunkedRepaint = new ChunkedRepaint();
+
+        /**
+         * The number of row and spacer elements moved in the DOM by the last
+         * {@link #sortDomElements()}.
+         */
+        private int lastDomSortMoveCount = 0;
+
+        /**
+         * The number of row and spacer elements moved in the DOM by
+         * {@link #sortDomElements()} in total.
+         */
+        private int totalDomSortMoveCount = 0;
+
+        private final SpacerContainer spacerContainer = new SpacerContainer();
+
+        /**
+         * The heights of the logical rows: the default row height, and the
+         * rows that have an explicit height.
+         * 
+         * @see #getRowHeightIndex()
+         */
+        private final RowHeightIndex rowHeights = new RowHeightIndex(
+                INITIAL_DEFAULT_ROW_HEIGHT);
+
+        /** @see #setScrollState(ScrollState) */
+        private ScrollState scrollState = ScrollState.IDLE;
+
+        /**
+         * Whether there might be escalator rows that are shown as
+         * placeholders.
+         * 
+         * @see #paintPlaceholderRow(TableRowElement, int)
+         */
+        private boolean placeholderRowsPainted = false;
+
+        /**
+         * The logical index of the first placeholder row rendered so far in
+         * the current fill, or -1 if none.
+         * 
+         * @see #renderPlaceholderRows(Deadline)
+         */
+        private int firstRenderedPlaceholder = -1;
+
+        /**
+         * The logical index of the last placeholder row rendered so far in
+         * the current fill, or -1 if none.
+         * 
+         * @see #renderPlaceholderRows(Deadline)
+         */
+        private int lastRenderedPlaceholder = -1;
+
+        /**
+         * The number of placeholder rows rendered so far in the current fill.
+         * 
+         * @see #renderPlaceholderRows(Deadline)
+         */
+        private int renderedPlaceholderCount = 0;
+
+        /**
+         * The number of escalator rows kept above the viewport.
+         * 
+         * @see #setOverscanRows(int, int)
+         */
+        private int overscanRowsAbove = RowOverscanPolicy.DEFAULT_BASE_ROWS;
+
+        /**
+         * The number of escalator rows kept below the viewport.
+         * 
+         * @see #setOverscanRows(int, int)
+         */
+        private int overscanRowsBelow = RowOverscanPolicy.DEFAULT_BASE_ROWS;
+
+        /**
+         * The unfrozen columns whose cells have content in all the rendered
+         * rows, or <code>null</code> if all cells have content.
+         * 
+         * @see #updateColumnWindow()
+         */
+        private Range columnWindow = null;
+
+        /**
+         * The number of frozen columns when the {@link #columnWindow} was
+         * applied. The cells of these columns have content as well.
+         */
+        private int columnWindowFrozenColumns = 0;
+
+        /**
+         * The selector prefix of the rules that hide the cells outside of the
+         * column window, or <code>null</code> if there are none.
+         */
+        private String columnWindowRulePrefix = null;
+
+        /**
+         * The state the column window rules were written for, or
+         * <code>null</code> if there are no rules.
+         */
+        private String columnWindowRuleState = null;
+
+        /**
+         * The height of the body section, as measured in the frame
+         * {@link #measuredHeightOfSectionFrame}.
+         *
+         * @see #measureHeightOfSection()
+         */
+        private double measuredHeightOfSection = 0;
+        private int measuredHeightOfSectionFrame = -1;
+
+        public BodyRowContainerImpl(final TableSectionElement bodyElement) {
+            super(bodyElement);
+        }
+
+        @Override
+        public void setStylePrimaryName(String primaryStyleName) {
+            super.setStylePrimaryName(primaryStyleName);
+            UIObject.setStylePrimaryName(root, primaryStyleName + "-body");
+            spacerContainer.setStylePrimaryName(primaryStyleName);
+        }
+
+        public void updateEscalatorRowsOnScroll() {
+            if (visualRowOrder.isEmpty()) {
+                return;
+            }
+
+            boolean rowsWereMoved = false;
+
+            final double topElementPosition;
+            final double nextRowBottomOffset;
+            SpacerContainer.SpacerImpl topSpacer = spacerContainer
+                    .getSpacer(getTopRowLogicalIndex() - 1);
+
+            final double topRowHeight = getRowHeight(getTopRowLogicalIndex());
+            if (topSpacer != null) {
+                topElementPosition = topSpacer.getTop();
+                nextRowBottomOffset = topSpacer.getHeight() + topRowHeight;
+            } else {
+                topElementPosition = getRowTop(visualRowOrder.getFirst());
+                nextRowBottomOffset = topRowHeight;
+            }
+
+            /*
+             * This is where the topmost escalator row should be: the logical
+             * scroll position (which may be larger than what the scrollbar can
+             * physically represent), moved up by the overscan rows.
+             */
+            final double scrollTop = getRowAnchorTop();
+            final double viewportOffset = topElementPosition - scrollTop;
+
+            /*
+             * TODO [[optimize]] this if-else can most probably be refactored
+             * into a neater block of code
+             */
+
+            if (viewportOffset > 0) {
+                // there's empty room on top
+
+                double rowPx = getRowHeightsSumBetweenPx(scrollTop,
+                        topElementPosition);
+                int originalRowsToMove = getRowHeightIndex().getRowCountAbove(
+                        getTopRowLogicalIndex(), rowPx);
+                int rowsToMove = Math.min(originalRowsToMove,
+                        visualRowOrder.size());
+
+                final int end = visualRowOrder.size();
+                final int start = end - rowsToMove;
+                final int logicalRowIndex = getLogicalRowIndex(scrollTop);
+
+                moveAndUpdateEscalatorRows(Range.between(start, end), 0,
+                        logicalRowIndex);
+
+                setTopRowLogicalIndex(logicalRowIndex);
+
+                rowsWereMoved = true;
+            }
+
+            else if (viewportOffset + nextRowBottomOffset <= 0) {
                 /*
                  * the viewport has been scrolled more than the topmost visual
                  * row.
@@ -2493,7 +3640,8 @@ public class Escalator extends Widget implements RequiresResize,
                 double rowPx = getRowHeightsSumBetweenPx(topElementPosition,
                         scrollTop);
 
-                int originalRowsToMove = (int) (rowPx / getDefaultRowHeight());
+                int originalRowsToMove = getRowHeightIndex().getRowCountBelow(
+                        getTopRowLogicalIndex(), rowPx);
                 int rowsToMove = Math.min(originalRowsToMove,
                         visualRowOrder.size());
 
@@ -2581,6 +3729,49 @@ public class Escalator extends Widget implements RequiresResize,
             }
         }
 
+        /**
+         * Gets the position where the topmost escalator row should be placed,
+         * given the current scroll position and {@link #overscanRowsAbove}.
+         * 
+         * @return the position for the topmost escalator row
+         */
+        private double getRowAnchorTop() {
+            if (overscanRowsAbove == 0 || visualRowOrder.isEmpty()) {
+                return tBodyScrollTop;
+            }
+
+            /*
+             * At the end of the body, the rows that don't fit below the
+             * viewport are kept above it instead, so that all escalator rows
+             * are in use.
+             */
+            int anchorRow = getLogicalRowIndex(tBodyScrollTop)
+                    - overscanRowsAbove;
+            anchorRow = Math.min(anchorRow,
+                    getRowCount() - visualRowOrder.size());
+            return getRowTop(Math.max(0, anchorRow));
+        }
+
+        /**
+         * Sets the number of escalator rows to keep outside of the viewport,
+         * and adds or removes escalator rows accordingly. The rows are moved
+         * into their places by the next {@link #updateEscalatorRowsOnScroll()}.
+         * 
+         * @param above
+         *            the number of rows to keep above the viewport
+         * @param below
+         *            the number of rows to keep below the viewport
+         * @see RowOverscanPolicy
+         */
+        private void setOverscanRows(int above, int below) {
+            if (above == overscanRowsAbove && below == overscanRowsBelow) {
+                return;
+            }
+            overscanRowsAbove = above;
+            overscanRowsBelow = below;
+            verifyEscalatorCount();
+        }
+
         private double getRowHeightsSumBetweenPx(double y1, double y2) {
             assert y1 < y2 : "y1 must be smaller than y2";
 
@@ -2594,7 +3785,116 @@ public class Escalator extends Widget implements RequiresResize,
 
         private int getLogicalRowIndex(final double px) {
             double rowPx = px - spacerContainer.getSpacerHeightsSumUntilPx(px);
-            return (int) (rowPx / getDefaultRowHeight());
+            return getRowHeightIndex().getRowAt(rowPx);
+        }
+
+        /**
+         * Gets the index of the logical row heights, with the default row
+         * height up to date.
+         * <p>
+         * The default row height is kept (and autodetected) by
+         * {@link AbstractRowContainer}, so it's synchronized into the index
+         * here, instead of on every place it's assigned.
+         * 
+         * @return the row height index
+         */
+        private RowHeightIndex getRowHeightIndex() {
+            rowHeights.setDefaultHeight(getDefaultRowHeight());
+            return rowHeights;
+        }
+
+        /**
+         * Gets the height of a logical row.
+         * 
+         * @param logicalIndex
+         *            the logical index of the row
+         * @return the height explicitly set for the row, or the default row
+         *         height
+         * @see #setRowHeight(int, double)
+         */
+        public double getRowHeight(int logicalIndex) {
+            return getRowHeightIndex().getHeight(logicalIndex);
+        }
+
+        /**
+         * Sets an explicit height for a logical row.
+         * <p>
+         * The height stays with the row when rows are inserted or removed
+         * before it, and is forgotten when the row itself is removed.
+         * 
+         * @param logicalIndex
+         *            the logical index of the row
+         * @param height
+         *            the height of the row in pixels, or a negative value to
+         *            make the row use the default row height again
+         * @throws IllegalArgumentException
+         *             if {@code logicalIndex} is not a valid row index, or if
+         *             {@code height} is between 0 (inclusive) and 1
+         *             (exclusive)
+         */
+        public void setRowHeight(int logicalIndex, double height)
+                throws IllegalArgumentException {
+            if (logicalIndex < 0 || logicalIndex >= getRowCount()) {
+                throw new IllegalArgumentException("invalid row index: "
+                        + logicalIndex + ", while the body only has "
+                        + getRowCount() + " rows.");
+            }
+
+            // Height lesser than 1px causes serious performance problems.
+            if (height >= 0 && height < 1) {
+                throw new IllegalArgumentException("Height must be positive. "
+                        + height + " was given.");
+            }
+
+            final double oldHeight = getRowHeight(logicalIndex);
+            getRowHeightIndex().setHeight(logicalIndex, height);
+            final double heightDiff = getRowHeight(logicalIndex) - oldHeight;
+            if (heightDiff == 0) {
+                return;
+            }
+
+            Profiler.enter("Escalator.BodyRowContainer.setRowHeight");
+
+            if (logicalIndex < getTopRowLogicalIndex()) {
+                /*
+                 * Everything that is rendered is below the changed row, so
+                 * everything moves, and the viewport moves along with it.
+                 */
+                shiftRowTops(0, visualRowOrder.size(), heightDiff);
+                spacerContainer.shiftSpacerPositionsAfterRow(
+                        logicalIndex - 1, heightDiff);
+                scroller.recalculateScrollbarsForVirtualViewport();
+                setBodyScrollPosition(tBodyScrollLeft, tBodyScrollTop
+                        + heightDiff);
+                setVerticalScrollPosByDelta(heightDiff);
+            } else {
+                int visualIndex = logicalIndex - getTopRowLogicalIndex();
+                if (visualIndex < visualRowOrder.size()) {
+                    TableRowElement tr = visualRowOrder.get(visualIndex);
+                    applyRowHeight(tr, visualIndex, logicalIndex);
+                }
+                shiftRowPositions(logicalIndex, heightDiff);
+                spacerContainer.shiftSpacerPositionsAfterRow(
+                        logicalIndex - 1, heightDiff);
+                scroller.recalculateScrollbarsForVirtualViewport();
+            }
+
+            spacerContainer.updateSpacerRowHeight(logicalIndex);
+
+            /*
+             * A smaller row might make room for more escalator rows, and
+             * might reveal rows at the bottom.
+             */
+            verifyEscalatorCount();
+            scroller.onScroll();
+            fireRowVisibilityChangeEvent();
+
+            Profiler.leave("Escalator.BodyRowContainer.setRowHeight");
+        }
+
+        @Override
+        protected double calculateTotalRowHeight() {
+            return getRowHeightIndex().getTop(getRowCount());
         }
 
         @Override
@@ -2603,6 +3903,7 @@ public class Escalator extends Widget implements RequiresResize,
                 return;
             }
 
+            getRowHeightIndex().insertRows(index, numberOfRows);
             spacerContainer.shiftSpacersByRows(index, numberOfRows);
 
             /*
@@ -2622,10 +3923,9 @@ public class Escalator extends Widget implements RequiresResize,
              */
             scroller.recalculateScrollbarsForVirtualViewport();
 
-            final boolean addedRowsAboveCurrentViewport = index
-                    * getDefaultRowHeight() < getScrollTop();
-            final boolean addedRowsBelowCurrentViewport = index
-                    * getDefaultRowHeight() > getScrollTop()
+            final double addedRowsTop = getRowHeightIndex().getTop(index);
+            final boolean addedRowsAboveCurrentViewport = addedRowsTop < getScrollTop();
+            final boolean addedRowsBelowCurrentViewport = addedRowsTop > getScrollTop()
                     + getHeightOfSection();
 
             if (addedRowsAboveCurrentViewport) {
@@ -2635,13 +3935,29 @@ public class Escalator extends Widget implements RequiresResize,
                  * without re-evaluating any rows.
                  */
 
-                final double yDelta = numberOfRows * getDefaultRowHeight();
-                moveViewportAndContent(yDelta);
+                final int oldTopRowLogicalIndex = getTopRowLogicalIndex();
+                final double yDelta = getRowHeightIndex().getHeightBetween(
+                        index, index + numberOfRows);
+                moveViewportAndContent(yDelta, yDelta, numberOfRows);
                 updateTopRowLogicalIndex(numberOfRows);
+
+                /*
+                 * The overscan rows above the viewport that were before the
+                 * added rows moved along with everything else, so they now
+                 * stand in for the rows up to the end of the added rows.
+                 */
+                if (index > oldTopRowLogicalIndex) {
+                    refreshRowsInPlace(Range.between(getTopRowLogicalIndex(),
+                            index + numberOfRows));
+                }
             }
 
             else if (addedRowsBelowCurrentViewport) {
-                // NOOP, we already recalculated scrollbars.
+                /*
+                 * We already recalculated scrollbars, but any overscan rows
+                 * below the viewport show rows that have been pushed down.
+                 */
+                refreshRowsInPlace(Range.between(index, getRowCount()));
             }
 
             else { // some rows were added inside the current viewport
@@ -2671,8 +3987,10 @@ public class Escalator extends Widget implements RequiresResize,
                             visualTargetIndex, unupdatedLogicalStart);
 
                     // move the surrounding rows to their correct places.
-                    double rowTop = (unupdatedLogicalStart + (end - start))
-                            * getDefaultRowHeight();
+                    int rowTopLogicalIndex = unupdatedLogicalStart
+                            + (end - start);
+                    double rowTop = getRowHeightIndex().getTop(
+                            rowTopLogicalIndex);
 
                     // TODO: Get rid of this try/catch block by fixing the
                     // underlying issue. The reason for this erroneous behavior
@@ -2689,7 +4007,7 @@ public class Escalator extends Widget implements RequiresResize,
 
                             final TableRowElement tr = i.next();
                             setRowPosition(tr, 0, rowTop);
-                            rowTop += getDefaultRowHeight();
+                            rowTop += getRowHeight(rowTopLogicalIndex++);
                         }
                     } catch (Exception e) {
                         Logger logger = getLogger();
@@ -2708,6 +4026,27 @@ public class Escalator extends Widget implements RequiresResize,
             }
         }
 
+        /**
+         * Refreshes the escalator rows that stand in for the given logical
+         * rows, and moves them to where those rows are, without moving any
+         * escalator rows around.
+         * 
+         * @param logicalRange
+         *            the logical rows to refresh, restricted to the rows in
+         *            the DOM
+         */
+        private void refreshRowsInPlace(Range logicalRange) {
+            final int topRowLogicalIndex = getTopRowLogicalIndex();
+            final Range range = logicalRange.restrictTo(Range.withLength(
+                    topRowLogicalIndex, visualRowOrder.size()));
+            for (int i = range.getStart(); i < range.getEnd(); i++) {
+                final TableRowElement tr = visualRowOrder.get(i
+                        - topRowLogicalIndex);
+                refreshRow(tr, i);
+                setRowPosition(tr, 0, getRowTop(i));
+            }
+        }
+
         /**
          * Move escalator rows around, and make sure everything gets
          * appropriately repositioned and repainted.
@@ -2775,42 +4114,35 @@ public class Escalator extends Widget implements RequiresResize,
                  */
 
                 /*
-                 * TODO [[optimize]]: move whichever set is smaller: the ones
-                 * explicitly moved, or the others. So, with 10 escalator rows,
-                 * if we are asked to move idx[0..8] to the end of the list,
-                 * it's faster to just move idx[9] to the beginning.
+                 * Moving rows between the top and the bottom (i.e. scrolling)
+                 * is just a rotation of the ring's head.
                  */
-
-                final List<TableRowElement> removedRows = new ArrayList<TableRowElement>(
-                        visualSourceRange.length());
-                for (int i = 0; i < visualSourceRange.length(); i++) {
-                    final TableRowElement tr = visualRowOrder
-                            .remove(visualSourceRange.getStart());
-                    removedRows.add(tr);
-                }
-                visualRowOrder.addAll(adjustedVisualTargetIndex, removedRows);
+                visualRowOrder.move(visualSourceRange.getStart(),
+                        visualSourceRange.length(), adjustedVisualTargetIndex);
             }
 
             { // Refresh the contents of the affected rows
-                final ListIterator<TableRowElement> iter = visualRowOrder
-                        .listIterator(adjustedVisualTargetIndex);
-                for (int logicalIndex = logicalTargetIndex; logicalIndex < logicalTargetIndex
-                        + visualSourceRange.length(); logicalIndex++) {
-                    final TableRowElement tr = iter.next();
-                    refreshRow(tr, logicalIndex);
+                final boolean paintPlaceholders = scrollState == ScrollState.FAST_SCROLLING;
+                for (int i = 0; i < visualSourceRange.length(); i++) {
+                    final TableRowElement tr = visualRowOrder
+                            .get(adjustedVisualTargetIndex + i);
+                    if (paintPlaceholders) {
+                        paintPlaceholderRow(tr, logicalTargetIndex + i);
+                    } else {
+                        refreshRow(tr, logicalTargetIndex + i);
+                    }
                 }
             }
 
             { // Reposition the rows that were moved
                 double newRowTop = getRowTop(logicalTargetIndex);
 
-                final ListIterator<TableRowElement> iter = visualRowOrder
-                        .listIterator(adjustedVisualTargetIndex);
                 for (int i = 0; i < visualSourceRange.length(); i++) {
-                    final TableRowElement tr = iter.next();
+                    final TableRowElement tr = visualRowOrder
+                            .get(adjustedVisualTargetIndex + i);
                     setRowPosition(tr, 0, newRowTop);
 
-                    newRowTop += getDefaultRowHeight();
+                    newRowTop += getRowHeight(logicalTargetIndex + i);
                     newRowTop += spacerContainer
                             .getSpacerHeight(logicalTargetIndex + i);
                 }
@@ -2843,30 +4175,47 @@ public class Escalator extends Widget implements RequiresResize,
          *            while a negative value moves everything upwards
          */
         public void moveViewportAndContent(final double yDelta) {
+            final double defaultRowHeight = getDefaultRowHeight();
+            double rowPxDelta = yDelta - (yDelta % defaultRowHeight);
+            int rowIndexDelta = (int) (yDelta / defaultRowHeight);
+            moveViewportAndContent(yDelta, rowPxDelta, rowIndexDelta);
+        }
+
+        /**
+         * Adjust the scroll position and move the contained rows by a known
+         * amount of rows.
+         * <p>
+         * Unlike {@link #moveViewportAndContent(double)}, this doesn't assume
+         * that the rows are of the default height, so this should be used
+         * when the rows that the content is moved by are known, e.g. when
+         * rows are inserted or removed above the viewport.
+         * 
+         * @param yDelta
+         *            the delta of pixels by which to move the viewport
+         * @param rowPxDelta
+         *            the delta of pixels by which to move the content
+         * @param rowIndexDelta
+         *            the number of rows by which to move the content
+         */
+        private void moveViewportAndContent(final double yDelta,
+                final double rowPxDelta, final int rowIndexDelta) {
 
             if (yDelta == 0) {
                 return;
             }
 
             double newTop = tBodyScrollTop + yDelta;
-            verticalScrollbar.setScrollPos(newTop);
+            setVerticalScrollPos(newTop);
 
-            final double defaultRowHeight = getDefaultRowHeight();
-            double rowPxDelta = yDelta - (yDelta % defaultRowHeight);
-            int rowIndexDelta = (int) (yDelta / defaultRowHeight);
             if (!WidgetUtil.pixelValuesEqual(rowPxDelta, 0)) {
 
                 Collection<SpacerContainer.SpacerImpl> spacers = spacerContainer
                         .getSpacersAfterPx(tBodyScrollTop,
                                 SpacerInclusionStrategy.PARTIAL);
-                for (SpacerContainer.SpacerImpl spacer : spacers) {
-                    spacer.setPositionDiff(0, rowPxDelta);
-                    spacer.setRowIndex(spacer.getRow() + rowIndexDelta);
-                }
+                spacerContainer.shiftSpacers(spacers, rowIndexDelta,
+                        rowPxDelta);
 
-                for (TableRowElement tr : visualRowOrder) {
-                    setRowPosition(tr, 0, getRowTop(tr) + rowPxDelta);
-                }
+                shiftRowTops(0, visualRowOrder.size(), rowPxDelta);
             }
 
             setBodyScrollPosition(tBodyScrollLeft, newTop);
@@ -2901,8 +4250,7 @@ public class Escalator extends Widget implements RequiresResize,
                         index, escalatorRowsNeeded);
                 visualRowOrder.addAll(index, addedRows);
 
-                double y = index * getDefaultRowHeight()
-                        + spacerContainer.getSpacerHeightsSumUntilIndex(index);
+                double y = getRowTop(index);
                 for (int i = index; i < visualRowOrder.size(); i++) {
 
                     final TableRowElement tr;
@@ -2913,7 +4261,7 @@ public class Escalator extends Widget implements RequiresResize,
                     }
 
                     setRowPosition(tr, 0, y);
-                    y += getDefaultRowHeight();
+                    y += getRowHeight(i);
                     y += spacerContainer.getSpacerHeight(i);
                 }
 
@@ -2925,7 +4273,9 @@ public class Escalator extends Widget implements RequiresResize,
 
         private int getMaxEscalatorRowCapacity() {
             final int maxEscalatorRowCapacity = (int) Math
-                    .ceil(getHeightOfSection() / getDefaultRowHeight()) + 1;
+                    .ceil(getHeightOfSection()
+                            / getRowHeightIndex().getMinHeight()) + 1
+                    + overscanRowsAbove + overscanRowsBelow;
 
             /*
              * maxEscalatorRowCapacity can become negative if the headers and
@@ -2963,6 +4313,17 @@ public class Escalator extends Widget implements RequiresResize,
             final Range removedLogicalInside = partitions[1];
             final Range removedVisualInside = convertToVisual(removedLogicalInside);
 
+            /*
+             * The heights of the removed rows are needed for adjusting the
+             * scroll position, so they're read before they are forgotten.
+             */
+            final double removedAboveHeight = getRowHeightIndex()
+                    .getHeightBetween(removedAbove.getStart(),
+                            removedAbove.getEnd());
+            final double removedRowsHeight = getRowHeightIndex()
+                    .getHeightBetween(index, index + numberOfRows);
+            getRowHeightIndex().removeRows(index, numberOfRows);
+
             /*
              * TODO: extract the following if-block to a separate method. I'll
              * leave this be inlined for now, to make linediff-based code
@@ -2989,11 +4350,10 @@ public class Escalator extends Widget implements RequiresResize,
                     .isEmpty() && removedVisualInside.getStart() == 0;
 
             if (!removedAbove.isEmpty() || firstVisualRowIsRemoved) {
-                final double yDelta = removedAbove.length()
-                        * getDefaultRowHeight();
-                final double firstLogicalRowHeight = getDefaultRowHeight();
-                final boolean removalScrollsToShowFirstLogicalRow = verticalScrollbar
-                        .getScrollPos() - yDelta < firstLogicalRowHeight;
+                final double yDelta = removedAboveHeight;
+                final double firstLogicalRowHeight = getRowHeight(0);
+                final boolean removalScrollsToShowFirstLogicalRow = getVerticalScrollPos()
+                        - yDelta < firstLogicalRowHeight;
 
                 if (removedVisualInside.isEmpty()
                         && (!removalScrollsToShowFirstLogicalRow || !firstVisualRowIsRemoved)) {
@@ -3002,7 +4362,8 @@ public class Escalator extends Widget implements RequiresResize,
                      * to do is to adjust the scroll position to account for the
                      * removed rows
                      */
-                    moveViewportAndContent(-yDelta);
+                    moveViewportAndContent(-yDelta, -yDelta,
+                            -removedAbove.length());
                 } else if (removalScrollsToShowFirstLogicalRow) {
                     /*
                      * It seems like we've removed all rows from above, and also
@@ -3011,7 +4372,7 @@ public class Escalator extends Widget implements RequiresResize,
                      * current negative scrolltop, presto!), so that it isn't
                      * aligned funnily
                      */
-                    moveViewportAndContent(-verticalScrollbar.getScrollPos());
+                    moveViewportAndContent(-getVerticalScrollPos());
                 }
             }
 
@@ -3052,7 +4413,7 @@ public class Escalator extends Widget implements RequiresResize,
                     for (int i = dirtyRowsStart; i < escalatorRowCount; i++) {
                         final TableRowElement tr = visualRowOrder.get(i);
                         setRowPosition(tr, 0, y);
-                        y += getDefaultRowHeight();
+                        y += getRowHeight(i);
                         y += spacerContainer.getSpacerHeight(i);
                     }
 
@@ -3092,8 +4453,7 @@ public class Escalator extends Widget implements RequiresResize,
                      * double-refreshing.
                      */
 
-                    final double contentBottom = getRowCount()
-                            * getDefaultRowHeight();
+                    final double contentBottom = calculateTotalRowHeight();
                     final double viewportBottom = tBodyScrollTop
                             + getHeightOfSection();
                     if (viewportBottom <= contentBottom) {
@@ -3115,8 +4475,8 @@ public class Escalator extends Widget implements RequiresResize,
                          */
 
                         double left = horizontalScrollbar.getScrollPos();
-                        double top = contentBottom - visualRowOrder.size()
-                                * getDefaultRowHeight();
+                        double top = getRowHeightIndex().getTop(
+                                getRowCount() - visualRowOrder.size());
                         setBodyScrollPosition(left, top);
 
                         Range allEscalatorRows = Range.withLength(0,
@@ -3146,9 +4506,8 @@ public class Escalator extends Widget implements RequiresResize,
                          */
                     }
 
-                    else if (contentBottom
-                            + (numberOfRows * getDefaultRowHeight())
-                            - viewportBottom < getDefaultRowHeight()) {
+                    else if (contentBottom + removedRowsHeight
+                            - viewportBottom < getRowHeight(getRowCount() - 1)) {
                         /*
                          * We're at the end of the row container, everything is
                          * added to the top.
@@ -3209,16 +4568,16 @@ public class Escalator extends Widget implements RequiresResize,
                          */
                         double newTop = getRowTop(visualRowOrder
                                 .get(removedVisualInside.getStart()));
-                        for (int i = 0; i < removedVisualInside.length(); i++) {
-                            final TableRowElement tr = visualRowOrder
-                                    .remove(removedVisualInside.getStart());
-                            visualRowOrder.addLast(tr);
-                        }
+                        visualRowOrder.move(removedVisualInside.getStart(),
+                                removedVisualInside.length(),
+                                visualRowOrder.size()
+                                        - removedVisualInside.length());
 
                         for (int i = removedVisualInside.getStart(); i < escalatorRowCount; i++) {
                             final TableRowElement tr = visualRowOrder.get(i);
                             setRowPosition(tr, 0, (int) newTop);
-                            newTop += getDefaultRowHeight();
+                            newTop += getRowHeight(i
+                                    + removedLogicalInside.getStart());
                             newTop += spacerContainer.getSpacerHeight(i
                                     + removedLogicalInside.getStart());
                         }
@@ -3268,9 +4627,11 @@ public class Escalator extends Widget implements RequiresResize,
                          *  5
                          */
 
-                        final int rowsScrolled = (int) (Math
-                                .ceil((viewportBottom - contentBottom)
-                                        / getDefaultRowHeight()));
+                        final int rowsScrolled = getRowHeightIndex()
+                                .getRowCountAbove(
+                                        getLogicalRowIndex(visualRowOrder
+                                                .getFirst()) + 1,
+                                        viewportBottom - contentBottom);
                         final int start = escalatorRowCount
                                 - (removedVisualInside.length() - rowsScrolled);
                         final Range visualRefreshRange = Range.between(start,
@@ -3325,7 +4686,7 @@ public class Escalator extends Widget implements RequiresResize,
                     - removedVisualInside.length(); i++) {
                 final TableRowElement tr = iterator.next();
                 setRowPosition(tr, 0, rowTop);
-                rowTop += getDefaultRowHeight();
+                rowTop += getRowHeight(i + removedLogicalInside.getStart());
                 rowTop += spacerContainer.getSpacerHeight(i
                         + removedLogicalInside.getStart());
             }
@@ -3356,12 +4717,57 @@ public class Escalator extends Widget implements RequiresResize,
             while (iterator.hasNext()) {
                 final TableRowElement tr = iterator.next();
                 setRowPosition(tr, 0, rowTop);
-                rowTop += getDefaultRowHeight();
+                rowTop += getRowHeight(firstUpdatedIndex + i);
                 rowTop += spacerContainer.getSpacerHeight(firstUpdatedIndex
                         + i++);
             }
         }
 
+        /**
+         * {@inheritDoc}
+         * <p>
+         * If the frame budget is in use, and there are many cells, the cells
+         * get their widths in chunks, starting from the middle of the
+         * viewport.
+         */
+        @Override
+        public void reapplyColumnWidths() {
+            if (styleSheetColumnWidthsEnabled
+                    || !isChunkedRepaintNeeded(visualRowOrder.size())) {
+                super.reapplyColumnWidths();
+                return;
+            }
+
+            invalidatePrototypeRow();
+            chunkedRepaint.resizeAll();
+            reapplyRowWidths();
+        }
+
+        /**
+         * Checks whether a repaint of the given number of rows is to be cut
+         * into chunks.
+         * 
+         * @param rowCount
+         *            the number of rows to repaint
+         * @return <code>true</code> iff the frame budget is in use, and the
+         *         repaint covers at least {@value #CHUNKED_REPAINT_MIN_CELLS}
+         *         cells
+         * @see Escalator#setFrameBudget(double)
+         */
+        private boolean isChunkedRepaintNeeded(int rowCount) {
+            return frameBudgetMillis > 0
+                    && rowCount * getColumnConfiguration().getColumnCount() >= CHUNKED_REPAINT_MIN_CELLS;
+        }
+
+        @Override
+        TableRowElement getTrByLogicalIndex(int logicalRowIndex) {
+            final int visualIndex = logicalRowIndex - getTopRowLogicalIndex();
+            if (visualIndex < 0 || visualIndex >= visualRowOrder.size()) {
+                return null;
+            }
+            return visualRowOrder.get(visualIndex);
+        }
+
         @Override
         protected int getLogicalRowIndex(final TableRowElement tr) {
             assert tr.getParentNode() == root : "The given element isn't a row element in the body";
@@ -3370,13 +4776,541 @@ public class Escalator extends Widget implements RequiresResize,
         }
 
         @Override
-        protected void recalculateSectionHeight() {
-            // NOOP for body, since it doesn't make any sense.
+        Range[] getColumnsWithContent(Range colRange) {
+            if (columnWindow == null) {
+                return super.getColumnsWithContent(colRange);
+            }
+            return new Range[] {
+                    colRange.restrictTo(Range.withLength(0,
+                            columnWindowFrozenColumns)),
+                    colRange.restrictTo(columnWindow) };
         }
 
         /**
-         * Adjusts the row index and number to be relevant for the current
-         * virtual viewport.
+         * Updates only the frozen columns and the columns in the column
+         * window, if column virtualization is enabled. The cells of the other
+         * columns are empty, and get their content from
+         * {@link #updateColumnWindow()} once they come into the window.
+         */
+        @Override
+        void updateCells(Range colRange) {
+            if (columnWindow == null) {
+                super.updateCells(colRange);
+                return;
+            }
+
+            final Range frozenCols = colRange.restrictTo(Range.withLength(0,
+                    columnWindowFrozenColumns));
+            if (!frozenCols.isEmpty()) {
+                super.updateCells(frozenCols);
+            }
+
+            final Range windowCols = colRange.restrictTo(columnWindow);
+            if (!windowCols.isEmpty()) {
+                super.updateCells(windowCols);
+            }
+        }
+
+        /**
+         * Moves the column window according to the current horizontal scroll
+         * position, the frozen columns and the column widths.
+         * <p>
+         * The cells of the columns that leave the window are detached and
+         * emptied in all the rendered rows, and the cells of the columns that
+         * come into the window are attached and updated. If column
+         * virtualization has been disabled, all cells get their content back.
+         */
+        void updateColumnWindow() {
+            final Range oldWindow = columnWindow;
+            final int oldFrozen = columnWindowFrozenColumns;
+            final int frozen = columnConfiguration.frozenColumns;
+
+            final Range newWindow;
+            if (columnVirtualizationEnabled) {
+                newWindow = columnConfiguration.calculateColumnWindow(
+                        scroller.lastScrollLeft, widthOfEscalator,
+                        columnOverscan);
+            } else {
+                newWindow = null;
+            }
+
+            final boolean changed;
+            if (newWindow == null) {
+                changed = oldWindow != null;
+            } else {
+                changed = !newWindow.equals(oldWindow) || frozen != oldFrozen;
+            }
+
+            if (changed) {
+                Profiler.enter("Escalator.BodyRowContainer.updateColumnWindow");
+                columnWindow = newWindow;
+                columnWindowFrozenColumns = frozen;
+                moveColumnWindow(oldFrozen, oldWindow);
+                Profiler.leave("Escalator.BodyRowContainer.updateColumnWindow");
+            }
+
+            updateColumnWindowRules();
+        }
+
+        /**
+         * Empties the cells that had content with the given column window,
+         * but don't with the current one, and fills the cells that didn't
+         * have content, but do now.
+         * 
+         * @param oldFrozen
+         *            the number of frozen columns of the old column window
+         * @param oldWindow
+         *            the old column window, or <code>null</code> if all cells
+         *            had content
+         */
+        private void moveColumnWindow(int oldFrozen, Range oldWindow) {
+            final int frozen = columnWindowFrozenColumns;
+            final Range window = columnWindow;
+
+            // Go through the columns in runs that keep, gain or lose content
+            final int columnCount = columnConfiguration.getColumnCount();
+            int start = 0;
+            while (start < columnCount) {
+                final boolean hadContent = hasContent(start, oldFrozen,
+                        oldWindow);
+                final boolean hasContent = hasContent(start, frozen, window);
+                int end = start + 1;
+                while (end < columnCount
+                        && hasContent(end, oldFrozen, oldWindow) == hadContent
+                        && hasContent(end, frozen, window) == hasContent) {
+                    end++;
+                }
+
+                if (hadContent && !hasContent) {
+                    emptyColumnsInAllRows(Range.between(start, end));
+                } else if (!hadContent && hasContent) {
+                    fillColumnsInAllRows(Range.between(start, end));
+                }
+                start = end;
+            }
+        }
+
+        private boolean hasContent(int column, int frozen, Range window) {
+            return window == null || column < frozen || window.contains(column);
+        }
+
+        /**
+         * Detaches and empties the cells of the given columns in all the
+         * rendered rows.
+         * 
+         * @param colRange
+         *            the columns whose cells to empty
+         */
+        private void emptyColumnsInAllRows(Range colRange) {
+            for (int i = 0; i < visualRowOrder.size(); i++) {
+                final TableRowElement tr = visualRowOrder.get(i);
+                flyweightRow.setup(tr, getTopRowLogicalIndex() + i,
+                        columnConfiguration.getFlyweightColumnWidths());
+                final Iterable<FlyweightCell> cells = flyweightRow.getCells(
+                        colRange.getStart(), colRange.length());
+
+                getEscalatorUpdater().preDetach(flyweightRow, cells);
+                for (FlyweightCell cell : cells) {
+                    cell.getElement().removeAllChildren();
+                }
+                getEscalatorUpdater().postDetach(flyweightRow, cells);
+
+                assert flyweightRow.teardown();
+
+                if (isCellContentDiffingEnabled()) {
+                    for (int col = colRange.getStart(); col < colRange
+                            .getEnd(); col++) {
+                        cellContents.markStale(tr, col);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Attaches and updates the cells of the given columns in all the
+         * rendered rows.
+         * 
+         * @param colRange
+         *            the columns whose cells to fill
+         */
+        private void fillColumnsInAllRows(Range colRange) {
+            for (int i = 0; i < visualRowOrder.size(); i++) {
+                final TableRowElement tr = visualRowOrder.get(i);
+                final int logicalRowIndex = getTopRowLogicalIndex() + i;
+                flyweightRow.setup(tr, logicalRowIndex,
+                        columnConfiguration.getFlyweightColumnWidths());
+                final Iterable<FlyweightCell> cells = flyweightRow.getCells(
+                        colRange.getStart(), colRange.length());
+
+                getEscalatorUpdater().preAttach(flyweightRow, cells);
+                getEscalatorUpdater().postAttach(flyweightRow, cells);
+
+                assert flyweightRow.teardown();
+
+                refreshRow(tr, logicalRowIndex, colRange);
+            }
+        }
+
+        /**
+         * Writes the stylesheet rules that hide the empty cells outside of the
+         * column window, and that move the first cell of the window to where
+         * it would be if the hidden cells took up their space.
+         * <p>
+         * The rules select the cells by their position in the row, so they
+         * don't need to be touched when rows are added or scrolled, and
+         * moving the window changes just a few rules.
+         */
+        private void updateColumnWindowRules() {
+            final int columnCount = columnConfiguration.getColumnCount();
+            final int frozen = columnWindowFrozenColumns;
+            final Range window = columnWindow;
+
+            double hiddenWidth = 0;
+            String state = null;
+            if (window != null) {
+                hiddenWidth = columnConfiguration
+                        .getCalculatedColumnsWidth(Range.between(
+                                Math.min(frozen, window.getStart()),
+                                window.getStart()));
+                state = frozen + " " + window + " " + columnCount + " "
+                        + hiddenWidth;
+            }
+            if (state == null ? columnWindowRuleState == null : state
+                    .equals(columnWindowRuleState)) {
+                return;
+            }
+
+            if (columnWindowRulePrefix != null) {
+                styleSheet.removeRules(columnWindowRulePrefix);
+                columnWindowRulePrefix = null;
+            }
+            columnWindowRuleState = state;
+            if (window == null) {
+                return;
+            }
+
+            columnWindowRulePrefix = getStyleSheetRowSelector("tbody")
+                    + " > :nth-child(";
+            if (window.getStart() > frozen) {
+                styleSheet.setProperty(columnWindowRulePrefix + "n+"
+                        + (frozen + 1) + "):nth-child(-n+" + window.getStart()
+                        + ")", "display", "none");
+                styleSheet.setProperty(columnWindowRulePrefix
+                        + (window.getStart() + 1) + ")", "margin-left",
+                        hiddenWidth + "px");
+            }
+            if (window.getEnd() < columnCount) {
+                styleSheet.setProperty(columnWindowRulePrefix + "n+"
+                        + (window.getEnd() + 1) + ")", "display", "none");
+            }
+        }
+
+        /**
+         * Removes the column window rules and writes them anew, e.g. after
+         * the selectors have changed.
+         */
+        void rebuildColumnWindowRules() {
+            if (columnWindowRulePrefix != null) {
+                styleSheet.removeRules(columnWindowRulePrefix);
+                columnWindowRulePrefix = null;
+            }
+            columnWindowRuleState = null;
+            updateColumnWindowRules();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The column window is moved along with the columns after the
+         * inserted ones, and grows if the columns are inserted inside it.
+         */
+        @Override
+        protected void paintInsertColumns(int offset, int numberOfColumns,
+                boolean frozen) {
+            if (columnWindow != null) {
+                columnWindowFrozenColumns = shiftForInsert(
+                        columnWindowFrozenColumns, offset, numberOfColumns);
+                columnWindow = Range.between(
+                        shiftForInsert(columnWindow.getStart(), offset,
+                                numberOfColumns),
+                        shiftForInsert(columnWindow.getEnd(), offset,
+                                numberOfColumns));
+            }
+            super.paintInsertColumns(offset, numberOfColumns, frozen);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The column window is moved along with the columns after the
+         * removed ones, and shrinks if columns inside it are removed.
+         */
+        @Override
+        protected void paintRemoveColumns(int offset, int numberOfColumns) {
+            super.paintRemoveColumns(offset, numberOfColumns);
+            if (columnWindow != null) {
+                final Range removed = Range.withLength(offset, numberOfColumns);
+                columnWindowFrozenColumns = shiftForRemove(
+                        columnWindowFrozenColumns, removed);
+                columnWindow = Range.between(
+                        shiftForRemove(columnWindow.getStart(), removed),
+                        shiftForRemove(columnWindow.getEnd(), removed));
+            }
+        }
+
+        private int shiftForInsert(int column, int offset, int count) {
+            return offset < column ? column + count : column;
+        }
+
+        private int shiftForRemove(int column, Range removed) {
+            return column
+                    - removed.restrictTo(Range.between(0, column)).length();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The empty cells outside of the column window aren't measured.
+         */
+        @Override
+        double measureMinCellWidth(int colIndex, boolean withContent) {
+            if (!hasContent(colIndex, columnWindowFrozenColumns,
+                    columnWindow)) {
+                return -1;
+            }
+            return super.measureMinCellWidth(colIndex, withContent);
+        }
+
+        @Override
+        void refreshRow(final TableRowElement tr, final int logicalRowIndex,
+                Range colRange) {
+            int visualIndex = visualRowOrder.indexOf(tr);
+            if (visualIndex >= 0 && chunkedRepaint.isPending()) {
+                chunkedRepaint.rowRefreshed(visualIndex, colRange);
+            }
+
+            final boolean isPlaceholder = placeholderRowsPainted
+                    && visualIndex >= 0
+                    && visualRowOrder.getLogicalIndex(visualIndex) == RowSlotRing.NO_LOGICAL_INDEX;
+            if (isPlaceholder
+                    && colRange.length() < getColumnConfiguration()
+                            .getColumnCount()) {
+                /*
+                 * Only some of the cells would get their content, so this is
+                 * left for renderPlaceholderRows to do all at once.
+                 */
+                return;
+            }
+
+            super.refreshRow(tr, logicalRowIndex, colRange);
+
+            if (visualIndex >= 0) {
+                if (isPlaceholder) {
+                    tr.removeClassName("placeholder");
+                }
+                visualRowOrder.setLogicalIndex(visualIndex, logicalRowIndex);
+                applyRowHeight(tr, visualIndex, logicalRowIndex);
+            }
+        }
+
+        /**
+         * Gives a row the height of the logical row it stands in for.
+         * 
+         * @param tr
+         *            the row element
+         * @param visualIndex
+         *            the visual index of the row element
+         * @param logicalRowIndex
+         *            the logical index of the row
+         */
+        private void applyRowHeight(final TableRowElement tr,
+                final int visualIndex, final int logicalRowIndex) {
+            /*
+             * Rows of the default height get it from the row height rule, so
+             * only the rows with a height of their own have it inline. The
+             * cells need to be touched only if the row changes between the
+             * two, or between two heights of its own.
+             */
+            final double appliedHeight = visualRowOrder.getHeight(visualIndex);
+            final double height = getRowHeight(logicalRowIndex);
+            if (height == getDefaultRowHeight()) {
+                if (!Double.isNaN(appliedHeight)) {
+                    clearRowHeight(tr);
+                    visualRowOrder.setHeight(visualIndex, Double.NaN);
+                }
+            } else if (appliedHeight != height) {
+                reapplyRowHeight(tr, height);
+                visualRowOrder.setHeight(visualIndex, height);
+            }
+        }
+
+        /**
+         * Shows a row as a placeholder for a logical row, instead of
+         * rendering its content. The row gets the height of the logical row
+         * so that it can be positioned, and the <code>placeholder</code>
+         * class name. The cells keep their previous content, which the
+         * stylesheet rule of {@link Escalator#placeholderCellSelector}
+         * hides, so the row itself stays visible for a theme to draw as a
+         * skeleton.
+         * <p>
+         * Placeholder rows are marked with
+         * {@value RowSlotRing#NO_LOGICAL_INDEX} as their logical index in
+         * {@link #visualRowOrder}, and they are rendered by
+         * {@link #renderPlaceholderRows(Deadline)}, in idle time or at the
+         * latest when fast scrolling ends.
+         * 
+         * @param tr
+         *            the row element
+         * @param logicalRowIndex
+         *            the logical index of the row the placeholder stands in
+         *            for
+         */
+        private void paintPlaceholderRow(final TableRowElement tr,
+                final int logicalRowIndex) {
+            int visualIndex = visualRowOrder.indexOf(tr);
+            tr.addClassName("placeholder");
+            visualRowOrder.setLogicalIndex(visualIndex,
+                    RowSlotRing.NO_LOGICAL_INDEX);
+            applyRowHeight(tr, visualIndex, logicalRowIndex);
+            placeholderRowsPainted = true;
+            idleWork.schedule(placeholderRenderer);
+        }
+
+        private final Task placeholderRenderer = new Task() {
+            @Override
+            public boolean run(Deadline deadline) {
+                return renderPlaceholderRows(deadline);
+            }
+        };
+
+        /**
+         * Renders the content of the rows that are shown as placeholders.
+         * <p>
+         * A fill may take several idle periods. The rendered rows are
+         * collected across them, and a single {@link RowsRenderedEvent} is
+         * fired for all of them once every placeholder row is rendered.
+         * 
+         * @param deadline
+         *            the deadline after which no more rows are rendered
+         * @return <code>true</code> if all placeholder rows were rendered
+         */
+        private boolean renderPlaceholderRows(Deadline deadline) {
+            if (!placeholderRowsPainted) {
+                return true;
+            }
+
+            Profiler.enter("Escalator.BodyRowContainer.renderPlaceholderRows");
+
+            final int topRowLogicalIndex = getTopRowLogicalIndex();
+            int renderedCount = 0;
+            boolean done = true;
+            for (int i = 0; i < visualRowOrder.size(); i++) {
+                if (renderedCount > 0 && deadline.hasPassed()) {
+                    done = false;
+                    break;
+                }
+                final int logicalIndex = topRowLogicalIndex + i;
+                if (visualRowOrder.getLogicalIndex(i) == RowSlotRing.NO_LOGICAL_INDEX
+                        && logicalIndex < getRowCount()) {
+                    refreshRow(visualRowOrder.get(i), logicalIndex);
+                    if (firstRenderedPlaceholder < 0
+                            || logicalIndex < firstRenderedPlaceholder) {
+                        firstRenderedPlaceholder = logicalIndex;
+                    }
+                    lastRenderedPlaceholder = Math.max(
+                            lastRenderedPlaceholder, logicalIndex);
+                    renderedCount++;
+                }
+            }
+            renderedPlaceholderCount += renderedCount;
+            placeholderRowsPainted = !done;
+
+            if (done) {
+                if (renderedPlaceholderCount > 0) {
+                    fireEvent(new RowsRenderedEvent(Range.between(
+                            firstRenderedPlaceholder,
+                            lastRenderedPlaceholder + 1),
+                            renderedPlaceholderCount));
+                }
+                resetRenderedPlaceholders();
+            }
+
+            Profiler.leave("Escalator.BodyRowContainer.renderPlaceholderRows");
+            return done;
+        }
+
+        /**
+         * Forgets the placeholder rows rendered so far, without firing an
+         * event for them.
+         */
+        private void resetRenderedPlaceholders() {
+            firstRenderedPlaceholder = -1;
+            lastRenderedPlaceholder = -1;
+            renderedPlaceholderCount = 0;
+        }
+
+        /**
+         * Moves the body to a new {@link ScrollState}.
+         * <p>
+         * The body element has the <code>scrolling</code> class name while the
+         * body is being scrolled. When fast scrolling ends, the rows that were
+         * shown as placeholders get their content rendered.
+         * 
+         * @param state
+         *            the new scroll state
+         */
+        private void setScrollState(ScrollState state) {
+            final ScrollState oldState = scrollState;
+            if (state == oldState) {
+                return;
+            }
+            scrollState = state;
+
+            if (oldState == ScrollState.IDLE) {
+                bodyElem.addClassName("scrolling");
+            } else if (state == ScrollState.IDLE) {
+                bodyElem.removeClassName("scrolling");
+            }
+
+            if (oldState == ScrollState.FAST_SCROLLING) {
+                renderPlaceholderRows(Deadline.UNLIMITED);
+            } else if (state == ScrollState.FAST_SCROLLING) {
+                // A new fill starts with the placeholders painted from now on
+                resetRenderedPlaceholders();
+            }
+        }
+
+        @Override
+        protected void setRowPosition(final TableRowElement tr, final int x,
+                final double y) {
+            super.setRowPosition(tr, x, y);
+
+            int visualIndex = visualRowOrder.indexOf(tr);
+            if (visualIndex >= 0) {
+                visualRowOrder.setTop(visualIndex, y);
+            }
+        }
+
+        @Override
+        protected double getRowTop(final TableRowElement tr) {
+            int visualIndex = visualRowOrder.indexOf(tr);
+            if (visualIndex >= 0) {
+                double top = visualRowOrder.getTop(visualIndex);
+                if (!Double.isNaN(top)) {
+                    return top;
+                }
+            }
+            return super.getRowTop(tr);
+        }
+
+        @Override
+        protected void recalculateSectionHeight() {
+            // NOOP for body, since it doesn't make any sense.
+        }
+
+        /**
+         * Adjusts the row index and number to be relevant for the current
+         * virtual viewport.
          * <p>
          * It converts a logical range of rows index to the matching visual
          * range, truncating the resulting range with the viewport.
@@ -3426,6 +5360,12 @@ public class Escalator extends Widget implements RequiresResize,
 
         @Override
         protected double getHeightOfSection() {
+            if (measuredHeightOfSectionFrame == domPhases.getFrameNumber()
+                    && (domPhases.isMeasuring() || domPhases.isMutating())) {
+                return measuredHeightOfSection;
+            }
+
+            assert domPhases.assertDomReadAllowed("the body height");
             final int tableHeight = tableWrapper.getOffsetHeight();
             final double footerHeight = footer.getHeightOfSection();
             final double headerHeight = header.getHeightOfSection();
@@ -3434,6 +5374,16 @@ public class Escalator extends Widget implements RequiresResize,
             return Math.max(0, heightOfSection);
         }
 
+        /**
+         * Measures the height of the body section, and remembers it for the
+         * rest of the current {@link DomPhaseScheduler} frame.
+         */
+        public void measureHeightOfSection() {
+            measuredHeightOfSectionFrame = -1;
+            measuredHeightOfSection = getHeightOfSection();
+            measuredHeightOfSectionFrame = domPhases.getFrameNumber();
+        }
+
         @Override
         protected void refreshCells(Range logicalRowRange, Range colRange) {
             Profiler.enter("Escalator.BodyRowContainer.refreshRows");
@@ -3443,10 +5393,14 @@ public class Escalator extends Widget implements RequiresResize,
             if (!visualRange.isEmpty()) {
                 final int firstLogicalRowIndex = getLogicalRowIndex(visualRowOrder
                         .getFirst());
-                for (int rowNumber = visualRange.getStart(); rowNumber < visualRange
-                        .getEnd(); rowNumber++) {
-                    refreshRow(visualRowOrder.get(rowNumber),
-                            firstLogicalRowIndex + rowNumber, colRange);
+                if (isChunkedRepaintNeeded(visualRange.length())) {
+                    chunkedRepaint.refresh(visualRange, colRange);
+                } else {
+                    for (int rowNumber = visualRange.getStart(); rowNumber < visualRange
+                            .getEnd(); rowNumber++) {
+                        refreshRow(visualRowOrder.get(rowNumber),
+                                firstLogicalRowIndex + rowNumber, colRange);
+                    }
                 }
             }
 
@@ -3484,8 +5438,20 @@ public class Escalator extends Widget implements RequiresResize,
                 final double scrollTop) {
             tBodyScrollLeft = scrollLeft;
             tBodyScrollTop = scrollTop;
-            position.set(bodyElem, -tBodyScrollLeft, -tBodyScrollTop);
-            position.set(spacerDecoContainer, 0, -tBodyScrollTop);
+
+            /*
+             * The rows, spacers and decos are positioned relative to an
+             * origin near the viewport, so their DOM coordinates stay small
+             * however far down the body is scrolled.
+             */
+            if (verticalScrollMapping.updateOrigin(scrollTop)) {
+                positions.reapplyChildren(bodyElem);
+                positions.reapplyChildren(spacerDecoContainer);
+            }
+            final double localScrollTop = verticalScrollMapping
+                    .toLocal(scrollTop);
+            position.set(bodyElem, -tBodyScrollLeft, -localScrollTop);
+            position.set(spacerDecoContainer, 0, -localScrollTop);
         }
 
         /**
@@ -3607,9 +5573,15 @@ public class Escalator extends Widget implements RequiresResize,
                 final ListIterator<TableRowElement> iter = visualRowOrder
                         .listIterator(visualRowOrder.size());
                 for (int i = 0; i < -neededEscalatorRowsDiff; i++) {
-                    final Element last = iter.previous();
-                    last.removeFromParent();
+                    final TableRowElement last = iter.previous();
+                    final int logicalIndex = getLogicalRowIndex(last);
                     iter.remove();
+
+                    /*
+                     * The updater is told about the detach, so that the
+                     * cells are cleaned up before they are reused.
+                     */
+                    paintRemoveRow(last, logicalIndex);
                 }
 
                 /*
@@ -3628,8 +5600,8 @@ public class Escalator extends Widget implements RequiresResize,
                 if (!visualRowOrder.isEmpty()) {
                     final double firstRowTop = getRowTop(visualRowOrder
                             .getFirst());
-                    final double firstRowMinTop = tBodyScrollTop
-                            - getDefaultRowHeight();
+                    final double firstRowMinTop = getRowAnchorTop()
+                            - getRowHeight(getTopRowLogicalIndex());
                     if (firstRowTop < firstRowMinTop) {
                         final int newLogicalIndex = getLogicalRowIndex(visualRowOrder
                                 .getLast()) + 1;
@@ -3654,13 +5626,16 @@ public class Escalator extends Widget implements RequiresResize,
 
             Profiler.enter("Escalator.BodyRowContainer.reapplyDefaultRowHeights");
 
-            /* step 1: resize and reposition rows */
+            /*
+             * step 1: reposition rows, and resize the rows that don't follow
+             * the row height rule
+             */
             for (int i = 0; i < visualRowOrder.size(); i++) {
                 TableRowElement tr = visualRowOrder.get(i);
-                reapplyRowHeight(tr, getDefaultRowHeight());
-
                 final int logicalIndex = getTopRowLogicalIndex() + i;
-                setRowPosition(tr, 0, logicalIndex * getDefaultRowHeight());
+                applyRowHeight(tr, i, logicalIndex);
+
+                setRowPosition(tr, 0, getRowHeightIndex().getTop(logicalIndex));
             }
 
             /*
@@ -3673,30 +5648,47 @@ public class Escalator extends Widget implements RequiresResize,
              * scroll position) in order to align the top row with the new
              * scroll position.
              */
-            double scrollRatio = verticalScrollbar.getScrollPos()
-                    / verticalScrollbar.getScrollSize();
+            double scrollRatio = getVerticalScrollPos()
+                    / getVerticalScrollSize();
             scroller.recalculateScrollbarsForVirtualViewport();
-            verticalScrollbar.setScrollPos((int) (getDefaultRowHeight()
-                    * getRowCount() * scrollRatio));
+            setVerticalScrollPos((int) (calculateTotalRowHeight() * scrollRatio));
             setBodyScrollPosition(horizontalScrollbar.getScrollPos(),
-                    verticalScrollbar.getScrollPos());
+                    getVerticalScrollPos());
             scroller.onScroll();
 
             /* step 3: make sure we have the correct amount of escalator rows. */
             verifyEscalatorCount();
 
-            int logicalLogical = (int) (getRowTop(visualRowOrder.getFirst()) / getDefaultRowHeight());
+            int logicalLogical = getRowHeightIndex().getRowAt(
+                    getRowTop(visualRowOrder.getFirst()));
             setTopRowLogicalIndex(logicalLogical);
 
             Profiler.leave("Escalator.BodyRowContainer.reapplyDefaultRowHeights");
         }
 
+        /** The element property with the index an element is sorted to. */
+        private static final String DOM_SORT_TARGET_PROPERTY = "vDomSortTarget";
+
         /**
          * Sorts the rows in the DOM to correspond to the visual order.
          * 
          * @see #visualRowOrder
          */
         private void sortDomElements() {
+            sortDomElements(Deadline.UNLIMITED);
+        }
+
+        /**
+         * Sorts the rows in the DOM to correspond to the visual order, or
+         * some of them, if the deadline passes before all rows are in place.
+         * 
+         * @param deadline
+         *            the deadline after which no more rows are moved
+         * @return <code>true</code> if the rows are sorted,
+         *         <code>false</code> if there are rows left to move
+         * @see #visualRowOrder
+         */
+        private boolean sortDomElements(Deadline deadline) {
             final String profilingName = "Escalator.BodyRowContainer.sortDomElements";
             Profiler.enter(profilingName);
 
@@ -3714,73 +5706,116 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             /*
-             * Two cases handled simultaneously:
-             * 
-             * 1) No focus on rows. We iterate visualRowOrder backwards, and
-             * take the respective element in the DOM, and place it as the first
-             * child in the body element. Then we take the next-to-last from
-             * visualRowOrder, and put that first, pushing the previous row as
-             * the second child. And so on...
-             * 
-             * 2) Focus on some row within Escalator body. Again, we iterate
-             * visualRowOrder backwards. This time, we use the focused row as a
-             * pivot: Instead of placing rows from the bottom of visualRowOrder
-             * and placing it first, we place it underneath the focused row.
-             * Once we hit the focused row, we don't move it (to not reset
-             * focus) but change sorting mode. After that, we place all rows as
-             * the first child.
+             * The rows (and the visible spacers between them) in the order
+             * they should be in the DOM.
              */
-
-            List<TableRowElement> orderedBodyRows = new ArrayList<TableRowElement>(
-                    visualRowOrder);
-            Map<Integer, SpacerContainer.SpacerImpl> spacers = body.spacerContainer
-                    .getSpacers();
+            final int topRowLogicalIndex = getTopRowLogicalIndex();
+            final List<TableRowElement> orderedBodyRows = new ArrayList<TableRowElement>(
+                    visualRowOrder.size() + 1);
 
             /*
              * Start at -1 to include a spacer that is rendered above the
              * viewport, but its parent row is still not shown
              */
             for (int i = -1; i < visualRowOrder.size(); i++) {
-                SpacerContainer.SpacerImpl spacer = spacers.remove(Integer
-                        .valueOf(getTopRowLogicalIndex() + i));
-
+                if (i >= 0) {
+                    orderedBodyRows.add(visualRowOrder.get(i));
+                }
+                SpacerContainer.SpacerImpl spacer = spacerContainer
+                        .getSpacer(topRowLogicalIndex + i);
                 if (spacer != null) {
-                    orderedBodyRows.add(i + 1, spacer.getRootElement());
+                    orderedBodyRows.add(spacer.getRootElement());
                     spacer.show();
                 }
             }
+
             /*
-             * At this point, invisible spacers aren't reordered, so their
-             * position in the DOM will remain undefined.
+             * If a spacer is not amongst the rows, it means that it's out of
+             * view. Invisible spacers aren't reordered, so their position in
+             * the DOM will remain undefined.
              */
+            for (SpacerContainer.SpacerImpl spacer : spacerContainer
+                    .getSpacersInDom()) {
+                final int row = spacer.getRow();
+                if (row < topRowLogicalIndex - 1
+                        || row >= topRowLogicalIndex + visualRowOrder.size()) {
+                    spacer.hide();
+                }
+            }
 
-            // If a spacer was not reordered, it means that it's out of view.
-            for (SpacerContainer.SpacerImpl unmovedSpacer : spacers.values()) {
-                unmovedSpacer.hide();
+            /*
+             * The target index is stored in each element. An element that
+             * isn't sorted may have a stale one, so the index only counts if
+             * the element is found at it.
+             */
+            final int size = orderedBodyRows.size();
+            for (int i = 0; i < size; i++) {
+                orderedBodyRows.get(i).setPropertyInt(
+                        DOM_SORT_TARGET_PROPERTY, i);
             }
 
             /*
-             * If we have a focused row, start in the mode where we put
-             * everything underneath that row. Otherwise, all rows are placed as
-             * first child.
+             * Read the current order of the rows from the DOM, as target
+             * indices.
              */
-            boolean insertFirst = (focusedRow == null);
+            final int[] domOrder = new int[size];
+            int domCount = 0;
+            int focusedDomIndex = -1;
+            for (Element child = root.getFirstChildElement(); child != null; child = child
+                    .getNextSiblingElement()) {
+                final int targetIndex = child
+                        .getPropertyInt(DOM_SORT_TARGET_PROPERTY);
+                if (targetIndex >= 0 && targetIndex < size
+                        && orderedBodyRows.get(targetIndex) == child) {
+                    if (child == focusedRow) {
+                        focusedDomIndex = domCount;
+                    }
+                    domOrder[domCount++] = targetIndex;
+                }
+            }
+            assert domCount == size : "Some rows to sort were not in the DOM";
 
-            final ListIterator<TableRowElement> i = orderedBodyRows
-                    .listIterator(orderedBodyRows.size());
-            while (i.hasPrevious()) {
-                TableRowElement tr = i.previous();
+            /*
+             * The rows in the longest run that is already in order stay where
+             * they are, and everything else is moved around them. Focus is lost
+             * from an element if it's removed from the document, so the focused
+             * row is forced to be part of the run that stays.
+             */
+            final boolean[] staying = findLongestIncreasingSubsequence(
+                    domOrder, domCount, focusedDomIndex);
+            final boolean[] stayingByTarget = new boolean[size];
+            for (int i = 0; i < domCount; i++) {
+                stayingByTarget[domOrder[i]] = staying[i];
+            }
 
-                if (tr == focusedRow) {
-                    insertFirst = true;
-                } else if (insertFirst) {
-                    root.insertFirst(tr);
-                } else {
-                    root.insertAfter(tr, focusedRow);
+            /*
+             * Going from the bottom up, every row that is placed before its
+             * visual successor ends up in the right place relative to all the
+             * rows below it. If the deadline passes, the rows above are left
+             * for the next call.
+             */
+            int moves = 0;
+            boolean sorted = true;
+            for (int i = size - 1; i >= 0; i--) {
+                if (!stayingByTarget[i]) {
+                    if (moves > 0 && deadline.hasPassed()) {
+                        sorted = false;
+                        break;
+                    }
+                    final TableRowElement tr = orderedBodyRows.get(i);
+                    if (i + 1 < size) {
+                        root.insertBefore(tr, orderedBodyRows.get(i + 1));
+                    } else {
+                        root.appendChild(tr);
+                    }
+                    moves++;
                 }
             }
+            lastDomSortMoveCount = moves;
+            totalDomSortMoveCount += moves;
 
             Profiler.leave(profilingName);
+            return sorted;
         }
 
         /**
@@ -3848,9 +5883,9 @@ public class Escalator extends Widget implements RequiresResize,
          * <em>Calculates</em> the correct top position of a row at a logical
          * index, regardless if there is one there or not.
          * <p>
-         * A correct result requires that both {@link #getDefaultRowHeight()} is
-         * consistent, and the placement and height of all spacers above the
-         * given logical index are consistent.
+         * A correct result requires that both {@link #getDefaultRowHeight()}
+         * and the explicit row heights are consistent, and the placement and
+         * height of all spacers above the given logical index are consistent.
          * 
          * @param logicalIndex
          *            the logical index of the row for which to calculate the
@@ -3861,33 +5896,49 @@ public class Escalator extends Widget implements RequiresResize,
         private double getRowTop(int logicalIndex) {
             double top = spacerContainer
                     .getSpacerHeightsSumUntilIndex(logicalIndex);
-            return top + (logicalIndex * getDefaultRowHeight());
+            return top + getRowHeightIndex().getTop(logicalIndex);
         }
 
         public void shiftRowPositions(int row, double diff) {
-            for (TableRowElement tr : getVisibleRowsAfter(row)) {
-                setRowPosition(tr, 0, getRowTop(tr) + diff);
-            }
-        }
-
-        private List<TableRowElement> getVisibleRowsAfter(int logicalRow) {
             Range visibleRowLogicalRange = getVisibleRowRange();
 
-            boolean allRowsAreInView = logicalRow < visibleRowLogicalRange
+            boolean allRowsAreInView = row < visibleRowLogicalRange
                     .getStart();
-            boolean noRowsAreInView = logicalRow >= visibleRowLogicalRange
-                    .getEnd() - 1;
+            boolean noRowsAreInView = row >= visibleRowLogicalRange.getEnd() - 1;
 
             if (allRowsAreInView) {
-                return Collections.unmodifiableList(visualRowOrder);
-            } else if (noRowsAreInView) {
-                return Collections.emptyList();
-            } else {
-                int fromIndex = (logicalRow - visibleRowLogicalRange.getStart()) + 1;
+                shiftRowTops(0, visualRowOrder.size(), diff);
+            } else if (!noRowsAreInView) {
+                int fromIndex = (row - visibleRowLogicalRange.getStart()) + 1;
                 int toIndex = visibleRowLogicalRange.length();
-                List<TableRowElement> sublist = visualRowOrder.subList(
-                        fromIndex, toIndex);
-                return Collections.unmodifiableList(sublist);
+                shiftRowTops(fromIndex, toIndex, diff);
+            }
+        }
+
+        /**
+         * Moves the rows in a range of visual indices vertically.
+         * <p>
+         * The tops are read from and written to the slot ring by visual
+         * index, so no row needs to be looked up.
+         * 
+         * @param fromVisualIndex
+         *            the visual index of the first row to move
+         * @param toVisualIndex
+         *            the visual index after the last row to move
+         * @param diff
+         *            the number of pixels to move the rows by
+         */
+        private void shiftRowTops(int fromVisualIndex, int toVisualIndex,
+                double diff) {
+            for (int i = fromVisualIndex; i < toVisualIndex; i++) {
+                final TableRowElement tr = visualRowOrder.get(i);
+                double top = visualRowOrder.getTop(i);
+                if (Double.isNaN(top)) {
+                    top = positions.getTop(tr);
+                }
+                top += diff;
+                positions.set(tr, 0, top);
+                visualRowOrder.setTop(i, top);
             }
         }
 
@@ -4000,6 +6051,34 @@ public class Escalator extends Widget implements RequiresResize,
          */
         private double[] widthsArray = null;
 
+        /**
+         * The columns whose widths have been changed during an update, or
+         * <code>null</code> if width changes are applied right away.
+         * 
+         * @see Escalator#beginUpdate()
+         */
+        private Set<Integer> columnsWithChangedWidths = null;
+
+        /**
+         * An array of -1 widths, given to the flyweight rows when the column
+         * widths are in the stylesheet.
+         * 
+         * @see #getFlyweightColumnWidths()
+         */
+        private double[] unsetWidthsArray = null;
+
+        /**
+         * The colspans that have a width rule in the stylesheet, as the spans
+         * by the column of the spanning cell.
+         */
+        private final Map<Integer, Set<Integer>> colspanWidthRules = new HashMap<Integer, Set<Integer>>();
+
+        /**
+         * The selector prefix of the column width rules that are in the
+         * stylesheet, or <code>null</code> if there are none.
+         */
+        private String columnWidthRulePrefix = null;
+
         /**
          * {@inheritDoc}
          * <p>
@@ -4055,6 +6134,12 @@ public class Escalator extends Widget implements RequiresResize,
                 reapplyRowWidths(footer);
             }
 
+            // the columns that moved into view get their content
+            body.updateColumnWindow();
+            if (styleSheetColumnWidthsEnabled) {
+                rebuildColumnWidthRules();
+            }
+
             /*
              * Colspans make any kind of automatic clever content re-rendering
              * impossible: As soon as anything has colspans, removing one might
@@ -4203,6 +6288,12 @@ public class Escalator extends Widget implements RequiresResize,
                         + insertedColumnsWidth);
             }
 
+            // the inserted columns may have pushed others out of view
+            body.updateColumnWindow();
+            if (styleSheetColumnWidthsEnabled) {
+                rebuildColumnWidthRules();
+            }
+
             /*
              * Colspans make any kind of automatic clever content re-rendering
              * impossible: As soon as anything has colspans, adding one might
@@ -4270,6 +6361,9 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             scroller.recalculateScrollbarsForVirtualViewport();
+
+            // frozen columns always have content, unfrozen ones might not
+            body.updateColumnWindow();
         }
 
         @Override
@@ -4309,6 +6403,23 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             widthsArray = null;
+            if (columnsWithChangedWidths != null) {
+                columnsWithChangedWidths.addAll(indexWidthMap.keySet());
+                return;
+            }
+            applyColumnWidths(indexWidthMap.keySet());
+        }
+
+        /**
+         * Writes changed column widths into the DOM.
+         * 
+         * @param changedColumns
+         *            the indices of the columns whose widths have changed
+         */
+        private void applyColumnWidths(Collection<Integer> changedColumns) {
+            if (styleSheetColumnWidthsEnabled) {
+                updateColumnWidthRules(changedColumns);
+            }
             header.reapplyColumnWidths();
             body.reapplyColumnWidths();
             footer.reapplyColumnWidths();
@@ -4316,6 +6427,45 @@ public class Escalator extends Widget implements RequiresResize,
             recalculateElementSizes();
         }
 
+        /**
+         * Starts collecting column width changes instead of applying them.
+         * The widths themselves are still updated right away.
+         * 
+         * @see Escalator#beginUpdate()
+         */
+        void beginWidthBatch() {
+            if (columnsWithChangedWidths == null) {
+                columnsWithChangedWidths = new HashSet<Integer>();
+            }
+        }
+
+        /**
+         * Stops collecting column width changes, and applies the collected
+         * ones all at once.
+         * 
+         * @return the number of columns whose widths were changed
+         * @see Escalator#commit()
+         */
+        int commitWidthBatch() {
+            final Set<Integer> changedColumns = columnsWithChangedWidths;
+            columnsWithChangedWidths = null;
+            if (changedColumns == null || changedColumns.isEmpty()) {
+                return 0;
+            }
+
+            /*
+             * Columns may have been removed after their widths were changed.
+             */
+            final Set<Integer> existingColumns = new HashSet<Integer>();
+            for (Integer column : changedColumns) {
+                if (column.intValue() < getColumnCount()) {
+                    existingColumns.add(column);
+                }
+            }
+            applyColumnWidths(existingColumns);
+            return changedColumns.size();
+        }
+
         private void checkValidColumnIndex(int index)
                 throws IllegalArgumentException {
             if (!Range.withLength(0, getColumnCount()).contains(index)) {
@@ -4386,6 +6536,199 @@ public class Escalator extends Widget implements RequiresResize,
             return sum;
         }
 
+        /**
+         * Calculates the range of unfrozen columns that are visible in the
+         * viewport, widened by a number of columns on both sides.
+         * 
+         * @param scrollLeft
+         *            the horizontal scroll position
+         * @param viewportWidth
+         *            the width of the viewport
+         * @param overscan
+         *            the number of columns to add to both sides of the
+         *            visible columns
+         * @return the range of visible unfrozen columns and their overscan
+         */
+        Range calculateColumnWindow(double scrollLeft, double viewportWidth,
+                int overscan) {
+            final double[] widths = getCalculatedColumnWidths();
+            final int columnCount = widths.length;
+
+            double columnLeft = 0;
+            for (int i = 0; i < frozenColumns; i++) {
+                columnLeft += widths[i];
+            }
+
+            /*
+             * The frozen columns cover the left side of the viewport, so the
+             * unfrozen columns are visible between the right edge of the
+             * frozen columns and the right edge of the viewport.
+             */
+            final double visibleLeft = scrollLeft + columnLeft;
+            final double visibleRight = scrollLeft + viewportWidth;
+
+            int col = frozenColumns;
+            while (col < columnCount && columnLeft + widths[col] <= visibleLeft) {
+                columnLeft += widths[col];
+                col++;
+            }
+            final int firstVisible = col;
+
+            while (col < columnCount && columnLeft < visibleRight) {
+                columnLeft += widths[col];
+                col++;
+            }
+            final int lastVisibleExclusive = col;
+
+            return Range.between(
+                    Math.max(frozenColumns, firstVisible - overscan),
+                    Math.min(columnCount, lastVisibleExclusive + overscan));
+        }
+
+        /**
+         * Gets the column widths to set up the flyweight row with.
+         * <p>
+         * {@link FlyweightCell} writes these widths into the cells' inline
+         * styles. When the column widths are in the stylesheet, the widths
+         * are all -1, which the flyweight cells leave unwritten.
+         * 
+         * @return the column widths for the flyweight row
+         * @see #setStyleSheetColumnWidthsEnabled(boolean)
+         */
+        double[] getFlyweightColumnWidths() {
+            if (!styleSheetColumnWidthsEnabled) {
+                return getCalculatedColumnWidths();
+            }
+
+            if (unsetWidthsArray == null
+                    || unsetWidthsArray.length != getColumnCount()) {
+                unsetWidthsArray = new double[getColumnCount()];
+                Arrays.fill(unsetWidthsArray, -1);
+            }
+            return unsetWidthsArray;
+        }
+
+        /**
+         * Writes the width rules of the given columns, and of the colspans
+         * that cover any of them, into the stylesheet.
+         * 
+         * @param changedColumns
+         *            the indices of the columns whose widths have changed
+         */
+        void updateColumnWidthRules(Collection<Integer> changedColumns) {
+            final double[] widths = getCalculatedColumnWidths();
+            for (Integer column : changedColumns) {
+                final int index = column.intValue();
+                styleSheet.setProperty(getColumnWidthSelector(index),
+                        "width", toCssWidth(widths[index]));
+            }
+
+            for (Entry<Integer, Set<Integer>> entry : colspanWidthRules
+                    .entrySet()) {
+                final int index = entry.getKey().intValue();
+                for (Integer colspan : entry.getValue()) {
+                    final Range spanned = Range.withLength(index,
+                            colspan.intValue());
+                    for (Integer column : changedColumns) {
+                        if (spanned.contains(column.intValue())) {
+                            writeColspanWidthRule(index, colspan.intValue());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Makes sure that there is a width rule for cells spanning the given
+         * number of columns from the given column.
+         * 
+         * @param column
+         *            the column of the spanning cell
+         * @param colspan
+         *            the number of columns the cell spans
+         */
+        void registerColspanWidthRule(int column, int colspan) {
+            final Integer key = Integer.valueOf(column);
+            Set<Integer> colspans = colspanWidthRules.get(key);
+            if (colspans == null) {
+                colspans = new HashSet<Integer>();
+                colspanWidthRules.put(key, colspans);
+            }
+            if (colspans.add(Integer.valueOf(colspan))) {
+                writeColspanWidthRule(column, colspan);
+            }
+        }
+
+        /**
+         * Replaces all the column width rules in the stylesheet, e.g. after
+         * the columns have shifted to new indices, or after the selectors
+         * have changed.
+         * <p>
+         * The inline widths of all cells are cleared, and the colspans found
+         * in the DOM get their rules. If the column widths are not in the
+         * stylesheet, the old rules are just removed.
+         */
+        void rebuildColumnWidthRules() {
+            if (columnWidthRulePrefix != null) {
+                styleSheet.removeRules(columnWidthRulePrefix);
+                columnWidthRulePrefix = null;
+            }
+            colspanWidthRules.clear();
+
+            if (!styleSheetColumnWidthsEnabled) {
+                return;
+            }
+
+            columnWidthRulePrefix = getColumnWidthRulePrefix();
+            final List<Integer> allColumns = new ArrayList<Integer>();
+            for (int i = 0; i < getColumnCount(); i++) {
+                allColumns.add(Integer.valueOf(i));
+            }
+            updateColumnWidthRules(allColumns);
+
+            header.moveColumnWidthsToStyleSheet();
+            body.moveColumnWidthsToStyleSheet();
+            footer.moveColumnWidthsToStyleSheet();
+        }
+
+        private void writeColspanWidthRule(int column, int colspan) {
+            Range spanned = Range.withLength(column, colspan);
+
+            // Overflowing colspans are capped, as in reapplyColumnWidths
+            if (spanned.getEnd() > getColumnCount()) {
+                spanned = Range.between(column, getColumnCount());
+            }
+            styleSheet.setProperty(getColspanWidthSelector(column, colspan),
+                    "width", toCssWidth(getCalculatedColumnsWidth(spanned)));
+        }
+
+        private String getColumnWidthRulePrefix() {
+            return getStyleSheetRowSelector() + " > :nth-child(";
+        }
+
+        /*
+         * The cells of a column are selected by their position in the row.
+         * The cells hidden by a colspan stay in the DOM, so the position of a
+         * cell is always the index of its column.
+         */
+        private String getColumnWidthSelector(int column) {
+            return getColumnWidthRulePrefix() + (column + 1) + ")";
+        }
+
+        private String getColspanWidthSelector(int column, int colspan) {
+            return getColumnWidthSelector(column) + "[colspan=\"" + colspan
+                    + "\"]";
+        }
+
+        private String toCssWidth(double width) {
+            if (width < 0) {
+                // not measured yet
+                return null;
+            }
+            return width + "px";
+        }
+
         double[] getCalculatedColumnWidths() {
             if (widthsArray == null || widthsArray.length != getColumnCount()) {
                 widthsArray = new double[getColumnCount()];
@@ -4442,6 +6785,13 @@ public class Escalator extends Widget implements RequiresResize,
         /** This is used mainly for testing purposes */
         private static final String SPACER_LOGICAL_ROW_PROPERTY = "vLogicalRow";
 
+        /**
+         * The decorator elements of removed spacers, for reuse. The row and
+         * cell elements of spacers are pooled by the body.
+         */
+        private final ElementPool<DivElement> decoPool = new ElementPool<DivElement>(
+                DEFAULT_ELEMENT_POOL_SIZE);
+
         private final class SpacerImpl implements Spacer {
             private TableCellElement spacerElement;
             private TableRowElement root;
@@ -4455,11 +6805,14 @@ public class Escalator extends Widget implements RequiresResize,
             public SpacerImpl(int rowIndex) {
                 this.rowIndex = rowIndex;
 
-                root = TableRowElement.as(DOM.createTR());
-                spacerElement = TableCellElement.as(DOM.createTD());
+                root = body.createRowElement();
+                spacerElement = body.createEmptyCellElement();
                 root.appendChild(spacerElement);
                 root.setPropertyInt(SPACER_LOGICAL_ROW_PROPERTY, rowIndex);
-                deco = DivElement.as(DOM.createDiv());
+                deco = decoPool.take();
+                if (deco == null) {
+                    deco = DivElement.as(DOM.createDiv());
+                }
             }
 
             public void setPositionDiff(double x, double y) {
@@ -4496,7 +6849,7 @@ public class Escalator extends Widget implements RequiresResize,
             }
 
             private double getSpacerDecoTopOffset() {
-                return getBody().getDefaultRowHeight();
+                return body.getRowHeight(getRow());
             }
 
             public void setStylePrimaryName(String style) {
@@ -4513,6 +6866,7 @@ public class Escalator extends Widget implements RequiresResize,
                 final double oldHeight = this.height;
 
                 this.height = height;
+                spacerHeights.put(rowIndex, height);
 
                 // since the spacer might be rendered on top of the previous
                 // rows border (done with css), need to increase height the
@@ -4536,8 +6890,8 @@ public class Escalator extends Widget implements RequiresResize,
                  */
                 boolean spacerIsGrowing = heightDiff > 0;
                 if (spacerIsGrowing) {
-                    verticalScrollbar.setScrollSize(verticalScrollbar
-                            .getScrollSize() + heightDiff);
+                    setVerticalScrollSize(getVerticalScrollSize()
+                            + heightDiff);
                 }
 
                 /*
@@ -4568,7 +6922,7 @@ public class Escalator extends Widget implements RequiresResize,
 
                     double top = getTop();
                     double bottom = top + oldHeight;
-                    double scrollTop = verticalScrollbar.getScrollPos();
+                    double scrollTop = getVerticalScrollPos();
 
                     boolean viewportTopIsAtMidSpacer = top < scrollTop
                             && scrollTop < bottom;
@@ -4591,15 +6945,15 @@ public class Escalator extends Widget implements RequiresResize,
                     }
                     body.setBodyScrollPosition(tBodyScrollLeft, tBodyScrollTop
                             + moveDiff);
-                    verticalScrollbar.setScrollPosByDelta(moveDiff);
+                    setVerticalScrollPosByDelta(moveDiff);
 
                 } else {
                     body.shiftRowPositions(getRow(), heightDiff);
                 }
 
                 if (!spacerIsGrowing) {
-                    verticalScrollbar.setScrollSize(verticalScrollbar
-                            .getScrollSize() + heightDiff);
+                    setVerticalScrollSize(getVerticalScrollSize()
+                            + heightDiff);
                 }
 
                 updateDecoratorGeometry(height);
@@ -4608,7 +6962,7 @@ public class Escalator extends Widget implements RequiresResize,
             /** Resizes and places the decorator. */
             private void updateDecoratorGeometry(double detailsHeight) {
                 Style style = deco.getStyle();
-                decoHeight = detailsHeight + getBody().getDefaultRowHeight();
+                decoHeight = detailsHeight + getSpacerDecoTopOffset();
                 style.setHeight(decoHeight, Unit.PX);
             }
 
@@ -4643,9 +6997,11 @@ public class Escalator extends Widget implements RequiresResize,
             public void setRowIndex(int rowIndex) {
                 SpacerImpl spacer = rowIndexToSpacer.remove(this.rowIndex);
                 assert this == spacer : "trying to move an unexpected spacer.";
+                spacerHeights.remove(this.rowIndex);
                 this.rowIndex = rowIndex;
                 root.setPropertyInt(SPACER_LOGICAL_ROW_PROPERTY, rowIndex);
                 rowIndexToSpacer.put(this.rowIndex, this);
+                spacerHeights.put(this.rowIndex, Math.max(0, height));
             }
 
             /**
@@ -4682,24 +7038,26 @@ public class Escalator extends Widget implements RequiresResize,
              * and footer sections.
              * 
              * @param bodyTop
-             *            the top cordinate of the escalator body
+             *            the top cordinate of the escalator body, relative to
+             *            the escalator
              * @param bodyBottom
-             *            the bottom cordinate of the escalator body
+             *            the bottom cordinate of the escalator body, relative
+             *            to the escalator
              * @param decoWidth
              *            width of the deco
              */
             private void updateDecoClip(final double bodyTop,
                     final double bodyBottom, final double decoWidth) {
-                final int top = deco.getAbsoluteTop();
-                final int bottom = deco.getAbsoluteBottom();
                 /*
-                 * FIXME
-                 * 
-                 * Height and its use is a workaround for the issue where
-                 * coordinates of the deco are not calculated yet. This will
-                 * prevent a deco from being displayed when it's added to DOM
+                 * The deco container is pushed down by the header, and moved
+                 * along with the body's scroll position. Calculating the
+                 * coordinates this way doesn't need the deco to be laid out,
+                 * so it doesn't force a reflow either.
                  */
-                final int height = bottom - top;
+                final double top = bodyTop + positions.getTop(deco)
+                        - tBodyScrollTop;
+                final double height = decoHeight;
+                final double bottom = top + height;
                 if (top < bodyTop || bottom > bodyBottom) {
                     final double topClip = Math.max(0.0D, bodyTop - top);
                     final double bottomClip = height
@@ -4718,6 +7076,26 @@ public class Escalator extends Widget implements RequiresResize,
 
         private final TreeMap<Integer, SpacerImpl> rowIndexToSpacer = new TreeMap<Integer, SpacerImpl>();
 
+        /**
+         * The heights of the spacers, indexed by row, for answering the
+         * pixel-based queries in logarithmic time.
+         * <p>
+         * The spacers are laid out so that the top of a spacer is right below
+         * its row, i.e. the heights of the rows up to and including the
+         * spacer's row, plus the heights of all spacers before it. This means
+         * that the position of a spacer can be calculated from this index
+         * alone, without iterating through the spacers or reading their
+         * bookkept positions.
+         */
+        private final SparseRowSumTree spacerHeights = new SparseRowSumTree();
+
+        private final SparseRowSumTree.BaseOffset spacerBaseOffset = new SparseRowSumTree.BaseOffset() {
+            @Override
+            public double getBaseOffset(int rowIndex) {
+                return body.getRowHeightIndex().getTop(rowIndex + 1);
+            }
+        };
+
         private SpacerUpdater spacerUpdater = SpacerUpdater.NULL;
 
         private final ScrollHandler spacerScroller = new ScrollHandler() {
@@ -4840,8 +7218,12 @@ public class Escalator extends Widget implements RequiresResize,
 
                 destroySpacerContent(spacer);
                 spacer.setHeight(0); // resets row offsets
-                spacer.getRootElement().removeFromParent();
-                spacer.getDecoElement().removeFromParent();
+                spacerHeights.remove(spacer.getRow());
+
+                // the spacer shell is reused for later spacers
+                body.releaseRowElement(spacer.getRootElement());
+                positions.remove(spacer.deco);
+                decoPool.release(spacer.deco);
             }
 
             removedSpacers.clear();
@@ -4863,7 +7245,7 @@ public class Escalator extends Widget implements RequiresResize,
          * @return sum of all spacers, or 0 if no spacers present
          */
         public double getSpacerHeightsSum() {
-            return getHeights(rowIndexToSpacer.values());
+            return spacerHeights.getSum();
         }
 
         /**
@@ -4905,27 +7287,19 @@ public class Escalator extends Widget implements RequiresResize,
         public Collection<SpacerImpl> getSpacersAfterPx(final double px,
                 final SpacerInclusionStrategy strategy) {
 
-            ArrayList<SpacerImpl> spacers = new ArrayList<SpacerImpl>(
-                    rowIndexToSpacer.values());
-
-            for (int i = 0; i < spacers.size(); i++) {
-                SpacerImpl spacer = spacers.get(i);
-
-                double top = spacer.getTop();
-                double bottom = top + spacer.getHeight();
-
-                if (top > px) {
-                    return spacers.subList(i, spacers.size());
-                } else if (bottom > px) {
-                    if (strategy == SpacerInclusionStrategy.NONE) {
-                        return spacers.subList(i + 1, spacers.size());
-                    } else {
-                        return spacers.subList(i, spacers.size());
-                    }
-                }
+            final int spacerAtOrAbove = getLastSpacerRowAtOrBeforePx(px);
+            final boolean inclusive;
+            if (spacerAtOrAbove == SparseRowSumTree.NOT_FOUND) {
+                return getSpacersForRowAndAfter(-1);
+            } else if (strategy != SpacerInclusionStrategy.NONE) {
+                // include the spacer if px is in the middle of it
+                inclusive = getSpacerBottom(spacerAtOrAbove) > px;
+            } else {
+                inclusive = false;
             }
 
-            return Collections.emptySet();
+            return new ArrayList<SpacerImpl>(rowIndexToSpacer.tailMap(
+                    Integer.valueOf(spacerAtOrAbove), inclusive).values());
         }
 
         /**
@@ -4971,98 +7345,73 @@ public class Escalator extends Widget implements RequiresResize,
 
             assert rangeTop <= rangeBottom : "rangeTop must be less than rangeBottom";
 
-            double heights = 0;
+            if (spacerHeights.isEmpty()) {
+                return 0;
+            }
 
             /*
-             * TODO [[optimize]]: this might be somewhat inefficient (due to
-             * iterator-based scanning, instead of using the treemap's search
-             * functionalities). But it should be easy to write, read, verify
-             * and maintain.
+             * The visible area of the spacers between the two points is the
+             * difference of the spacer pixels above them. The inclusion
+             * strategies only affect the spacers that cross either point.
              */
-            for (SpacerImpl spacer : rowIndexToSpacer.values()) {
-                double top = spacer.getTop();
-                double height = spacer.getHeight();
-                double bottom = top + height;
-
-                /*
-                 * If we happen to implement a DoubleRange (in addition to the
-                 * int-based Range) at some point, the following logic should
-                 * probably be converted into using the
-                 * Range.partitionWith-equivalent.
-                 */
-
-                boolean topIsAboveRange = top < rangeTop;
-                boolean topIsInRange = rangeTop <= top && top <= rangeBottom;
-                boolean topIsBelowRange = rangeBottom < top;
-
-                boolean bottomIsAboveRange = bottom < rangeTop;
-                boolean bottomIsInRange = rangeTop <= bottom
-                        && bottom <= rangeBottom;
-                boolean bottomIsBelowRange = rangeBottom < bottom;
-
-                assert topIsAboveRange ^ topIsBelowRange ^ topIsInRange : "Bad top logic";
-                assert bottomIsAboveRange ^ bottomIsBelowRange
-                        ^ bottomIsInRange : "Bad bottom logic";
-
-                if (bottomIsAboveRange) {
-                    continue;
-                } else if (topIsBelowRange) {
-                    return heights;
-                }
-
-                else if (topIsAboveRange && bottomIsInRange) {
-                    switch (topInclusion) {
-                    case PARTIAL:
-                        heights += bottom - rangeTop;
-                        break;
-                    case COMPLETE:
-                        heights += height;
-                        break;
-                    default:
-                        break;
-                    }
-                }
+            double heights = getSpacerHeightsSumUntilPx(rangeBottom)
+                    - getSpacerHeightsSumUntilPx(rangeTop);
 
-                else if (topIsAboveRange && bottomIsBelowRange) {
+            /*
+             * A spacer that ends exactly at rangeTop still counts as crossing
+             * it, so that COMPLETE includes the whole spacer.
+             */
+            final int topRow = getLastSpacerRowAtOrBeforePx(rangeTop);
+            final boolean topIsMidSpacer = topRow != SparseRowSumTree.NOT_FOUND
+                    && getSpacerTop(topRow) < rangeTop
+                    && getSpacerBottom(topRow) >= rangeTop;
 
-                    /*
-                     * Here we arbitrarily decide that the top inclusion will
-                     * have the honor of overriding the bottom inclusion if
-                     * happens to be a conflict of interests.
-                     */
-                    switch (topInclusion) {
-                    case NONE:
-                        return 0;
-                    case COMPLETE:
-                        return height;
-                    case PARTIAL:
-                        return rangeBottom - rangeTop;
-                    default:
-                        throw new IllegalArgumentException(
-                                "Unexpected inclusion state :" + topInclusion);
-                    }
+            final int bottomRow = getLastSpacerRowAtOrBeforePx(rangeBottom);
+            final boolean bottomIsMidSpacer = bottomRow != SparseRowSumTree.NOT_FOUND
+                    && getSpacerBottom(bottomRow) > rangeBottom;
 
-                } else if (topIsInRange && bottomIsInRange) {
-                    heights += height;
+            if (topIsMidSpacer && bottomIsMidSpacer && topRow == bottomRow) {
+                /*
+                 * Here we arbitrarily decide that the top inclusion will have
+                 * the honor of overriding the bottom inclusion if happens to
+                 * be a conflict of interests.
+                 */
+                switch (topInclusion) {
+                case NONE:
+                    return 0;
+                case COMPLETE:
+                    return spacerHeights.get(topRow, 0);
+                case PARTIAL:
+                    return rangeBottom - rangeTop;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unexpected inclusion state :" + topInclusion);
                 }
+            }
 
-                else if (topIsInRange && bottomIsBelowRange) {
-                    switch (bottomInclusion) {
-                    case PARTIAL:
-                        heights += rangeBottom - top;
-                        break;
-                    case COMPLETE:
-                        heights += height;
-                        break;
-                    default:
-                        break;
-                    }
-
-                    return heights;
+            if (topIsMidSpacer) {
+                switch (topInclusion) {
+                case COMPLETE:
+                    heights += rangeTop - getSpacerTop(topRow);
+                    break;
+                case NONE:
+                    heights -= getSpacerBottom(topRow) - rangeTop;
+                    break;
+                default:
+                    break;
                 }
+            }
 
-                else {
-                    assert false : "Unnaccounted-for situation";
+            if (bottomIsMidSpacer) {
+                switch (bottomInclusion) {
+                case COMPLETE:
+                    heights += getSpacerBottom(bottomRow) - rangeBottom;
+                    break;
+                case NONE:
+                    heights -= rangeBottom - getSpacerTop(bottomRow);
+                    break;
+                default:
+                    break;
                 }
             }
 
@@ -5078,9 +7427,16 @@ public class Escalator extends Widget implements RequiresResize,
          * @return the pixels occupied by spacers up until {@code px}
          */
         public double getSpacerHeightsSumUntilPx(double px) {
-            return getSpacerHeightsSumBetweenPx(0,
-                    SpacerInclusionStrategy.PARTIAL, px,
-                    SpacerInclusionStrategy.PARTIAL);
+            final int row = getLastSpacerRowAtOrBeforePx(px);
+            if (row == SparseRowSumTree.NOT_FOUND) {
+                return 0;
+            }
+
+            // the spacers above, and the part of the spacer that is above px
+            double heightsAbove = spacerHeights.getSumBefore(row);
+            double top = spacerBaseOffset.getBaseOffset(row) + heightsAbove;
+            return heightsAbove
+                    + Math.min(spacerHeights.get(row, 0), px - top);
         }
 
         /**
@@ -5093,16 +7449,33 @@ public class Escalator extends Widget implements RequiresResize,
          */
         @SuppressWarnings("boxing")
         public double getSpacerHeightsSumUntilIndex(int logicalIndex) {
-            return getHeights(rowIndexToSpacer.headMap(logicalIndex, false)
-                    .values());
+            return spacerHeights.getSumBefore(logicalIndex);
         }
 
-        private double getHeights(Collection<SpacerImpl> spacers) {
-            double heights = 0;
-            for (SpacerImpl spacer : spacers) {
-                heights += spacer.getHeight();
-            }
-            return heights;
+        /**
+         * Finds the last spacer whose top is at or above a pixel point.
+         * 
+         * @param px
+         *            pixels counted from the top
+         * @return the row index of the found spacer, or
+         *         {@link SparseRowSumTree#NOT_FOUND} if there are no spacers
+         *         above {@code px}
+         */
+        private int getLastSpacerRowAtOrBeforePx(double px) {
+            return spacerHeights.findLastAtOrBefore(px, spacerBaseOffset);
+        }
+
+        /**
+         * Calculates the top of a spacer from the spacer index, without
+         * looking at the bookkept position of the spacer element.
+         */
+        private double getSpacerTop(int rowIndex) {
+            return spacerBaseOffset.getBaseOffset(rowIndex)
+                    + spacerHeights.getSumBefore(rowIndex);
+        }
+
+        private double getSpacerBottom(int rowIndex) {
+            return getSpacerTop(rowIndex) + spacerHeights.get(rowIndex, 0);
         }
 
         /**
@@ -5136,6 +7509,7 @@ public class Escalator extends Widget implements RequiresResize,
             final SpacerImpl spacer = new SpacerImpl(rowIndex);
 
             rowIndexToSpacer.put(rowIndex, spacer);
+            spacerHeights.put(rowIndex, 0);
             // set the position before adding it to DOM
             positions.set(spacer.getRootElement(), getScrollLeft(),
                     calculateSpacerTop(rowIndex));
@@ -5246,7 +7620,23 @@ public class Escalator extends Widget implements RequiresResize,
         }
 
         private double calculateSpacerTop(int logicalIndex) {
-            return body.getRowTop(logicalIndex) + body.getDefaultRowHeight();
+            return body.getRowTop(logicalIndex)
+                    + body.getRowHeight(logicalIndex);
+        }
+
+        /**
+         * Updates the decorator of a spacer after the height of its row has
+         * changed.
+         *
+         * @param rowIndex
+         *            the index of the row whose height has changed
+         */
+        private void updateSpacerRowHeight(int rowIndex) {
+            SpacerImpl spacer = getSpacer(rowIndex);
+            if (spacer != null) {
+                spacer.setPosition(spacer.getLeft(), spacer.getTop());
+                spacer.updateDecoratorGeometry(spacer.getHeight());
+            }
         }
 
         @SuppressWarnings("boxing")
@@ -5274,10 +7664,55 @@ public class Escalator extends Widget implements RequiresResize,
          *            value is downwards, a negative value is upwards.
          */
         public void shiftSpacersByRows(int index, int numberOfRows) {
-            final double pxDiff = numberOfRows * body.getDefaultRowHeight();
-            for (SpacerContainer.SpacerImpl spacer : getSpacersForRowAndAfter(index)) {
+            /*
+             * Inserted rows are of the default height, and removed rows are
+             * still in the row height index when this is called.
+             */
+            final double rowsHeight = body.getRowHeightIndex()
+                    .getHeightBetween(index, index + Math.abs(numberOfRows));
+            final double pxDiff = numberOfRows < 0 ? -rowsHeight : rowsHeight;
+            shiftSpacers(getSpacersForRowAndAfter(index), numberOfRows, pxDiff);
+        }
+
+        /**
+         * Shifts a set of spacers by an amount of rows and pixels.
+         * <p>
+         * The spacers need to be all the spacers from some row index onwards,
+         * as given by e.g. {@link #getSpacersForRowAndAfter(int)}. They are
+         * re-indexed in one go, so that moving a spacer doesn't collide with
+         * a spacer that hasn't been moved yet.
+         * 
+         * @param spacers
+         *            the spacers to shift, in ascending row order
+         * @param numberOfRows
+         *            the number of rows to shift the spacers with
+         * @param pxDiff
+         *            the number of pixels to move the spacers with
+         */
+        @SuppressWarnings("boxing")
+        private void shiftSpacers(Collection<SpacerImpl> spacers,
+                int numberOfRows, double pxDiff) {
+            if (spacers.isEmpty()) {
+                return;
+            }
+
+            final int firstRow = spacers.iterator().next().getRow();
+            assert spacers.size() == rowIndexToSpacer.tailMap(firstRow, true)
+                    .size() : "Only a tail of the spacers can be shifted";
+            assert numberOfRows >= 0
+                    || rowIndexToSpacer.lowerKey(firstRow) == null
+                    || rowIndexToSpacer.lowerKey(firstRow) < firstRow
+                            + numberOfRows : "Shifted spacers would overlap other spacers";
+
+            rowIndexToSpacer.tailMap(firstRow, true).clear();
+            spacerHeights.shiftKeys(firstRow, numberOfRows);
+
+            for (SpacerImpl spacer : spacers) {
                 spacer.setPositionDiff(0, pxDiff);
-                spacer.setRowIndex(spacer.getRow() + numberOfRows);
+                spacer.rowIndex += numberOfRows;
+                spacer.getRootElement().setPropertyInt(
+                        SPACER_LOGICAL_ROW_PROPERTY, spacer.rowIndex);
+                rowIndexToSpacer.put(spacer.rowIndex, spacer);
             }
         }
 
@@ -5287,10 +7722,13 @@ public class Escalator extends Widget implements RequiresResize,
                     visibleRowRange.getStart() - 1,
                     visibleRowRange.getEnd() + 1).values();
             if (!visibleSpacers.isEmpty()) {
-                final double top = tableWrapper.getAbsoluteTop()
-                        + header.getHeightOfSection();
-                final double bottom = tableWrapper.getAbsoluteBottom()
-                        - footer.getHeightOfSection();
+                /*
+                 * The coordinates are relative to the escalator, and are
+                 * calculated from the bookkeeping instead of the DOM, so that
+                 * this can be done in the mutate phase of a frame.
+                 */
+                final double top = header.getHeightOfSection();
+                final double bottom = top + body.getHeightOfSection();
                 for (SpacerImpl spacer : visibleSpacers) {
                     spacer.updateDecoClip(top, bottom, spacerDecoWidth);
                 }
@@ -5298,47 +7736,405 @@ public class Escalator extends Widget implements RequiresResize,
         }
     }
 
+    /**
+     * Keeps track of the positions given to elements, so that they don't need
+     * to be read back from the DOM.
+     * <p>
+     * The positions are stored as plain numbers in properties of the elements
+     * themselves. Setting and getting a position thus neither allocates nor
+     * needs a lookup, which matters as the rows are repositioned on every
+     * scroll frame.
+     * <p>
+     * The positions are in the body's logical coordinates. The vertical
+     * position is written into the DOM relative to the origin of
+     * {@link Escalator#verticalScrollMapping}, so that it stays small.
+     */
     private class ElementPositionBookkeeper {
-        /**
-         * A map containing cached values of an element's current top position.
-         */
-        private final Map<Element, Double> elementTopPositionMap = new HashMap<Element, Double>();
-        private final Map<Element, Double> elementLeftPositionMap = new HashMap<Element, Double>();
+        /** The element property that contains the element's left position. */
+        private static final String LEFT_PROPERTY = "vEscalatorLeft";
+
+        /** The element property that contains the element's top position. */
+        private static final String TOP_PROPERTY = "vEscalatorTop";
 
         public void set(final Element e, final double x, final double y) {
             assert e != null : "Element was null";
-            position.set(e, x, y);
-            elementTopPositionMap.put(e, Double.valueOf(y));
-            elementLeftPositionMap.put(e, Double.valueOf(x));
+            position.set(e, x, verticalScrollMapping.toLocal(y));
+            setPosition(e, LEFT_PROPERTY, x);
+            setPosition(e, TOP_PROPERTY, y);
         }
 
-        public double getTop(final Element e) {
-            Double top = elementTopPositionMap.get(e);
-            if (top == null) {
-                throw new IllegalArgumentException("Element " + e
-                        + " was not found in the position bookkeeping");
+        /**
+         * Writes the positions of the children of an element into the DOM
+         * again, e.g. after the origin has moved. Children without a
+         * position are left alone.
+         * 
+         * @param parent
+         *            the parent of the elements to reposition
+         */
+        public void reapplyChildren(final Element parent) {
+            Element child = parent.getFirstChildElement();
+            while (child != null) {
+                final double x = getPosition(child, LEFT_PROPERTY);
+                final double y = getPosition(child, TOP_PROPERTY);
+                if (!Double.isNaN(x) && !Double.isNaN(y)) {
+                    position.set(child, x, verticalScrollMapping.toLocal(y));
+                }
+                child = child.getNextSiblingElement();
             }
-            return top.doubleValue();
+        }
+
+        public double getTop(final Element e) {
+            return getPositionOrThrow(e, TOP_PROPERTY);
         }
 
         public double getLeft(final Element e) {
-            Double left = elementLeftPositionMap.get(e);
-            if (left == null) {
+            return getPositionOrThrow(e, LEFT_PROPERTY);
+        }
+
+        public void remove(Element e) {
+            removePosition(e, LEFT_PROPERTY);
+            removePosition(e, TOP_PROPERTY);
+        }
+
+        private double getPositionOrThrow(final Element e, String property) {
+            final double value = getPosition(e, property);
+            if (Double.isNaN(value)) {
                 throw new IllegalArgumentException("Element " + e
                         + " was not found in the position bookkeeping");
             }
-            return left.doubleValue();
+            return value;
         }
 
-        public void remove(Element e) {
-            elementTopPositionMap.remove(e);
-            elementLeftPositionMap.remove(e);
-        }
+        private native void setPosition(Element e, String property,
+                double value)
+        /*-{
+            e[property] = value;
+        }-*/;
+
+        private native double getPosition(Element e, String property)
+        /*-{
+            var value = e[property];
+            return (typeof value === "number") ? value : NaN;
+        }-*/;
+
+        private native void removePosition(Element e, String property)
+        /*-{
+            delete e[property];
+        }-*/;
     }
 
     /**
-     * Utility class for parsing and storing SubPart request string attributes
-     * for Grid and Escalator.
+     * Keeps track of the content of row elements, for
+     * {@link Escalator#setCellContentDiffingEnabled(boolean) cell content
+     * diffing}.
+     * <p>
+     * Each row element records the logical row it shows, and for each cell
+     * the content generation it was last updated in. Like the positions in
+     * {@link ElementPositionBookkeeper}, these are stored in properties of
+     * the row elements themselves.
+     */
+    private class CellContentBookkeeper {
+        /** The element property that contains the logical row shown. */
+        private static final String ROW_PROPERTY = "vEscalatorShownRow";
+
+        /** The element property that contains the cells' generations. */
+        private static final String STAMPS_PROPERTY = "vEscalatorCellStamps";
+
+        /**
+         * Gets the part of a range of columns that needs to be updated to
+         * show a logical row.
+         * 
+         * @param tr
+         *            the row element
+         * @param logicalRowIndex
+         *            the logical row the row element should show
+         * @param colRange
+         *            the columns to check
+         * @param generation
+         *            the current content generation
+         * @return the smallest range of columns that covers all out of date
+         *         cells in {@code colRange}, possibly empty
+         */
+        public Range getStaleColumns(final TableRowElement tr,
+                final int logicalRowIndex, final Range colRange,
+                final int generation) {
+            if (getShownRow(tr) != logicalRowIndex) {
+                return colRange;
+            }
+
+            int start = colRange.getStart();
+            int end = colRange.getEnd();
+            while (start < end && getStamp(tr, start) == generation) {
+                start++;
+            }
+            while (end > start && getStamp(tr, end - 1) == generation) {
+                end--;
+            }
+            return Range.between(start, end);
+        }
+
+        /**
+         * Records that cells of a row element have been updated to show a
+         * logical row. If the row element showed another logical row, the
+         * records of its other cells are dropped.
+         * 
+         * @param tr
+         *            the row element
+         * @param logicalRowIndex
+         *            the logical row the row element shows
+         * @param colRange
+         *            the updated columns
+         * @param generation
+         *            the current content generation
+         */
+        public void markUpdated(final TableRowElement tr,
+                final int logicalRowIndex, final Range colRange,
+                final int generation) {
+            if (getShownRow(tr) != logicalRowIndex) {
+                reset(tr, logicalRowIndex);
+            }
+            setStamps(tr, colRange.getStart(), colRange.getEnd(), generation);
+        }
+
+        public native int getShownRow(Element tr)
+        /*-{
+            var row = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::ROW_PROPERTY];
+            return (typeof row === "number") ? row : -1;
+        }-*/;
+
+        public native void setShownRow(Element tr, int logicalRowIndex)
+        /*-{
+            tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::ROW_PROPERTY] = logicalRowIndex;
+        }-*/;
+
+        public native void markStale(Element tr, int column)
+        /*-{
+            var stamps = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+            if (stamps) {
+                delete stamps[column];
+            }
+        }-*/;
+
+        public native void insertColumns(Element tr, int offset,
+                int numberOfColumns)
+        /*-{
+            var stamps = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+            if (stamps && offset < stamps.length) {
+                var args = [offset, 0];
+                for (var i = 0; i < numberOfColumns; i++) {
+                    args.push(undefined);
+                }
+                stamps.splice.apply(stamps, args);
+            }
+        }-*/;
+
+        public native void removeColumns(Element tr, int offset,
+                int numberOfColumns)
+        /*-{
+            var stamps = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+            if (stamps) {
+                stamps.splice(offset, numberOfColumns);
+            }
+        }-*/;
+
+        public native void forget(Element tr)
+        /*-{
+            delete tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::ROW_PROPERTY];
+            delete tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+        }-*/;
+
+        private native void reset(Element tr, int logicalRowIndex)
+        /*-{
+            tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::ROW_PROPERTY] = logicalRowIndex;
+            tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY] = [];
+        }-*/;
+
+        private native int getStamp(Element tr, int column)
+        /*-{
+            var stamps = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+            var stamp = stamps ? stamps[column] : undefined;
+            return (typeof stamp === "number") ? stamp : -1;
+        }-*/;
+
+        private native void setStamps(Element tr, int start, int end,
+                int generation)
+        /*-{
+            var stamps = tr[@com.vaadin.client.widgets.Escalator.CellContentBookkeeper::STAMPS_PROPERTY];
+            for (var i = start; i < end; i++) {
+                stamps[i] = generation;
+            }
+        }-*/;
+    }
+
+    /**
+     * A two-phase frame model for work that touches the DOM.
+     * <p>
+     * All queued work is run on the next animation frame. First, every
+     * command in the measure queue is run. Those commands may read the DOM
+     * (and typically queue mutations based on what they read). After that,
+     * every command in the mutate queue is run. Those commands must only write
+     * to the DOM, or read values that were already measured in this frame.
+     * This way, one frame causes at most one forced layout: the one caused by
+     * the first read in the measure phase.
+     * <p>
+     * Measurements queued during the mutate phase are run on the following
+     * frame, while mutations queued during the measure phase or the mutate
+     * phase are run in the current one.
+     */
+    private class DomPhaseScheduler {
+        private static final int PHASE_IDLE = 0;
+        private static final int PHASE_MEASURE = 1;
+        private static final int PHASE_MUTATE = 2;
+
+        private final List<ScheduledCommand> measureQueue = new ArrayList<ScheduledCommand>();
+        private final List<ScheduledCommand> mutateQueue = new ArrayList<ScheduledCommand>();
+
+        private int phase = PHASE_IDLE;
+
+        /**
+         * A running number for the flushed frames, so that values measured in
+         * one frame can be recognized as stale in the next one.
+         */
+        private int frameNumber = 0;
+
+        private AnimationHandle frameHandle = null;
+
+        private final AnimationCallback frameCallback = new AnimationCallback() {
+            @Override
+            public void execute(double timestamp) {
+                frameHandle = null;
+                flush();
+            }
+        };
+
+        /**
+         * Queues a command that reads from the DOM.
+         *
+         * @param command
+         *            the command to run in the measure phase
+         */
+        public void measure(ScheduledCommand command) {
+            measureQueue.add(command);
+            requestFrameIfNeeded();
+        }
+
+        /**
+         * Queues a command that writes into the DOM.
+         *
+         * @param command
+         *            the command to run in the mutate phase
+         */
+        public void mutate(ScheduledCommand command) {
+            mutateQueue.add(command);
+            requestFrameIfNeeded();
+        }
+
+        private void requestFrameIfNeeded() {
+            if (frameHandle == null && phase == PHASE_IDLE) {
+                frameHandle = AnimationScheduler.get().requestAnimationFrame(
+                        frameCallback, getElement());
+            }
+        }
+
+        /**
+         * Runs the measure phase and then the mutate phase right away.
+         */
+        public void flush() {
+            if (phase != PHASE_IDLE) {
+                // already flushing; the queues are drained by that call.
+                return;
+            }
+
+            Profiler.enter("Escalator.DomPhaseScheduler.flush");
+            frameNumber++;
+            try {
+                phase = PHASE_MEASURE;
+                runQueue(measureQueue);
+                phase = PHASE_MUTATE;
+                runQueue(mutateQueue);
+            } finally {
+                phase = PHASE_IDLE;
+                mutateQueue.clear();
+            }
+
+            if (!measureQueue.isEmpty()) {
+                requestFrameIfNeeded();
+            }
+            Profiler.leave("Escalator.DomPhaseScheduler.flush");
+        }
+
+        private void runQueue(List<ScheduledCommand> queue) {
+            try {
+                /*
+                 * Commands may queue more commands into the same phase, so the
+                 * size of the list is intentionally re-evaluated.
+                 */
+                for (int i = 0; i < queue.size(); i++) {
+                    queue.get(i).execute();
+                }
+            } finally {
+                queue.clear();
+            }
+        }
+
+        public void cancel() {
+            if (frameHandle != null) {
+                frameHandle.cancel();
+                frameHandle = null;
+            }
+            measureQueue.clear();
+            mutateQueue.clear();
+        }
+
+        public boolean isFramePending() {
+            return frameHandle != null;
+        }
+
+        /**
+         * Checks whether the measure phase of a frame is currently running.
+         * Values measured now stay valid for the rest of this frame.
+         */
+        public boolean isMeasuring() {
+            return phase == PHASE_MEASURE;
+        }
+
+        /**
+         * Checks whether the current frame has already passed its measure
+         * phase.
+         */
+        public boolean isMutating() {
+            return phase == PHASE_MUTATE;
+        }
+
+        /**
+         * Checks whether reading layout-dependent values from the DOM is fine
+         * right now. This is meant to be used in assertions, to catch reads
+         * that would cause a second forced layout within one frame.
+         *
+         * @param description
+         *            a description of what is being read, for the assertion
+         *            message
+         * @return <code>true</code>, always
+         * @throws AssertionError
+         *             if called during the mutate phase
+         */
+        public boolean assertDomReadAllowed(String description) {
+            if (phase == PHASE_MUTATE) {
+                throw new AssertionError("Escalator read " + description
+                        + " from the DOM during the mutate phase of a frame. "
+                        + "Measure it in the measure phase instead.");
+            }
+            return true;
+        }
+
+        public int getFrameNumber() {
+            return frameNumber;
+        }
+    }
+
+    /**
+     * Utility class for parsing and storing SubPart request string attributes
+     * for Grid and Escalator.
      * 
      * @since 7.5.0
      */
@@ -5444,6 +8240,124 @@ public class Escalator extends Widget implements RequiresResize,
     private final VerticalScrollbarBundle verticalScrollbar = new VerticalScrollbarBundle();
     private final HorizontalScrollbarBundle horizontalScrollbar = new HorizontalScrollbarBundle();
 
+    /**
+     * Maps the body's logical vertical scroll range onto
+     * {@link #verticalScrollbar}, for when there is more content than a
+     * browser can make scrollable.
+     * <p>
+     * All vertical scroll positions and sizes within Escalator are logical,
+     * and access the scrollbar through {@link #getVerticalScrollPos()},
+     * {@link #setVerticalScrollPos(double)} and friends.
+     */
+    private final VirtualScrollMapping verticalScrollMapping = new VirtualScrollMapping();
+
+    /**
+     * The states the body goes through while it's being scrolled.
+     */
+    private enum ScrollState {
+        /** The body isn't being scrolled. */
+        IDLE,
+
+        /** The body is being scrolled, and rows are rendered as usual. */
+        SCROLLING,
+
+        /**
+         * The body is being scrolled faster than
+         * {@link Escalator#setFastScrollThreshold(double) the threshold}, and
+         * recycled rows are shown as placeholders.
+         */
+        FAST_SCROLLING
+    }
+
+    /**
+     * The default velocity, in pixels per millisecond, above which recycled
+     * rows are shown as placeholders.
+     */
+    private static final double DEFAULT_FAST_SCROLL_THRESHOLD = 3;
+
+    /** @see #setFastScrollThreshold(double) */
+    private double fastScrollThreshold = DEFAULT_FAST_SCROLL_THRESHOLD;
+
+    /**
+     * The time without vertical scrolling, in milliseconds, after which the
+     * row overscan is shrunk back to its base amount.
+     */
+    private static final int OVERSCAN_IDLE_MILLIS = 300;
+
+    /** @see #setRowOverscanPolicy(RowOverscanPolicy) */
+    private RowOverscanPolicy rowOverscanPolicy = new RowOverscanPolicy();
+
+    /** The default number of columns rendered outside of the viewport. */
+    private static final int DEFAULT_COLUMN_OVERSCAN = 2;
+
+    /** @see #setColumnVirtualizationEnabled(boolean) */
+    private boolean columnVirtualizationEnabled = false;
+
+    /** @see #setColumnOverscan(int) */
+    private int columnOverscan = DEFAULT_COLUMN_OVERSCAN;
+
+    /**
+     * The attribute of the root element that scopes the rules in
+     * {@link #styleSheet} to this escalator.
+     */
+    private static final String STYLE_SHEET_SCOPE_ATTR = "data-escalator-id";
+
+    private static int nextStyleSheetId = 0;
+
+    /** The value of {@link #STYLE_SHEET_SCOPE_ATTR} for this escalator. */
+    private final int styleSheetId = nextStyleSheetId++;
+
+    /**
+     * The stylesheet for the styles that apply to many elements at once, such
+     * as the column widths.
+     */
+    private final EscalatorStyleSheet styleSheet = new EscalatorStyleSheet();
+
+    /** @see #setStyleSheetColumnWidthsEnabled(boolean) */
+    private boolean styleSheetColumnWidthsEnabled = false;
+
+    /** The default maximum number of elements of each kind kept for reuse. */
+    private static final int DEFAULT_ELEMENT_POOL_SIZE = 500;
+
+    /**
+     * The number of cells a body repaint must cover to be cut into chunks,
+     * when the frame budget is in use.
+     */
+    private static final int CHUNKED_REPAINT_MIN_CELLS = 500;
+
+    /** @see #setFrameBudget(double) */
+    private double frameBudgetMillis = 0;
+
+    /**
+     * Runs the repaints that are cut into chunks to stay within the frame
+     * budget.
+     */
+    private final FrameBudgetScheduler frameWork = new FrameBudgetScheduler(
+            new ScheduledCommand() {
+                @Override
+                public void execute() {
+                    fireEvent(new RepaintCompletedEvent(body.chunkedRepaint
+                            .takeRepaintedRowCount(), frameWork
+                            .getFrameCount()
+                            - body.chunkedRepaint.getFirstFrame()));
+                }
+            });
+
+    /**
+     * The selector of the rule that positions the frozen cells.
+     * 
+     * @see #applyFrozenCellPosition(double)
+     */
+    private String frozenCellSelector = null;
+
+    /**
+     * The selector of the rule that hides the content of the cells of
+     * placeholder rows. The text is made transparent and child elements are
+     * hidden, while the row and the cells themselves are left for the theme
+     * to style.
+     */
+    private String placeholderCellSelector = null;
+
     private final HeaderRowContainer header = new HeaderRowContainer(headElem);
     private final BodyRowContainerImpl body = new BodyRowContainerImpl(bodyElem);
     private final FooterRowContainer footer = new FooterRowContainer(footElem);
@@ -5475,6 +8389,21 @@ public class Escalator extends Widget implements RequiresResize,
 
     private HeightMode heightMode = HeightMode.CSS;
 
+    /** The number of nested {@link #beginUpdate()} calls. */
+    private int updateDepth = 0;
+
+    /**
+     * Whether an update is being painted, and row visibility change events
+     * are held back until it is done.
+     */
+    private boolean committingUpdate = false;
+
+    /** Whether the visible rows have changed while painting an update. */
+    private boolean rowVisibilityChangedDuringCommit = false;
+
+    private int committedUpdateCount = 0;
+    private int committedMutationCount = 0;
+
     private boolean layoutIsScheduled = false;
     private ScheduledCommand layoutCommand = new ScheduledCommand() {
         @Override
@@ -5486,6 +8415,23 @@ public class Escalator extends Widget implements RequiresResize,
 
     private final ElementPositionBookkeeper positions = new ElementPositionBookkeeper();
 
+    private final CellContentBookkeeper cellContents = new CellContentBookkeeper();
+
+    private final DomPhaseScheduler domPhases = new DomPhaseScheduler();
+
+    /**
+     * The time after which deferred work is run, even if the browser hasn't
+     * been idle.
+     */
+    private static final int IDLE_WORK_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Runs the deferred work that doesn't need to be done in any particular
+     * frame, such as sorting the body rows in the DOM.
+     */
+    private final IdleWorkScheduler idleWork = new IdleWorkScheduler(
+            IDLE_WORK_TIMEOUT_MILLIS);
+
     /**
      * Creates a new Escalator widget instance.
      */
@@ -5498,6 +8444,7 @@ public class Escalator extends Widget implements RequiresResize,
 
         final Element root = DOM.createDiv();
         setElement(root);
+        root.setAttribute(STYLE_SHEET_SCOPE_ATTR, String.valueOf(styleSheetId));
 
         setupScrollbars(root);
 
@@ -5544,8 +8491,7 @@ public class Escalator extends Widget implements RequiresResize,
         ScrollHandler scrollHandler = new ScrollHandler() {
             @Override
             public void onScroll(ScrollEvent event) {
-                scroller.onScroll();
-                fireEvent(new ScrollEvent());
+                scroller.scheduleScrollFrame();
             }
         };
 
@@ -5630,6 +8576,8 @@ public class Escalator extends Widget implements RequiresResize,
     protected void onLoad() {
         super.onLoad();
 
+        styleSheet.attach();
+
         header.autodetectRowHeightLater();
         body.autodetectRowHeightLater();
         footer.autodetectRowHeightLater();
@@ -5679,6 +8627,9 @@ public class Escalator extends Widget implements RequiresResize,
             }
         }
         if (columnsChanged) {
+            if (styleSheetColumnWidthsEnabled) {
+                columnConfiguration.rebuildColumnWidthRules();
+            }
             header.reapplyColumnWidths();
             body.reapplyColumnWidths();
             footer.reapplyColumnWidths();
@@ -5700,6 +8651,11 @@ public class Escalator extends Widget implements RequiresResize,
         scroller.detachScrollListener(horizontalScrollbar.getElement());
         scroller.detachMousewheelListener(getElement());
         scroller.detachTouchListeners(getElement());
+        scroller.cancelScrollFrame();
+        scroller.cancelRowOverscan();
+        domPhases.cancel();
+        idleWork.cancelAll();
+        body.chunkedRepaint.cancel();
 
         /*
          * We can call paintRemoveRows here, because static ranges are simple to
@@ -5712,17 +8668,28 @@ public class Escalator extends Widget implements RequiresResize,
          * We can't call body.paintRemoveRows since it relies on rowCount to be
          * updated correctly. Since it isn't, we'll simply and brutally rip out
          * the DOM elements (in an elegant way, of course).
+         * 
+         * The rows are taken from visualRowOrder rather than from the tbody,
+         * which also holds the spacer rows. Those stay with the spacer
+         * container, and are only released when their spacers are removed.
          */
         int rowsToRemove = body.getDomRowCount();
         for (int i = 0; i < rowsToRemove; i++) {
             int index = rowsToRemove - i - 1;
-            TableRowElement tr = bodyElem.getRows().getItem(index);
+            TableRowElement tr = body.visualRowOrder.get(index);
             body.paintRemoveRow(tr, index);
             positions.remove(tr);
         }
         body.visualRowOrder.clear();
         body.setTopRowLogicalIndex(0);
 
+        // The placeholder rows are gone, so there is nothing to render
+        body.placeholderRowsPainted = false;
+        body.resetRenderedPlaceholders();
+        body.setScrollState(ScrollState.IDLE);
+
+        styleSheet.detach();
+
         super.onUnload();
     }
 
@@ -5736,204 +8703,864 @@ public class Escalator extends Widget implements RequiresResize,
             return;
         }
 
-        final Style docStyle = Document.get().getBody().getStyle();
-        if (hasProperty(docStyle, "transform")) {
-            if (hasProperty(docStyle, "transformStyle")) {
-                position = new Translate3DPosition();
-            } else {
-                position = new TranslatePosition();
-            }
-        } else if (hasProperty(docStyle, "webkitTransform")) {
-            position = new WebkitTranslate3DPosition();
-        } else {
-            position = new AbsolutePosition();
+        final Style docStyle = Document.get().getBody().getStyle();
+        if (hasProperty(docStyle, "transform")) {
+            if (hasProperty(docStyle, "transformStyle")) {
+                position = new Translate3DPosition();
+            } else {
+                position = new TranslatePosition();
+            }
+        } else if (hasProperty(docStyle, "webkitTransform")) {
+            position = new WebkitTranslate3DPosition();
+        } else {
+            position = new AbsolutePosition();
+        }
+    }
+
+    private Logger getLogger() {
+        return Logger.getLogger(getClass().getName());
+    }
+
+    private static native boolean hasProperty(Style style, String name)
+    /*-{
+        return style[name] !== undefined;
+    }-*/;
+
+    /**
+     * Check whether there are both columns and any row data (for either
+     * headers, body or footer).
+     * 
+     * @return <code>true</code> iff header, body or footer has rows && there
+     *         are columns
+     */
+    private boolean hasColumnAndRowData() {
+        return (header.getRowCount() > 0 || body.getRowCount() > 0 || footer
+                .getRowCount() > 0) && columnConfiguration.getColumnCount() > 0;
+    }
+
+    /**
+     * Check whether there are any cells in the DOM.
+     * 
+     * @return <code>true</code> iff header, body or footer has any child
+     *         elements
+     */
+    private boolean hasSomethingInDom() {
+        return headElem.hasChildNodes() || bodyElem.hasChildNodes()
+                || footElem.hasChildNodes();
+    }
+
+    /**
+     * Returns the row container for the header in this Escalator.
+     * 
+     * @return the header. Never <code>null</code>
+     */
+    public RowContainer getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the row container for the body in this Escalator.
+     * 
+     * @return the body. Never <code>null</code>
+     */
+    public BodyRowContainer getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the row container for the footer in this Escalator.
+     * 
+     * @return the footer. Never <code>null</code>
+     */
+    public RowContainer getFooter() {
+        return footer;
+    }
+
+    /**
+     * Returns the configuration object for the columns in this Escalator.
+     * 
+     * @return the configuration object for the columns in this Escalator. Never
+     *         <code>null</code>
+     */
+    public ColumnConfiguration getColumnConfiguration() {
+        return columnConfiguration;
+    }
+
+    @Override
+    public void setWidth(final String width) {
+        if (width != null && !width.isEmpty()) {
+            super.setWidth(width);
+        } else {
+            super.setWidth(DEFAULT_WIDTH);
+        }
+
+        recalculateElementSizes();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If Escalator is currently not in {@link HeightMode#CSS}, the given value
+     * is remembered, and applied once the mode is applied.
+     * 
+     * @see #setHeightMode(HeightMode)
+     */
+    @Override
+    public void setHeight(String height) {
+        /*
+         * TODO remove method once RequiresResize and the Vaadin layoutmanager
+         * listening mechanisms are implemented
+         */
+
+        if (height != null && !height.isEmpty()) {
+            heightByCss = height;
+        } else {
+            heightByCss = DEFAULT_HEIGHT;
+        }
+
+        if (getHeightMode() == HeightMode.CSS) {
+            setHeightInternal(height);
+        }
+    }
+
+    private void setHeightInternal(final String height) {
+        final int escalatorRowsBefore = body.visualRowOrder.size();
+
+        if (height != null && !height.isEmpty()) {
+            super.setHeight(height);
+        } else {
+            super.setHeight(DEFAULT_HEIGHT);
+        }
+
+        recalculateElementSizes();
+
+        if (escalatorRowsBefore != body.visualRowOrder.size()) {
+            fireRowVisibilityChangeEvent();
+        }
+    }
+
+    /**
+     * Returns the vertical scroll offset. Note that this is not necessarily the
+     * same as the {@code scrollTop} attribute in the DOM.
+     * 
+     * @return the logical vertical scroll offset
+     */
+    public double getScrollTop() {
+        return getVerticalScrollPos();
+    }
+
+    /**
+     * Sets the vertical scroll offset. Note that this will not necessarily
+     * become the same as the {@code scrollTop} attribute in the DOM.
+     * 
+     * @param scrollTop
+     *            the number of pixels to scroll vertically
+     */
+    public void setScrollTop(final double scrollTop) {
+        setVerticalScrollPos(scrollTop);
+    }
+
+    /**
+     * Returns the logical horizontal scroll offset. Note that this is not
+     * necessarily the same as the {@code scrollLeft} attribute in the DOM.
+     * 
+     * @return the logical horizontal scroll offset
+     */
+    public double getScrollLeft() {
+        return horizontalScrollbar.getScrollPos();
+    }
+
+    /**
+     * Sets the logical horizontal scroll offset. Note that will not necessarily
+     * become the same as the {@code scrollLeft} attribute in the DOM.
+     * 
+     * @param scrollLeft
+     *            the number of pixels to scroll horizontally
+     */
+    public void setScrollLeft(final double scrollLeft) {
+        horizontalScrollbar.setScrollPos(scrollLeft);
+    }
+
+    /**
+     * Returns the scroll width for the escalator. Note that this is not
+     * necessary the same as {@code Element.scrollWidth} in the DOM.
+     * 
+     * @since 7.5.0
+     * @return the scroll width in pixels
+     */
+    public double getScrollWidth() {
+        return horizontalScrollbar.getScrollSize();
+    }
+
+    /**
+     * Returns the scroll height for the escalator. Note that this is not
+     * necessary the same as {@code Element.scrollHeight} in the DOM.
+     * 
+     * @since 7.5.0
+     * @return the scroll height in pixels
+     */
+    public double getScrollHeight() {
+        return getVerticalScrollSize();
+    }
+
+    /**
+     * Gets the logical vertical scroll position.
+     *
+     * @return the logical vertical scroll position
+     * @see #verticalScrollMapping
+     */
+    private double getVerticalScrollPos() {
+        return verticalScrollMapping.toLogical(verticalScrollbar
+                .getScrollPos());
+    }
+
+    /**
+     * Sets the logical vertical scroll position, and moves the physical
+     * scrollbar accordingly.
+     *
+     * @param px
+     *            the new logical vertical scroll position
+     * @see #verticalScrollMapping
+     */
+    private void setVerticalScrollPos(double px) {
+        if (!verticalScrollMapping.isScaled()) {
+            verticalScrollbar.setScrollPos(px);
+        } else if (!verticalScrollbar.isLocked()) {
+            verticalScrollbar.setScrollPos(verticalScrollMapping
+                    .setLogicalPosition(px));
+
+            /*
+             * Moving less than a physical pixel doesn't move the scrollbar,
+             * and thus fires no scroll event.
+             */
+            scroller.scheduleScrollFrame();
+        }
+    }
+
+    private void setVerticalScrollPosByDelta(double delta) {
+        if (delta != 0) {
+            setVerticalScrollPos(getVerticalScrollPos() + delta);
+        }
+    }
+
+    /**
+     * Sets the logical vertical scroll size. The physical scrollbar is capped
+     * to {@link VirtualScrollMapping#getMaxPhysicalSize()}.
+     *
+     * @param px
+     *            the height of the scrolled content
+     * @see #verticalScrollMapping
+     */
+    private void setVerticalScrollSize(double px) {
+        verticalScrollMapping.setSize(px, verticalScrollbar.getOffsetSize());
+        verticalScrollbar.setScrollSize(verticalScrollMapping
+                .getPhysicalSize());
+    }
+
+    private double getVerticalScrollSize() {
+        if (verticalScrollMapping.isScaled()) {
+            return verticalScrollMapping.getLogicalSize();
+        } else {
+            return verticalScrollbar.getScrollSize();
+        }
+    }
+
+    private void setVerticalScrollOffsetSize(double px) {
+        verticalScrollbar.setOffsetSize(px);
+        verticalScrollMapping.setSize(verticalScrollMapping.getLogicalSize(),
+                px);
+    }
+
+    /**
+     * Sets the largest size the vertical scrollbar may be given. If the body
+     * is taller than this, the scrollbar's range is scaled to cover the whole
+     * body. Scrolling with the mouse wheel, touch or programmatically (such
+     * as {@link #scrollToRow(int, ScrollDestination, int)}) still moves the
+     * body pixel-exactly, while dragging the scroll handle moves it
+     * proportionally.
+     * <p>
+     * The default is {@value VirtualScrollMapping#DEFAULT_MAX_PHYSICAL_SIZE}
+     * pixels, which is below the maximum element height of most browsers.
+     *
+     * @param px
+     *            the maximum height of the vertical scrollbar's content, in
+     *            pixels
+     * @throws IllegalArgumentException
+     *             if {@code px} is not positive
+     */
+    public void setMaxPhysicalScrollHeight(double px)
+            throws IllegalArgumentException {
+        verticalScrollMapping.setMaxPhysicalSize(px);
+        scroller.recalculateScrollbarsForVirtualViewport();
+    }
+
+    /**
+     * Sets the policy that decides how many body rows are rendered above and
+     * below the viewport.
+     * <p>
+     * Rendering rows outside of the viewport prevents blank space from
+     * showing when the body is scrolled faster than the rows can be updated.
+     * The number of rows grows with the scroll velocity, and shrinks back
+     * once the scrolling stops.
+     * 
+     * @param policy
+     *            the row overscan policy
+     * @throws IllegalArgumentException
+     *             if {@code policy} is <code>null</code>
+     */
+    public void setRowOverscanPolicy(RowOverscanPolicy policy)
+            throws IllegalArgumentException {
+        if (policy == null) {
+            throw new IllegalArgumentException(
+                    "Row overscan policy may not be null");
+        }
+        rowOverscanPolicy = policy;
+        scroller.resetRowOverscan();
+    }
+
+    /**
+     * Gets the policy that decides how many body rows are rendered above and
+     * below the viewport.
+     * 
+     * @return the row overscan policy
+     * @see #setRowOverscanPolicy(RowOverscanPolicy)
+     */
+    public RowOverscanPolicy getRowOverscanPolicy() {
+        return rowOverscanPolicy;
+    }
+
+    /**
+     * Sets the vertical scroll velocity above which the body rows that are
+     * recycled are shown as placeholders, instead of having their content
+     * rendered.
+     * <p>
+     * During a fast scroll, most rows are on the screen only for a frame or
+     * two, so updating their content is mostly wasted effort. Placeholder rows
+     * are positioned and get the <code>placeholder</code> class name, which
+     * hides the content of their cells; a theme can style the rows as
+     * skeletons. The content of the placeholder rows is rendered when the
+     * browser is idle, or at the latest when the scroll velocity drops below
+     * the threshold again or the scrolling stops, and a
+     * {@link RowsRenderedEvent} is fired.
+     * <p>
+     * The default is {@value #DEFAULT_FAST_SCROLL_THRESHOLD} pixels per
+     * millisecond.
+     * 
+     * @param pixelsPerMillisecond
+     *            the velocity threshold, or
+     *            {@link Double#POSITIVE_INFINITY} to always render the rows
+     * @throws IllegalArgumentException
+     *             if {@code pixelsPerMillisecond} is not positive
+     */
+    public void setFastScrollThreshold(double pixelsPerMillisecond)
+            throws IllegalArgumentException {
+        if (!(pixelsPerMillisecond > 0)) {
+            throw new IllegalArgumentException(
+                    "Fast scroll threshold must be positive. "
+                            + pixelsPerMillisecond + " was given.");
+        }
+        fastScrollThreshold = pixelsPerMillisecond;
+    }
+
+    /**
+     * Gets the vertical scroll velocity above which recycled body rows are
+     * shown as placeholders.
+     * 
+     * @return the velocity threshold, in pixels per millisecond
+     * @see #setFastScrollThreshold(double)
+     */
+    public double getFastScrollThreshold() {
+        return fastScrollThreshold;
+    }
+
+    /**
+     * Sets whether the body cells have content only for the columns that
+     * are in or near the viewport.
+     * <p>
+     * When enabled, the body cells of the frozen columns and of the unfrozen
+     * columns that are visible, plus {@link #setColumnOverscan(int) a few
+     * columns} on both sides, are attached and updated by the
+     * {@link EscalatorUpdater}. The cells of the other columns are detached,
+     * emptied and hidden, and get their content back as they are scrolled
+     * into view. This makes rendering and scrolling through rows
+     * considerably cheaper when there are many more columns than fit in the
+     * viewport.
+     * <p>
+     * An empty cell element is still kept for each column, as the cells are
+     * found by their position in the row. Anything measuring the body cells
+     * (such as automatic column widths) only sees the columns with content.
+     * The header and the footer always have content in all their cells, as
+     * they have just a few rows, and their colspans can reach across the
+     * edges of the viewport.
+     * <p>
+     * Column virtualization is disabled by default.
+     * 
+     * @param enabled
+     *            <code>true</code> to update only the columns in or near the
+     *            viewport, <code>false</code> to update all columns
+     */
+    public void setColumnVirtualizationEnabled(boolean enabled) {
+        if (columnVirtualizationEnabled != enabled) {
+            columnVirtualizationEnabled = enabled;
+            body.updateColumnWindow();
+        }
+    }
+
+    /**
+     * Checks whether column virtualization is enabled.
+     * 
+     * @return <code>true</code> iff column virtualization is enabled
+     * @see #setColumnVirtualizationEnabled(boolean)
+     */
+    public boolean isColumnVirtualizationEnabled() {
+        return columnVirtualizationEnabled;
+    }
+
+    /**
+     * Sets the number of columns on both sides of the viewport that are kept
+     * up to date when {@link #setColumnVirtualizationEnabled(boolean) column
+     * virtualization} is enabled. A larger overscan makes it less likely that
+     * cells are updated during horizontal scrolling, at the cost of updating
+     * more cells when scrolling vertically.
+     * <p>
+     * The default is {@value #DEFAULT_COLUMN_OVERSCAN} columns.
+     * 
+     * @param columns
+     *            the number of columns to update outside of the viewport
+     * @throws IllegalArgumentException
+     *             if {@code columns} is negative
+     */
+    public void setColumnOverscan(int columns) throws IllegalArgumentException {
+        if (columns < 0) {
+            throw new IllegalArgumentException(
+                    "Column overscan may not be negative. " + columns
+                            + " was given.");
+        }
+        columnOverscan = columns;
+        body.updateColumnWindow();
+    }
+
+    /**
+     * Gets the number of columns on both sides of the viewport that are kept
+     * up to date when column virtualization is enabled.
+     * 
+     * @return the column overscan
+     * @see #setColumnOverscan(int)
+     */
+    public int getColumnOverscan() {
+        return columnOverscan;
+    }
+
+    /**
+     * Sets whether the column widths are applied through a stylesheet instead
+     * of the inline styles of the cells.
+     * <p>
+     * By default, every cell is given the width of its column, so resizing a
+     * column writes the width of every cell in the header, the body and the
+     * footer. With this enabled, the escalator owns a stylesheet with one
+     * width rule per column, plus one per colspan in use, and resizing a
+     * column only rewrites the rules covering it. This keeps resizing smooth
+     * in grids with many columns.
+     * <p>
+     * The rules are scoped to this escalator's root element, which is given
+     * a {@value #STYLE_SHEET_SCOPE_ATTR} attribute for this purpose. Inline
+     * widths set on cells from the outside override the rules.
+     * 
+     * @param enabled
+     *            <code>true</code> to apply the column widths through a
+     *            stylesheet, <code>false</code> to write them into the cells
+     */
+    public void setStyleSheetColumnWidthsEnabled(boolean enabled) {
+        if (styleSheetColumnWidthsEnabled == enabled) {
+            return;
+        }
+
+        styleSheetColumnWidthsEnabled = enabled;
+        columnConfiguration.rebuildColumnWidthRules();
+        if (!enabled) {
+            header.reapplyColumnWidths();
+            body.reapplyColumnWidths();
+            footer.reapplyColumnWidths();
+        }
+    }
+
+    /**
+     * Checks whether the column widths are applied through a stylesheet.
+     * 
+     * @return <code>true</code> iff the column widths are in a stylesheet
+     * @see #setStyleSheetColumnWidthsEnabled(boolean)
+     */
+    public boolean isStyleSheetColumnWidthsEnabled() {
+        return styleSheetColumnWidthsEnabled;
+    }
+
+    /**
+     * Sets the maximum number of removed elements of each kind that are kept
+     * for reuse.
+     * <p>
+     * The row and cell elements removed from the header, the body and the
+     * footer, and the elements of removed spacers, are cleaned and kept in
+     * pools, from which new rows, cells and spacers are built. This avoids
+     * creating a lot of garbage when e.g. the escalator is resized, details
+     * are toggled, or data is reloaded. Each section has a pool for rows and
+     * one for cells, and the spacers have a pool for decorators.
+     * <p>
+     * The default is {@value #DEFAULT_ELEMENT_POOL_SIZE} elements per pool.
+     * 
+     * @param maxSize
+     *            the maximum number of elements in each pool, or 0 to not
+     *            reuse elements at all
+     * @throws IllegalArgumentException
+     *             if {@code maxSize} is negative
+     */
+    public void setElementPoolSize(int maxSize) throws IllegalArgumentException {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Element pool size may not be negative. " + maxSize
+                            + " was given.");
         }
+        header.setElementPoolSize(maxSize);
+        body.setElementPoolSize(maxSize);
+        footer.setElementPoolSize(maxSize);
+        body.spacerContainer.decoPool.setMaxSize(maxSize);
     }
 
-    private Logger getLogger() {
-        return Logger.getLogger(getClass().getName());
+    /**
+     * Gets the maximum number of removed elements of each kind that are kept
+     * for reuse.
+     * 
+     * @return the maximum number of elements in each pool
+     * @see #setElementPoolSize(int)
+     */
+    public int getElementPoolSize() {
+        return body.getElementPoolSize();
     }
 
-    private static native boolean hasProperty(Style style, String name)
-    /*-{
-        return style[name] !== undefined;
-    }-*/;
+    /**
+     * Gets the number of times a row, cell or spacer element has been reused
+     * from the element pools, instead of being created.
+     * 
+     * @return the number of element pool hits
+     * @see #setElementPoolSize(int)
+     */
+    public int getElementPoolHitCount() {
+        return header.getElementPoolHitCount()
+                + body.getElementPoolHitCount()
+                + footer.getElementPoolHitCount()
+                + body.spacerContainer.decoPool.getHitCount();
+    }
 
     /**
-     * Check whether there are both columns and any row data (for either
-     * headers, body or footer).
+     * Gets the number of times a row, cell or spacer element has been created
+     * because the element pools had no element to reuse.
      * 
-     * @return <code>true</code> iff header, body or footer has rows && there
-     *         are columns
+     * @return the number of element pool misses
+     * @see #setElementPoolSize(int)
      */
-    private boolean hasColumnAndRowData() {
-        return (header.getRowCount() > 0 || body.getRowCount() > 0 || footer
-                .getRowCount() > 0) && columnConfiguration.getColumnCount() > 0;
+    public int getElementPoolMissCount() {
+        return header.getElementPoolMissCount()
+                + body.getElementPoolMissCount()
+                + footer.getElementPoolMissCount()
+                + body.spacerContainer.decoPool.getMissCount();
     }
 
     /**
-     * Check whether there are any cells in the DOM.
+     * Sets whether body rows are refreshed only where their content may have
+     * changed.
+     * <p>
+     * When enabled, each body row element remembers which logical row it
+     * shows, and which of its cells are up to date. Refreshing a row, be it
+     * through {@link RowContainer#refreshRows(int, int) refreshRows} or
+     * because the row element is scrolled back to the row it already shows,
+     * then only updates the cells that are out of date. The updater isn't
+     * called at all for a row whose cells are all up to date.
+     * <p>
+     * A cell is out of date if its row element shows another logical row, or
+     * if it has been marked dirty. This means that when the data of a row
+     * changes, the changed cells must be marked with
+     * {@link #markCellDirty(int, int)} or {@link #markRowDirty(int)} before
+     * the rows are refreshed. Changes that affect all rows, such as a change
+     * in how the rows are styled, are announced with
+     * {@link #markAllCellsDirty()}. Inserted and removed rows, and inserted
+     * and removed columns, are taken into account automatically.
+     * <p>
+     * The header and the footer are always refreshed in full. Diffing is
+     * disabled by default.
      * 
-     * @return <code>true</code> iff header, body or footer has any child
-     *         elements
+     * @param enabled
+     *            <code>true</code> to skip updating body cells that are up to
+     *            date
      */
-    private boolean hasSomethingInDom() {
-        return headElem.hasChildNodes() || bodyElem.hasChildNodes()
-                || footElem.hasChildNodes();
+    public void setCellContentDiffingEnabled(boolean enabled) {
+        body.setCellContentDiffingEnabled(enabled);
     }
 
     /**
-     * Returns the row container for the header in this Escalator.
+     * Checks whether body rows are refreshed only where their content may
+     * have changed.
      * 
-     * @return the header. Never <code>null</code>
+     * @return <code>true</code> iff cell content diffing is enabled
+     * @see #setCellContentDiffingEnabled(boolean)
      */
-    public RowContainer getHeader() {
-        return header;
+    public boolean isCellContentDiffingEnabled() {
+        return body.isCellContentDiffingEnabled();
     }
 
     /**
-     * Returns the row container for the body in this Escalator.
+     * Marks a body cell to be updated on the next refresh of its row. Does
+     * nothing unless {@link #setCellContentDiffingEnabled(boolean) cell
+     * content diffing} is enabled.
      * 
-     * @return the body. Never <code>null</code>
+     * @param logicalRowIndex
+     *            the logical index of the row
+     * @param columnIndex
+     *            the index of the column
      */
-    public BodyRowContainer getBody() {
-        return body;
+    public void markCellDirty(int logicalRowIndex, int columnIndex) {
+        body.markCellDirty(logicalRowIndex, columnIndex);
     }
 
     /**
-     * Returns the row container for the footer in this Escalator.
+     * Marks all cells of a body row to be updated on the next refresh of the
+     * row. Does nothing unless {@link #setCellContentDiffingEnabled(boolean)
+     * cell content diffing} is enabled.
      * 
-     * @return the footer. Never <code>null</code>
+     * @param logicalRowIndex
+     *            the logical index of the row
      */
-    public RowContainer getFooter() {
-        return footer;
+    public void markRowDirty(int logicalRowIndex) {
+        body.markRowDirty(logicalRowIndex);
     }
 
     /**
-     * Returns the configuration object for the columns in this Escalator.
+     * Marks all body cells to be updated on their next refresh.
      * 
-     * @return the configuration object for the columns in this Escalator. Never
-     *         <code>null</code>
+     * @see #setCellContentDiffingEnabled(boolean)
      */
-    public ColumnConfiguration getColumnConfiguration() {
-        return columnConfiguration;
+    public void markAllCellsDirty() {
+        body.markAllCellsDirty();
     }
 
-    @Override
-    public void setWidth(final String width) {
-        if (width != null && !width.isEmpty()) {
-            super.setWidth(width);
-        } else {
-            super.setWidth(DEFAULT_WIDTH);
+    /**
+     * Starts an update. Until the matching {@link #commit()}, body row
+     * insertions, removals and refreshes, and column width changes, are
+     * recorded instead of painted. The commit paints them all at once.
+     * <p>
+     * Recorded row mutations are merged: adjacent insertions become one,
+     * adjacent removals become one, removing rows inserted during the same
+     * update cancels out, and each row is refreshed at most once. Column
+     * width changes are merged into one width update, followed by a single
+     * recalculation of the element sizes. A {@link RowVisibilityChangeEvent}
+     * is fired at most once per commit.
+     * <p>
+     * During an update, the body's {@link RowContainer#getRowCount()} keeps
+     * returning the row count from before the update, while new mutations
+     * are validated against the row count after the recorded ones. Column
+     * widths are updated right away. The header and the footer are not
+     * affected.
+     * <p>
+     * Updates may be nested, in which case only the outermost commit paints
+     * anything.
+     * 
+     * @see #commit()
+     */
+    public void beginUpdate() {
+        if (updateDepth++ == 0) {
+            body.beginMutationBatch();
+            columnConfiguration.beginWidthBatch();
         }
-
-        recalculateElementSizes();
     }
 
     /**
-     * {@inheritDoc}
-     * <p>
-     * If Escalator is currently not in {@link HeightMode#CSS}, the given value
-     * is remembered, and applied once the mode is applied.
+     * Ends an update started with {@link #beginUpdate()}, and paints the
+     * mutations recorded during it, unless this is a nested update.
      * 
-     * @see #setHeightMode(HeightMode)
+     * @throws IllegalStateException
+     *             if there is no update to commit
      */
-    @Override
-    public void setHeight(String height) {
-        /*
-         * TODO remove method once RequiresResize and the Vaadin layoutmanager
-         * listening mechanisms are implemented
-         */
+    public void commit() throws IllegalStateException {
+        if (updateDepth == 0) {
+            throw new IllegalStateException(
+                    "commit() was called without a matching beginUpdate()");
+        }
+        if (--updateDepth > 0) {
+            return;
+        }
 
-        if (height != null && !height.isEmpty()) {
-            heightByCss = height;
-        } else {
-            heightByCss = DEFAULT_HEIGHT;
+        committingUpdate = true;
+        try {
+            committedMutationCount += body.commitMutationBatch();
+            committedMutationCount += columnConfiguration.commitWidthBatch();
+        } finally {
+            committingUpdate = false;
+            committedUpdateCount++;
         }
 
-        if (getHeightMode() == HeightMode.CSS) {
-            setHeightInternal(height);
+        if (rowVisibilityChangedDuringCommit) {
+            rowVisibilityChangedDuringCommit = false;
+            fireRowVisibilityChangeEvent();
         }
     }
 
-    private void setHeightInternal(final String height) {
-        final int escalatorRowsBefore = body.visualRowOrder.size();
-
-        if (height != null && !height.isEmpty()) {
-            super.setHeight(height);
-        } else {
-            super.setHeight(DEFAULT_HEIGHT);
-        }
+    /**
+     * Checks whether an update has been started and not yet committed.
+     * 
+     * @return <code>true</code> iff mutations are currently being recorded
+     * @see #beginUpdate()
+     */
+    public boolean isUpdating() {
+        return updateDepth > 0;
+    }
 
-        recalculateElementSizes();
+    /**
+     * Gets the number of updates that have been committed.
+     * 
+     * @return the number of committed updates
+     * @see #beginUpdate()
+     */
+    public int getCommittedUpdateCount() {
+        return committedUpdateCount;
+    }
 
-        if (escalatorRowsBefore != body.visualRowOrder.size()) {
-            fireRowVisibilityChangeEvent();
-        }
+    /**
+     * Gets the number of row insertions, removals and refreshes, and column
+     * width changes, that have been recorded in committed updates. Compared
+     * to {@link #getCommittedUpdateCount()}, this tells how many separate
+     * paints the updates have saved.
+     * 
+     * @return the number of recorded mutations
+     * @see #beginUpdate()
+     */
+    public int getCommittedMutationCount() {
+        return committedMutationCount;
     }
 
     /**
-     * Returns the vertical scroll offset. Note that this is not necessarily the
-     * same as the {@code scrollTop} attribute in the DOM.
+     * Sets the time each animation frame may spend on repainting the body.
+     * <p>
+     * With a budget, large body repaints are cut into chunks, and one chunk
+     * is painted per frame, so that the main thread isn't blocked for long.
+     * This applies to body refreshes through
+     * {@link RowContainer#refreshRows(int, int) refreshRows} and to
+     * reapplying the column widths to the body cells, when they cover at
+     * least {@value #CHUNKED_REPAINT_MIN_CELLS} cells. The rows closest to
+     * the middle of the viewport are painted first. Repaints requested while
+     * an earlier one is still in progress are merged into it, and rows that
+     * are scrolled out of view or refreshed by other means are dropped from
+     * it.
+     * <p>
+     * A {@link RepaintCompletedEvent} is fired once a repaint has been
+     * painted in full. Until then, {@link #isWorkPending()} returns
+     * <code>true</code>.
+     * <p>
+     * The budget is 0 by default, which paints everything right away.
      * 
-     * @return the logical vertical scroll offset
+     * @param millis
+     *            the time per frame, in milliseconds, or 0 to paint
+     *            everything right away
+     * @throws IllegalArgumentException
+     *             if {@code millis} is negative
      */
-    public double getScrollTop() {
-        return verticalScrollbar.getScrollPos();
+    public void setFrameBudget(double millis) throws IllegalArgumentException {
+        if (millis < 0) {
+            throw new IllegalArgumentException(
+                    "Frame budget may not be negative. " + millis
+                            + " was given.");
+        }
+
+        frameBudgetMillis = millis;
+        if (millis > 0) {
+            frameWork.setBudgetMillis(millis);
+        } else {
+            frameWork.flush();
+        }
     }
 
     /**
-     * Sets the vertical scroll offset. Note that this will not necessarily
-     * become the same as the {@code scrollTop} attribute in the DOM.
+     * Gets the time each animation frame may spend on repainting the body.
      * 
-     * @param scrollTop
-     *            the number of pixels to scroll vertically
+     * @return the time per frame, in milliseconds, or 0 if everything is
+     *         painted right away
+     * @see #setFrameBudget(double)
      */
-    public void setScrollTop(final double scrollTop) {
-        verticalScrollbar.setScrollPos(scrollTop);
+    public double getFrameBudget() {
+        return frameBudgetMillis;
     }
 
     /**
-     * Returns the logical horizontal scroll offset. Note that this is not
-     * necessarily the same as the {@code scrollLeft} attribute in the DOM.
+     * Adds a handler that is notified when a body repaint that was cut into
+     * chunks has been painted in full.
      * 
-     * @return the logical horizontal scroll offset
+     * @param handler
+     *            the handler to add
+     * @return a handler registration for the added handler
+     * @see #setFrameBudget(double)
      */
-    public double getScrollLeft() {
-        return horizontalScrollbar.getScrollPos();
+    public HandlerRegistration addRepaintCompletedHandler(
+            RepaintCompletedHandler handler) {
+        return addHandler(handler, RepaintCompletedEvent.TYPE);
     }
 
     /**
-     * Sets the logical horizontal scroll offset. Note that will not necessarily
-     * become the same as the {@code scrollLeft} attribute in the DOM.
+     * Gets the selector for the non-spacer rows of this escalator, to be
+     * used in the rules of {@link #styleSheet}. Child combinators are used
+     * throughout, so that the rules don't reach into escalators nested in
+     * spacers.
      * 
-     * @param scrollLeft
-     *            the number of pixels to scroll horizontally
+     * @return a selector for all rows of this escalator
      */
-    public void setScrollLeft(final double scrollLeft) {
-        horizontalScrollbar.setScrollPos(scrollLeft);
+    private String getStyleSheetRowSelector() {
+        return getStyleSheetRowSelector("*");
     }
 
     /**
-     * Returns the scroll width for the escalator. Note that this is not
-     * necessary the same as {@code Element.scrollWidth} in the DOM.
+     * Moves the frozen cells of all sections to the given horizontal scroll
+     * position.
+     * <p>
+     * The frozen cells are positioned by a single stylesheet rule, matching
+     * the <code>frozen</code> class name, instead of each cell having its
+     * position inline. The cost of a horizontal scroll doesn't thus depend on
+     * the number of rows or frozen columns, and newly rendered or frozen
+     * cells are positioned as soon as they get the class name.
      * 
-     * @since 7.5.0
-     * @return the scroll width in pixels
+     * @param scrollLeft
+     *            the horizontal scroll position
      */
-    public double getScrollWidth() {
-        return horizontalScrollbar.getScrollSize();
+    private void applyFrozenCellPosition(double scrollLeft) {
+        /*
+         * Same positioning as the position function would write inline,
+         * except for the vertical position, which is always 0.
+         */
+        if (position instanceof AbsolutePosition) {
+            styleSheet.setProperty(frozenCellSelector, "left", scrollLeft
+                    + "px");
+            styleSheet.setProperty(frozenCellSelector, "top", "0px");
+        } else if (position instanceof WebkitTranslate3DPosition) {
+            styleSheet.setProperty(frozenCellSelector, "-webkit-transform",
+                    "translate3d(" + scrollLeft + "px,0px,0)");
+        } else if (position instanceof TranslatePosition) {
+            styleSheet.setProperty(frozenCellSelector, "transform",
+                    "translate(" + scrollLeft + "px,0px)");
+        } else {
+            styleSheet.setProperty(frozenCellSelector, "transform",
+                    "translate3d(" + scrollLeft + "px, 0px, 0)");
+        }
     }
 
     /**
-     * Returns the scroll height for the escalator. Note that this is not
-     * necessary the same as {@code Element.scrollHeight} in the DOM.
+     * Gets the selector for the non-spacer rows of one section of this
+     * escalator.
      * 
-     * @since 7.5.0
-     * @return the scroll height in pixels
+     * @param sectionSelector
+     *            the selector of the section element, e.g. <code>thead</code>
+     * @return a selector for the rows of the section
+     * @see #getStyleSheetRowSelector()
      */
-    public double getScrollHeight() {
-        return verticalScrollbar.getScrollSize();
+    private String getStyleSheetRowSelector(String sectionSelector) {
+        final String primaryStyleName = getStylePrimaryName();
+        return "[" + STYLE_SHEET_SCOPE_ATTR + "=\"" + styleSheetId + "\"] > ."
+                + primaryStyleName + "-tablewrapper > table > "
+                + sectionSelector + " > ." + primaryStyleName + "-row";
     }
 
     /**
@@ -6019,6 +9646,43 @@ public class Escalator extends Widget implements RequiresResize,
         }
     }
 
+    /**
+     * Sets an explicit height for a row in the body.
+     * <p>
+     * Rows without an explicit height are of the
+     * {@link RowContainer#getDefaultRowHeight() default row height}. The
+     * explicit height stays with the row when rows are inserted or removed
+     * before it, and is forgotten when the row itself is removed.
+     *
+     * @param rowIndex
+     *            the logical index of the row
+     * @param height
+     *            the height of the row in pixels, or a negative value to make
+     *            the row use the default row height again
+     * @throws IllegalArgumentException
+     *             if {@code rowIndex} is not a valid index for an existing
+     *             row, or if {@code height} is between 0 (inclusive) and 1
+     *             (exclusive)
+     * @see #getBodyRowHeight(int)
+     */
+    public void setBodyRowHeight(int rowIndex, double height)
+            throws IllegalArgumentException {
+        body.setRowHeight(rowIndex, height);
+    }
+
+    /**
+     * Gets the height of a row in the body.
+     *
+     * @param rowIndex
+     *            the logical index of the row
+     * @return the explicit height of the row, or the default row height of
+     *         the body if the row has no explicit height
+     * @see #setBodyRowHeight(int, double)
+     */
+    public double getBodyRowHeight(int rowIndex) {
+        return body.getRowHeight(rowIndex);
+    }
+
     /**
      * Scrolls the body vertically so that the spacer at the given row index is
      * visible and there is at least {@literal padding} pixesl to the given
@@ -6085,7 +9749,7 @@ public class Escalator extends Widget implements RequiresResize,
                 final Range rowRange;
                 if (rowIndex != -1) {
                     int rowTop = (int) Math.floor(body.getRowTop(rowIndex));
-                    int rowHeight = (int) Math.ceil(body.getDefaultRowHeight());
+                    int rowHeight = (int) Math.ceil(body.getRowHeight(rowIndex));
                     rowRange = Range.withLength(rowTop, rowHeight);
                 } else {
                     rowRange = Range.withLength(0, 0);
@@ -6168,9 +9832,76 @@ public class Escalator extends Widget implements RequiresResize,
         scroller.recalculateScrollbarsForVirtualViewport();
         body.verifyEscalatorCount();
         body.reapplySpacerWidths();
+        body.updateColumnWindow();
         Profiler.leave("Escalator.recalculateElementSizes");
     }
 
+    /**
+     * Finds a longest strictly increasing subsequence of a sequence of
+     * distinct numbers.
+     * 
+     * @param sequence
+     *            the numbers
+     * @param length
+     *            the number of elements to consider in {@code sequence}
+     * @param requiredIndex
+     *            the index of an element that the subsequence must include, or
+     *            <code>-1</code> if none
+     * @return an array that tells for each element whether it's part of the
+     *         subsequence
+     */
+    private static boolean[] findLongestIncreasingSubsequence(
+            final int[] sequence, final int length, final int requiredIndex) {
+        /*
+         * Only the elements that can be in the same increasing subsequence as
+         * the required element are considered. Any increasing subsequence of
+         * those can be extended with the required element, so the longest one
+         * always contains it.
+         */
+        final int[] candidates = new int[length];
+        int candidateCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (requiredIndex < 0 || i == requiredIndex
+                    || (i < requiredIndex && sequence[i] < sequence[requiredIndex])
+                    || (i > requiredIndex && sequence[i] > sequence[requiredIndex])) {
+                candidates[candidateCount++] = i;
+            }
+        }
+
+        /*
+         * Patience sorting: tails[k] is the index of the smallest element that
+         * ends an increasing subsequence of length k + 1.
+         */
+        final int[] tails = new int[candidateCount];
+        final int[] predecessors = new int[length];
+        int longest = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            final int i = candidates[c];
+            int low = 0;
+            int high = longest;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (sequence[tails[middle]] < sequence[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == longest) {
+                longest++;
+            }
+        }
+
+        final boolean[] inSubsequence = new boolean[length];
+        for (int i = longest > 0 ? tails[longest - 1] : -1; i >= 0; i = predecessors[i]) {
+            inSubsequence[i] = true;
+        }
+        assert requiredIndex < 0 || inSubsequence[requiredIndex] : "The required element was left out";
+        return inSubsequence;
+    }
+
     /**
      * Snap deltas of x and y to the major four axes (up, down, left, right)
      * with a threshold of a number of degrees from those axes.
@@ -6218,7 +9949,27 @@ public class Escalator extends Widget implements RequiresResize,
                 RowVisibilityChangeEvent.TYPE);
     }
 
+    /**
+     * Adds an event handler that gets notified when the content of the body
+     * rows that were shown as placeholders during fast scrolling has been
+     * rendered.
+     * 
+     * @param rowsRenderedHandler
+     *            the event handler
+     * @return a handler registration for the added handler
+     * @see #setFastScrollThreshold(double)
+     */
+    public HandlerRegistration addRowsRenderedHandler(
+            RowsRenderedHandler rowsRenderedHandler) {
+        return addHandler(rowsRenderedHandler, RowsRenderedEvent.TYPE);
+    }
+
     private void fireRowVisibilityChangeEvent() {
+        if (committingUpdate) {
+            rowVisibilityChangedDuringCommit = true;
+            return;
+        }
+
         if (!body.visualRowOrder.isEmpty()) {
             int visibleRangeStart = body.getLogicalRowIndex(body.visualRowOrder
                     .getFirst());
@@ -6290,6 +10041,27 @@ public class Escalator extends Widget implements RequiresResize,
         header.setStylePrimaryName(style);
         body.setStylePrimaryName(style);
         footer.setStylePrimaryName(style);
+
+        // the selectors of the stylesheet include the primary style name
+        if (styleSheetColumnWidthsEnabled) {
+            columnConfiguration.rebuildColumnWidthRules();
+        }
+        if (frozenCellSelector != null) {
+            styleSheet.removeRule(frozenCellSelector);
+        }
+        frozenCellSelector = getStyleSheetRowSelector() + " > .frozen";
+        applyFrozenCellPosition(scroller.lastScrollLeft);
+        body.rebuildColumnWindowRules();
+
+        if (placeholderCellSelector != null) {
+            styleSheet.removeRule(placeholderCellSelector);
+            styleSheet.removeRule(placeholderCellSelector + " > *");
+        }
+        placeholderCellSelector = getStyleSheetRowSelector("tbody")
+                + ".placeholder > td";
+        styleSheet.setProperty(placeholderCellSelector, "color", "transparent");
+        styleSheet.setProperty(placeholderCellSelector + " > *", "visibility",
+                "hidden");
     }
 
     /**
@@ -6490,8 +10262,79 @@ public class Escalator extends Widget implements RequiresResize,
 
     @Override
     public boolean isWorkPending() {
-        return body.domSorter.isRunning() || verticalScrollbar.isWorkPending()
-                || horizontalScrollbar.isWorkPending() || layoutIsScheduled;
+        return idleWork.isPending() || frameWork.isPending()
+                || verticalScrollbar.isWorkPending()
+                || horizontalScrollbar.isWorkPending() || layoutIsScheduled
+                || domPhases.isFramePending();
+    }
+
+    /**
+     * Gets the number of scroll updates that have been merged into an already
+     * pending animation frame since this escalator was created.
+     * <p>
+     * Every frame runs the scroll logic (row recycling, spacer decorations and
+     * {@link RowVisibilityChangeEvent RowVisibilityChangeEvents}) only once,
+     * no matter how many scroll, mousewheel or touch events arrived during it.
+     * This counter tells how many of those events didn't need their own pass.
+     * 
+     * @return the number of coalesced scroll events
+     */
+    public int getCoalescedScrollEventCount() {
+        return scroller.coalescedScrollEventCount;
+    }
+
+    /**
+     * Gets the number of body row and spacer elements that were moved in the
+     * DOM the last time the body rows were sorted to match their visual order.
+     * <p>
+     * Only the rows that are out of order are moved. After a scroll that
+     * recycled a few rows, this is roughly the number of recycled rows.
+     * 
+     * @return the number of elements moved by the last sort
+     */
+    public int getLastDomSortMoveCount() {
+        return body.lastDomSortMoveCount;
+    }
+
+    /**
+     * Gets the number of body row and spacer elements that have been moved in
+     * the DOM to match their visual order since this escalator was created.
+     * 
+     * @return the total number of elements moved by sorting
+     * @see #getLastDomSortMoveCount()
+     */
+    public int getTotalDomSortMoveCount() {
+        return body.totalDomSortMoveCount;
+    }
+
+    /**
+     * Gets the number of times deferred work (such as sorting the body rows
+     * in the DOM) has been run to completion in the browser's idle time.
+     * 
+     * @return the number of finished deferred work runs
+     */
+    public int getDeferredWorkRunCount() {
+        return idleWork.getRunCount();
+    }
+
+    /**
+     * Gets the number of times deferred work has run out of idle time, and
+     * has been continued in a later idle period.
+     * 
+     * @return the number of split deferred work runs
+     */
+    public int getDeferredWorkSplitCount() {
+        return idleWork.getSplitCount();
+    }
+
+    /**
+     * Gets the number of times deferred work was requested while the same
+     * work was already waiting to be run, and was thus merged into it.
+     * 
+     * @return the number of dropped deferred work requests
+     */
+    public int getDeferredWorkDroppedCount() {
+        return idleWork.getDroppedCount();
     }
 
     @Override
@@ -6519,6 +10362,7 @@ public class Escalator extends Widget implements RequiresResize,
      * @return escalator's inner width
      */
     public double getInnerWidth() {
+        assert domPhases.assertDomReadAllowed("the inner width");
         return WidgetUtil
                 .getRequiredWidthBoundingClientRectDouble(tableWrapper);
     }
@@ -6540,7 +10384,7 @@ public class Escalator extends Widget implements RequiresResize,
     }
 
     private Range getViewportPixels() {
-        int from = (int) Math.floor(verticalScrollbar.getScrollPos());
+        int from = (int) Math.floor(getVerticalScrollPos());
         int to = (int) body.getHeightOfSection();
         return Range.withLength(from, to);
     }
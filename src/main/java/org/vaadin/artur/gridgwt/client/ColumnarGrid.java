@@ -0,0 +1,126 @@
+package org.vaadin.artur.gridgwt.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.vaadin.artur.gridgwt.client.columns.IntColumn;
+import org.vaadin.artur.gridgwt.client.data.ColumnarDataSource;
+import org.vaadin.artur.gridgwt.client.data.RowSorter;
+import org.vaadin.artur.gridgwt.client.data.RowSorter.SortKey;
+import org.vaadin.artur.gridgwt.client.data.StringDictionary;
+import org.vaadin.artur.gridgwt.client.renderers.DictionaryRenderer;
+import org.vaadin.artur.gridgwt.client.renderers.NumberTextFormatter;
+
+import com.google.gwt.user.client.Window;
+import com.vaadin.client.widget.grid.sort.SortEvent;
+import com.vaadin.client.widget.grid.sort.SortHandler;
+import com.vaadin.client.widget.grid.sort.SortOrder;
+import com.vaadin.shared.data.sort.SortDirection;
+
+/**
+ * Shows the same people as {@link PersonGrid}, but from a
+ * {@link ColumnarDataSource}. The rows are row indices, and the columns read
+ * their values from the column stores, so there is no object per person.
+ * <p>
+ * The string columns render the dictionary codes, and
+ * <code>?filter=text</code> shows only the people whose job contains the
+ * text. Sorting by the headers is done by a {@link RowSorter}.
+ */
+public class ColumnarGrid extends MyGrid<Integer> {
+
+    /** The ascending and descending sort key of each sortable column. */
+    private final Map<Column<?, Integer>, SortKey[]> sortKeys = new HashMap<Column<?, Integer>, SortKey[]>();
+
+    public ColumnarGrid(int rowCount) {
+        final PeopleStore store = new PeopleStore(rowCount);
+        NumberTextFormatter formatter = new NumberTextFormatter();
+
+        setSortKeys(addColumn(new IntColumn<Integer>("Id", formatter) {
+            @Override
+            public int getIntValue(Integer row) {
+                return store.ids.get(row);
+            }
+        }), RowSorter.byInt(store.ids, true),
+                RowSorter.byInt(store.ids, false));
+        DictionaryRenderer renderer = new DictionaryRenderer(store.dictionary);
+        setSortKeys(addColumn(new Column<Integer, Integer>("Name", renderer) {
+            public Integer getValue(Integer row) {
+                return store.names.getCode(row);
+            }
+        }), RowSorter.byDictionary(store.names, true),
+                RowSorter.byDictionary(store.names, false));
+        setSortKeys(addColumn(new Column<Integer, Integer>("Surname", renderer) {
+            public Integer getValue(Integer row) {
+                return store.surnames.getCode(row);
+            }
+        }), RowSorter.byDictionary(store.surnames, true),
+                RowSorter.byDictionary(store.surnames, false));
+        setSortKeys(addColumn(new Column<Integer, Integer>("Job", renderer) {
+            public Integer getValue(Integer row) {
+                return store.jobs.getCode(row);
+            }
+        }), RowSorter.byDictionary(store.jobs, true),
+                RowSorter.byDictionary(store.jobs, false));
+        setSortKeys(addColumn(new IntColumn<Integer>("Age", formatter) {
+            @Override
+            public int getIntValue(Integer row) {
+                return store.ages.get(row);
+            }
+        }), RowSorter.byInt(store.ages, true),
+                RowSorter.byInt(store.ages, false));
+        setSortKeys(addColumn(new IntColumn<Integer>("Kids", formatter) {
+            @Override
+            public int getIntValue(Integer row) {
+                return store.kids.get(row);
+            }
+        }), RowSorter.byInt(store.kids, true),
+                RowSorter.byInt(store.kids, false));
+
+        final String filter = Window.Location.getParameter("filter");
+        if (filter != null) {
+            store.dataSource.setRows(store.jobs
+                    .filterRows(new StringDictionary.ValueFilter() {
+                        @Override
+                        public boolean accept(String value) {
+                            return value != null
+                                    && value.toLowerCase().contains(
+                                            filter.toLowerCase());
+                        }
+                    }));
+        }
+        init(store.dataSource);
+
+        final RowSorter sorter = new RowSorter(store.dataSource);
+        addSortHandler(new SortHandler<Integer>() {
+            @Override
+            public void sort(SortEvent<Integer> event) {
+                List<SortKey> keys = new ArrayList<SortKey>();
+                for (SortOrder order : event.getOrder()) {
+                    keys.add(getSortKey(order.getColumn(),
+                            order.getDirection() == SortDirection.ASCENDING));
+                }
+                sorter.sort(keys);
+            }
+        });
+    }
+
+    /**
+     * Makes a column sortable by the given keys.
+     */
+    private void setSortKeys(Column<?, Integer> column, SortKey ascending,
+            SortKey descending) {
+        sortKeys.put(column, new SortKey[] { ascending, descending });
+        column.setSortable(true);
+    }
+
+    private SortKey getSortKey(Column<?, ?> column, boolean ascending) {
+        SortKey[] keys = sortKeys.get(column);
+        if (keys == null) {
+            throw new IllegalStateException("Column "
+                    + column.getHeaderCaption() + " has no sort keys");
+        }
+        return ascending ? keys[0] : keys[1];
+    }
+}
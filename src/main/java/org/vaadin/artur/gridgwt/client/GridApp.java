@@ -29,7 +29,7 @@ public class GridApp implements EntryPoint {
         if (p == null) {
             Window.alert("Unable to find an element with new_grid or grid id");
         } else {
-            final MyGrid g = new MyGrid();
+            final MyGrid<?> g = MyGrid.create();
             p.add(g);
             onResize(g);
         }
@@ -38,7 +38,7 @@ public class GridApp implements EntryPoint {
         $wnd.a = g;
     }-*/;
     
-    private native static void onResize(MyGrid g) /*-{
+    private native static void onResize(MyGrid<?> g) /*-{
         $wnd.onresize = function() {
             g.@org.vaadin.artur.gridgwt.client.MyGrid::onResize(*)();
         }
@@ -0,0 +1,50 @@
+package org.vaadin.artur.gridgwt.client;
+
+import static com.google.gwt.query.client.GQuery.console;
+
+import java.util.List;
+
+/**
+ * Logs how much memory the same people take as {@link Person} objects and in
+ * a columnar store. Enabled with <code>?memoryreport</code>.
+ * <p>
+ * The heap is measured with <code>performance.memory</code>, which only
+ * Chrome has. The numbers are approximate, as a garbage collection may happen
+ * in between; run Chrome with <code>--enable-precise-memory-info</code> to
+ * get more than a rough figure.
+ */
+class MemoryReport {
+
+    static void log(int rowCount) {
+        double before = getUsedHeapSize();
+        List<Person> people = PersonGrid.createPeople(rowCount);
+        double personBytes = getUsedHeapSize() - before;
+
+        before = getUsedHeapSize();
+        PeopleStore store = new PeopleStore(rowCount);
+        double columnarBytes = getUsedHeapSize() - before;
+
+        console.log("Memory report for " + people.size() + " rows");
+        if (before < 0) {
+            console.log("  Heap size not available in this browser");
+        } else {
+            console.log("  List<Person>:       " + megabytes(personBytes)
+                    + " measured");
+            console.log("  ColumnarDataSource: " + megabytes(columnarBytes)
+                    + " measured");
+        }
+        console.log("  ColumnarDataSource: "
+                + megabytes(store.dataSource.getByteSize())
+                + " in column stores");
+    }
+
+    private static String megabytes(double bytes) {
+        return Math.round(bytes / 1024 / 10.24) / 100.0 + " MB";
+    }
+
+    private static native double getUsedHeapSize()
+    /*-{
+        var memory = $wnd.performance && $wnd.performance.memory;
+        return memory ? memory.usedJSHeapSize : -1;
+    }-*/;
+}
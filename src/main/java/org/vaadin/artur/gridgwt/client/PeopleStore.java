@@ -0,0 +1,44 @@
+package org.vaadin.artur.gridgwt.client;
+
+import static org.vaadin.artur.gridgwt.client.MyGrid.PEOPLE;
+
+import org.vaadin.artur.gridgwt.client.data.ColumnarDataSource;
+import org.vaadin.artur.gridgwt.client.data.DictionaryColumnStore;
+import org.vaadin.artur.gridgwt.client.data.IntColumnStore;
+import org.vaadin.artur.gridgwt.client.data.StringDictionary;
+
+/**
+ * The same people as {@link PersonGrid#createPeople(int)}, stored by column.
+ * Names, surnames and jobs share one dictionary, as some names are also
+ * surnames.
+ */
+class PeopleStore {
+    final ColumnarDataSource dataSource;
+    final StringDictionary dictionary = new StringDictionary();
+    final IntColumnStore ids;
+    final DictionaryColumnStore names;
+    final DictionaryColumnStore surnames;
+    final DictionaryColumnStore jobs;
+    final IntColumnStore ages;
+    final IntColumnStore kids;
+
+    PeopleStore(int rowCount) {
+        dataSource = new ColumnarDataSource(rowCount);
+        ids = dataSource.addIntColumn();
+        names = dataSource.addDictionaryColumn(dictionary);
+        surnames = dataSource.addDictionaryColumn(dictionary);
+        jobs = dataSource.addDictionaryColumn(dictionary);
+        ages = dataSource.addIntColumn();
+        kids = dataSource.addIntColumn();
+
+        for (int i = 0; i < rowCount; i++) {
+            Object[] p = PEOPLE[i % PEOPLE.length];
+            ids.set(i, i + 1);
+            names.set(i, (String) p[0]);
+            surnames.set(i, (String) p[1]);
+            jobs.set(i, (String) p[2]);
+            ages.set(i, (Integer) p[3]);
+            kids.set(i, (Integer) p[4]);
+        }
+    }
+}
@@ -9,7 +9,7 @@ class Person {
 
     static int c = 1;
 
-    public final int id = c++;
+    public final int id;
 
     @Size(min = 5, max = 50)
     private String name;
@@ -46,6 +46,12 @@ class Person {
     private int age;
 
     public Person(String name, String surname, String job, int age, int children) {
+        this(c++, name, surname, job, age, children);
+    }
+
+    public Person(int id, String name, String surname, String job, int age,
+            int children) {
+        this.id = id;
         this.name = name;
         this.surname = surname;
         this.job = job;
@@ -0,0 +1,91 @@
+package org.vaadin.artur.gridgwt.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vaadin.artur.gridgwt.client.columns.IntColumn;
+import org.vaadin.artur.gridgwt.client.data.GeneratedPageFetcher;
+import org.vaadin.artur.gridgwt.client.data.PagedDataSource;
+import org.vaadin.artur.gridgwt.client.renderers.NumberTextFormatter;
+
+import com.google.gwt.user.client.Window;
+import com.vaadin.client.widget.grid.datasources.ListDataSource;
+
+/**
+ * Shows the people from {@link Person} objects, all in memory, or fetched
+ * lazily with <code>?datasource=paged</code>.
+ */
+public class PersonGrid extends MyGrid<Person> {
+    public PersonGrid(int rowCount) {
+        NumberTextFormatter formatter = new NumberTextFormatter();
+        addColumn(new IntColumn<Person>("Id", formatter) {
+            @Override
+            public int getIntValue(Person row) {
+                return row.id;
+            }
+        });
+        addColumn(new Column<String, Person>("Name") {
+            public String getValue(Person row) {
+                return row.getName();
+            }
+        });
+        addColumn(new Column<String, Person>("Surname") {
+            public String getValue(Person row) {
+                return row.getSurname();
+            }
+        });
+        addColumn(new Column<String, Person>("Job") {
+            public String getValue(Person row) {
+                return row.getJob();
+            }
+        });
+        addColumn(new IntColumn<Person>("Age", formatter) {
+            @Override
+            public int getIntValue(Person row) {
+                return row.getAge();
+            }
+        });
+        addColumn(new IntColumn<Person>("Kids", formatter) {
+            @Override
+            public int getIntValue(Person row) {
+                return row.getChildren();
+            }
+        });
+
+        if ("paged".equals(Window.Location.getParameter("datasource"))) {
+            // Rows are generated only when they are scrolled into view
+            String latency = Window.Location.getParameter("latency");
+            init(new PagedDataSource<Person>(
+                    new GeneratedPageFetcher<Person>(
+                            new GeneratedPageFetcher.RowGenerator<Person>() {
+                                @Override
+                                public Person generate(int rowIndex) {
+                                    return createPerson(rowIndex);
+                                }
+                            }, rowCount, latency == null ? 100 : Integer
+                                    .parseInt(latency)),
+                    new PagedDataSource.RowKeyProvider<Person>() {
+                        @Override
+                        public Object getKey(Person row) {
+                            return Integer.valueOf(row.id);
+                        }
+                    }));
+        } else {
+            init(new ListDataSource<Person>(createPeople(rowCount)));
+        }
+    }
+
+    static List<Person> createPeople(int rowCount) {
+        List<Person> people = new ArrayList<Person>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            people.add(createPerson(i));
+        }
+        return people;
+    }
+
+    static Person createPerson(int rowIndex) {
+        Object[] p = PEOPLE[rowIndex % PEOPLE.length];
+        return new Person(rowIndex + 1, (String) p[0], (String) p[1],
+                (String) p[2], (Integer) p[3], (Integer) p[4]);
+    }
+}
@@ -0,0 +1,43 @@
+package org.vaadin.artur.gridgwt.client.columns;
+
+import org.vaadin.artur.gridgwt.client.renderers.CellText;
+import org.vaadin.artur.gridgwt.client.renderers.NumberTextFormatter;
+
+import com.vaadin.client.renderers.Renderer;
+import com.vaadin.client.widget.grid.RendererCellReference;
+import com.vaadin.client.widgets.Grid.Column;
+
+/**
+ * A column of doubles, rendered without boxing.
+ * <p>
+ * The value of the column is the row itself, and the renderer reads the
+ * double with {@link #getDoubleValue(Object)}, formats it with a
+ * {@link NumberTextFormatter} and writes it with {@link CellText}, so the
+ * column itself boxes nothing. A repaint of a row allocates nothing if the
+ * data source reuses the row object, as
+ * {@link org.vaadin.artur.gridgwt.client.data.ColumnarDataSource} does for
+ * the rows in view, and the value is in the formatter's cache.
+ */
+public abstract class DoubleColumn<T> extends Column<T, T> {
+
+    public DoubleColumn(String caption, final NumberTextFormatter formatter) {
+        super(caption);
+        setRenderer(new Renderer<T>() {
+            @Override
+            public void render(RendererCellReference cell, T row) {
+                CellText.set(cell.getElement(),
+                        formatter.format(getDoubleValue(row)));
+            }
+        });
+    }
+
+    /**
+     * Gets the value of this column for a row.
+     */
+    public abstract double getDoubleValue(T row);
+
+    @Override
+    public T getValue(T row) {
+        return row;
+    }
+}
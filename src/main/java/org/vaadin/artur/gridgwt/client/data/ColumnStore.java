@@ -0,0 +1,17 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+/**
+ * The values of one column of a {@link ColumnarDataSource}, indexed by row.
+ */
+public abstract class ColumnStore {
+
+    /**
+     * Gets the number of rows in this column.
+     */
+    public abstract int size();
+
+    /**
+     * Gets the number of bytes used by the values of this column.
+     */
+    public abstract int getByteSize();
+}
@@ -0,0 +1,273 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.vaadin.client.data.DataChangeHandler;
+import com.vaadin.client.data.DataSource;
+
+/**
+ * A data source that keeps its data by column instead of by row. Numbers are
+ * stored in typed arrays, and strings are dictionary-encoded, so no object is
+ * kept per row.
+ * <p>
+ * The rows of this data source are just their indices into the column
+ * stores. The grid columns read
+ * their values from the {@link ColumnStore column stores} by row index:
+ *
+ * <pre>
+ * final IntColumnStore ages = dataSource.addIntColumn();
+ * grid.addColumn(new Column&lt;Integer, Integer&gt;("Age") {
+ *     public Integer getValue(Integer row) {
+ *         return ages.get(row);
+ *     }
+ * });
+ * </pre>
+ * <p>
+ * The rows can be narrowed down and reordered with {@link #setRows(Int32Array)}
+ * without touching the column stores, e.g. to show the rows found by
+ * {@link DictionaryColumnStore#filterRows(StringDictionary.ValueFilter)}, or
+ * the rows sorted by a {@link RowSorter}.
+ */
+public class ColumnarDataSource implements DataSource<Integer> {
+
+    private class RowHandleImpl extends RowHandle<Integer> {
+        private final Integer row;
+
+        public RowHandleImpl(Integer row) {
+            this.row = row;
+        }
+
+        @Override
+        public Integer getRow() {
+            return row;
+        }
+
+        @Override
+        public void pin() {
+            // NOOP
+        }
+
+        @Override
+        public void unpin() throws IllegalStateException {
+            // NOOP
+        }
+
+        @Override
+        public void updateRow() {
+            int index = indexOf(row.intValue());
+            if (index >= 0) {
+                refreshRows(index, 1);
+            }
+        }
+
+        @Override
+        protected boolean equalsExplicit(Object obj) {
+            if (obj instanceof ColumnarDataSource.RowHandleImpl) {
+                return row.equals(((RowHandleImpl) obj).row);
+            }
+            return false;
+        }
+
+        @Override
+        protected int hashCodeExplicit() {
+            return row.hashCode();
+        }
+    }
+
+    /** The number of row objects kept by {@link #getRow(int)}. */
+    private static final int ROW_CACHE_SIZE = 4096;
+
+    private final int rowCount;
+
+    private final List<ColumnStore> columns = new ArrayList<ColumnStore>();
+
+    /** The rows shown, in order, or null to show all rows in order. */
+    private Int32Array rows = null;
+
+    /**
+     * The index each row is shown at, or -1 if it isn't shown, by row. Null
+     * when all rows are shown in order.
+     */
+    private Int32Array shownIndices = null;
+
+    /**
+     * Recently returned row objects, by row modulo the cache size, so that
+     * repainting the rows that are in view boxes nothing.
+     */
+    private final Integer[] rowCache = new Integer[ROW_CACHE_SIZE];
+
+    private DataChangeHandler dataChangeHandler;
+
+    /**
+     * @param rowCount
+     *            the number of rows in the column stores
+     */
+    public ColumnarDataSource(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException(
+                    "Row count may not be negative (was " + rowCount + ")");
+        }
+        this.rowCount = rowCount;
+    }
+
+    public IntColumnStore addIntColumn() {
+        return addColumn(new IntColumnStore(rowCount));
+    }
+
+    public DoubleColumnStore addDoubleColumn() {
+        return addColumn(new DoubleColumnStore(rowCount));
+    }
+
+    /**
+     * Adds a dictionary-encoded column with a dictionary of its own.
+     */
+    public DictionaryColumnStore addDictionaryColumn() {
+        return addDictionaryColumn(new StringDictionary());
+    }
+
+    /**
+     * Adds a dictionary-encoded column, whose values are kept in a given
+     * dictionary. The dictionary can be shared by any number of columns.
+     */
+    public DictionaryColumnStore addDictionaryColumn(
+            StringDictionary dictionary) {
+        return addColumn(new DictionaryColumnStore(rowCount, dictionary));
+    }
+
+    private <C extends ColumnStore> C addColumn(C column) {
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * Sets the rows to show, as indices into the column stores.
+     * <p>
+     * If the number of rows stays the same, as it does when the rows are
+     * sorted, Grid is only told that the rows have been updated, so that it
+     * repaints the visible rows and nothing else. Otherwise the rows are
+     * reset.
+     *
+     * @param rows
+     *            the rows to show, in order, or <code>null</code> to show all
+     *            rows in order
+     */
+    public void setRows(Int32Array rows) {
+        int oldSize = size();
+        this.rows = rows;
+        shownIndices = rows == null ? null : invert(rows);
+        if (dataChangeHandler == null) {
+            return;
+        }
+        if (size() == oldSize) {
+            if (oldSize > 0) {
+                dataChangeHandler.dataUpdated(0, oldSize);
+            }
+        } else {
+            dataChangeHandler.resetDataAndSize(size());
+        }
+    }
+
+    /**
+     * Gets the rows shown, or <code>null</code> if all rows are shown in
+     * order.
+     */
+    public Int32Array getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of rows in the column stores, shown or not.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Tells Grid that the values of some rows have been changed in the column
+     * stores.
+     *
+     * @param firstRowIndex
+     *            the index of the first changed row, among the shown rows
+     * @param numberOfRows
+     *            the number of changed rows
+     */
+    public void refreshRows(int firstRowIndex, int numberOfRows) {
+        if (dataChangeHandler != null) {
+            dataChangeHandler.dataUpdated(firstRowIndex, numberOfRows);
+        }
+    }
+
+    /**
+     * Gets the number of bytes used by the values of all columns.
+     */
+    public int getByteSize() {
+        int bytes = rows == null ? 0 : rows.byteLength()
+                + shownIndices.byteLength();
+        List<StringDictionary> dictionaries = new ArrayList<StringDictionary>();
+        for (ColumnStore column : columns) {
+            bytes += column.getByteSize();
+            if (column instanceof DictionaryColumnStore) {
+                StringDictionary dictionary = ((DictionaryColumnStore) column)
+                        .getDictionary();
+                if (!dictionaries.contains(dictionary)) {
+                    dictionaries.add(dictionary);
+                    bytes += dictionary.getByteSize();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void ensureAvailability(int firstRowIndex, int numberOfRows) {
+        // All rows are always available
+        if (dataChangeHandler != null) {
+            dataChangeHandler.dataAvailable(firstRowIndex, numberOfRows);
+        }
+    }
+
+    @Override
+    public Integer getRow(int rowIndex) {
+        int row = rows == null ? rowIndex : rows.get(rowIndex);
+        int slot = row & (ROW_CACHE_SIZE - 1);
+        Integer cached = rowCache[slot];
+        if (cached == null || cached.intValue() != row) {
+            cached = Integer.valueOf(row);
+            rowCache[slot] = cached;
+        }
+        return cached;
+    }
+
+    @Override
+    public int size() {
+        return rows == null ? rowCount : rows.length();
+    }
+
+    @Override
+    public void setDataChangeHandler(DataChangeHandler dataChangeHandler) {
+        this.dataChangeHandler = dataChangeHandler;
+    }
+
+    @Override
+    public RowHandle<Integer> getHandle(Integer row) {
+        return new RowHandleImpl(row);
+    }
+
+    private int indexOf(int row) {
+        return shownIndices == null ? row : shownIndices.get(row);
+    }
+
+    private Int32Array invert(Int32Array rows) {
+        Int32Array indices = TypedArrays.createInt32Array(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            indices.set(row, -1);
+        }
+        for (int i = 0; i < rows.length(); i++) {
+            indices.set(rows.get(i), i);
+        }
+        return indices;
+    }
+}
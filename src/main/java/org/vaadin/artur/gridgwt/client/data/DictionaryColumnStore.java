@@ -0,0 +1,99 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import org.vaadin.artur.gridgwt.client.data.StringDictionary.ValueFilter;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A column of strings, dictionary-encoded: each distinct value is stored once
+ * in a {@link StringDictionary}, and each row only stores the code of its
+ * value in an <code>Int32Array</code>. This suits columns with few distinct
+ * values, such as names or job titles.
+ * <p>
+ * Comparing and filtering rows work on the codes, so the strings are only
+ * looked at once per distinct value.
+ */
+public class DictionaryColumnStore extends ColumnStore {
+
+    private final Int32Array codes;
+    private final StringDictionary dictionary;
+
+    DictionaryColumnStore(int size, StringDictionary dictionary) {
+        // All rows start out with code 0, which is null
+        codes = TypedArrays.createInt32Array(size);
+        this.dictionary = dictionary;
+    }
+
+    public String get(int rowIndex) {
+        return dictionary.decode(codes.get(rowIndex));
+    }
+
+    public void set(int rowIndex, String value) {
+        codes.set(rowIndex, dictionary.encode(value));
+    }
+
+    /**
+     * Gets the code of the value in a row.
+     */
+    public int getCode(int rowIndex) {
+        return codes.get(rowIndex);
+    }
+
+    /**
+     * Gets the dictionary of this column, which may be shared with other
+     * columns.
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Compares the values of two rows, as {@link String#compareTo(String)}
+     * would, with <code>null</code> first.
+     */
+    public int compareRows(int firstRowIndex, int secondRowIndex) {
+        return dictionary.getRank(codes.get(firstRowIndex))
+                - dictionary.getRank(codes.get(secondRowIndex));
+    }
+
+    /**
+     * Finds the rows whose values are accepted by a filter. The filter is run
+     * once per distinct value.
+     *
+     * @return the indices of the accepted rows, in ascending order
+     */
+    public Int32Array filterRows(ValueFilter filter) {
+        boolean[] accepted = dictionary.filter(filter);
+
+        int count = 0;
+        for (int i = 0; i < codes.length(); i++) {
+            if (accepted[codes.get(i)]) {
+                count++;
+            }
+        }
+
+        Int32Array rows = TypedArrays.createInt32Array(count);
+        int next = 0;
+        for (int i = 0; next < count; i++) {
+            if (accepted[codes.get(i)]) {
+                rows.set(next++, i);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int size() {
+        return codes.length();
+    }
+
+    /**
+     * Gets the number of bytes used by the codes. The dictionary is counted
+     * by {@link ColumnarDataSource#getByteSize()}, once even if shared.
+     */
+    @Override
+    public int getByteSize() {
+        return codes.byteLength();
+    }
+}
@@ -0,0 +1,34 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A column of doubles, stored in a <code>Float64Array</code>.
+ */
+public class DoubleColumnStore extends ColumnStore {
+
+    private final Float64Array values;
+
+    DoubleColumnStore(int size) {
+        values = TypedArrays.createFloat64Array(size);
+    }
+
+    public double get(int rowIndex) {
+        return values.get(rowIndex);
+    }
+
+    public void set(int rowIndex, double value) {
+        values.set(rowIndex, value);
+    }
+
+    @Override
+    public int size() {
+        return values.length();
+    }
+
+    @Override
+    public int getByteSize() {
+        return values.byteLength();
+    }
+}
@@ -0,0 +1,81 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.Timer;
+
+/**
+ * An in-memory stand-in for a real backend. Rows are generated on request,
+ * optionally after a delay that simulates the network.
+ */
+public class GeneratedPageFetcher<T> implements PageFetcher<T> {
+
+    /**
+     * Creates the row with a given index.
+     */
+    public interface RowGenerator<T> {
+        T generate(int rowIndex);
+    }
+
+    private final RowGenerator<T> generator;
+    private final int size;
+    private final int latencyMillis;
+
+    private int fetchCount = 0;
+
+    /**
+     * @param generator
+     *            creates the rows
+     * @param size
+     *            the number of rows
+     * @param latencyMillis
+     *            the delay before the rows are delivered, or 0 to deliver
+     *            them right away
+     */
+    public GeneratedPageFetcher(RowGenerator<T> generator, int size,
+            int latencyMillis) {
+        this.generator = generator;
+        this.size = size;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void fetch(final int firstRowIndex, final int numberOfRows,
+            final Callback<T> callback) {
+        fetchCount++;
+        if (latencyMillis <= 0) {
+            callback.onRowsFetched(firstRowIndex,
+                    generate(firstRowIndex, numberOfRows));
+            return;
+        }
+        new Timer() {
+            @Override
+            public void run() {
+                callback.onRowsFetched(firstRowIndex,
+                        generate(firstRowIndex, numberOfRows));
+            }
+        }.schedule(latencyMillis);
+    }
+
+    /**
+     * Gets the number of fetches made so far.
+     */
+    public int getFetchCount() {
+        return fetchCount;
+    }
+
+    private List<T> generate(int firstRowIndex, int numberOfRows) {
+        int end = Math.min(size, firstRowIndex + numberOfRows);
+        List<T> rows = new ArrayList<T>(Math.max(0, end - firstRowIndex));
+        for (int i = firstRowIndex; i < end; i++) {
+            rows.add(generator.generate(i));
+        }
+        return rows;
+    }
+}
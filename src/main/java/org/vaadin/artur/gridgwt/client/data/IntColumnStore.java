@@ -0,0 +1,34 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A column of 32-bit integers, stored in an <code>Int32Array</code>.
+ */
+public class IntColumnStore extends ColumnStore {
+
+    private final Int32Array values;
+
+    IntColumnStore(int size) {
+        values = TypedArrays.createInt32Array(size);
+    }
+
+    public int get(int rowIndex) {
+        return values.get(rowIndex);
+    }
+
+    public void set(int rowIndex, int value) {
+        values.set(rowIndex, value);
+    }
+
+    @Override
+    public int size() {
+        return values.length();
+    }
+
+    @Override
+    public int getByteSize() {
+        return values.byteLength();
+    }
+}
@@ -0,0 +1,21 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.List;
+
+/**
+ * The backend of a {@link PagedDataSource}. It knows how many rows there are,
+ * and fetches them one range at a time, synchronously or not.
+ */
+public interface PageFetcher<T> {
+
+    /**
+     * Receives the rows of one fetch.
+     */
+    interface Callback<T> {
+        void onRowsFetched(int firstRowIndex, List<T> rows);
+    }
+
+    int size();
+
+    void fetch(int firstRowIndex, int numberOfRows, Callback<T> callback);
+}
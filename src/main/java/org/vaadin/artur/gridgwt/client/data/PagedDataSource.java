@@ -0,0 +1,338 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.vaadin.client.data.DataChangeHandler;
+import com.vaadin.client.data.DataSource;
+import com.vaadin.shared.util.SharedUtil;
+
+/**
+ * A data source that fetches rows lazily, a page at a time, from a
+ * {@link PageFetcher}.
+ * <p>
+ * Only the pages covering the rows Grid asks for (the rows visible in the
+ * escalator, see {@link #ensureAvailability(int, int)}) plus a prefetch
+ * margin on both sides are fetched. Fetched pages are kept in a cache of at
+ * most {@code maxCachedPages} pages, and the least recently used page is
+ * evicted first. The pages that are currently wanted are never evicted.
+ * <p>
+ * Rows whose page hasn't arrived yet are <code>null</code>, which Grid
+ * renders as an empty row without the <code>-has-data</code> style name.
+ * The rows are refreshed once their page arrives.
+ * <p>
+ * A row that is evicted and fetched again is a new object, so row handles,
+ * and thus the selection, identify rows by the key given by a
+ * {@link RowKeyProvider}.
+ */
+public class PagedDataSource<T> implements DataSource<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 50;
+
+    /**
+     * Gives the key of a row, such as its id, which stays the same when the
+     * row is fetched again.
+     */
+    public interface RowKeyProvider<T> {
+        Object getKey(T row);
+    }
+
+    private class RowHandleImpl extends RowHandle<T> {
+        private final Object key;
+        private final T row;
+
+        public RowHandleImpl(T row) {
+            this.row = row;
+            key = keyProvider.getKey(row);
+        }
+
+        @Override
+        public T getRow() {
+            // The latest fetched object, or the old one if evicted
+            Integer index = indicesByKey.get(key);
+            return index == null ? row : PagedDataSource.this.getRow(index
+                    .intValue());
+        }
+
+        @Override
+        public void pin() {
+            // NOOP
+        }
+
+        @Override
+        public void unpin() throws IllegalStateException {
+            // NOOP
+        }
+
+        @Override
+        public void updateRow() {
+            Integer index = indicesByKey.get(key);
+            if (index != null && dataChangeHandler != null) {
+                dataChangeHandler.dataUpdated(index.intValue(), 1);
+            }
+        }
+
+        @Override
+        protected boolean equalsExplicit(Object obj) {
+            if (obj instanceof PagedDataSource.RowHandleImpl) {
+                @SuppressWarnings("unchecked")
+                RowHandleImpl other = (RowHandleImpl) obj;
+                return SharedUtil.equals(key, other.key);
+            }
+            return false;
+        }
+
+        @Override
+        protected int hashCodeExplicit() {
+            return key == null ? 0 : key.hashCode();
+        }
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final RowKeyProvider<T> keyProvider;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final int prefetchRows;
+
+    /** The fetched pages by page number, least recently used first. */
+    private final LinkedHashMap<Integer, List<T>> pages = new LinkedHashMap<Integer, List<T>>(
+            16, 0.75f, true);
+
+    private final Set<Integer> pendingPages = new HashSet<Integer>();
+
+    /** The index of each cached row, by its key. */
+    private final Map<Object, Integer> indicesByKey = new HashMap<Object, Integer>();
+
+    /** The rows of the latest ensureAvailability call, with the margin. */
+    private int wantedStart = 0;
+    private int wantedEnd = 0;
+
+    /** Incremented by {@link #reset()}, to ignore fetches made before. */
+    private int generation = 0;
+
+    /** Whether pages are being requested for the wanted range. */
+    private boolean requestingPages = false;
+
+    /** Whether dataAvailable has been fired for the wanted range. */
+    private boolean dataAvailableFired = false;
+
+    private int size;
+
+    private DataChangeHandler dataChangeHandler;
+
+    private int fetchedPageCount = 0;
+    private int evictedPageCount = 0;
+
+    public PagedDataSource(PageFetcher<T> fetcher,
+            RowKeyProvider<T> keyProvider) {
+        this(fetcher, keyProvider, DEFAULT_PAGE_SIZE,
+                DEFAULT_MAX_CACHED_PAGES, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param fetcher
+     *            the backend to fetch the rows from
+     * @param keyProvider
+     *            gives the keys that identify the rows
+     * @param pageSize
+     *            the number of rows to fetch at a time
+     * @param maxCachedPages
+     *            the maximum number of pages to keep, unless more are wanted
+     *            at once
+     * @param prefetchRows
+     *            the number of rows to fetch above and below the wanted rows
+     */
+    public PagedDataSource(PageFetcher<T> fetcher,
+            RowKeyProvider<T> keyProvider, int pageSize, int maxCachedPages,
+            int prefetchRows) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException(
+                    "Page size must be 1 or greater (was " + pageSize + ")");
+        }
+        if (maxCachedPages < 1) {
+            throw new IllegalArgumentException(
+                    "Max cached pages must be 1 or greater (was "
+                            + maxCachedPages + ")");
+        }
+        this.fetcher = fetcher;
+        this.keyProvider = keyProvider;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.prefetchRows = Math.max(0, prefetchRows);
+        size = fetcher.size();
+    }
+
+    @Override
+    public void ensureAvailability(int firstRowIndex, int numberOfRows) {
+        wantedStart = Math.max(0, firstRowIndex - prefetchRows);
+        wantedEnd = Math.min(size, firstRowIndex + numberOfRows + prefetchRows);
+        dataAvailableFired = false;
+
+        /*
+         * A synchronous fetcher delivers the pages inside this loop, before
+         * the later pages have been requested, so dataAvailable is fired
+         * after the loop instead.
+         */
+        requestingPages = true;
+        try {
+            for (int page = firstPage(); wantedStart < wantedEnd
+                    && page <= lastPage(); page++) {
+                Integer key = Integer.valueOf(page);
+                // get() also marks the page as recently used
+                if (pages.get(key) == null && !pendingPages.contains(key)) {
+                    fetchPage(page);
+                }
+            }
+        } finally {
+            requestingPages = false;
+        }
+        fireDataAvailableIfReady();
+    }
+
+    @Override
+    public T getRow(int rowIndex) {
+        List<T> page = pages.get(Integer.valueOf(rowIndex / pageSize));
+        if (page == null) {
+            return null;
+        }
+        int indexInPage = rowIndex % pageSize;
+        return indexInPage < page.size() ? page.get(indexInPage) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void setDataChangeHandler(DataChangeHandler dataChangeHandler) {
+        this.dataChangeHandler = dataChangeHandler;
+    }
+
+    @Override
+    public RowHandle<T> getHandle(T row) {
+        return new RowHandleImpl(row);
+    }
+
+    /**
+     * Drops all fetched pages, and fetches the size and the wanted rows
+     * again. Fetches still on their way are ignored when they arrive.
+     */
+    public void reset() {
+        generation++;
+        pages.clear();
+        pendingPages.clear();
+        indicesByKey.clear();
+        size = fetcher.size();
+        if (dataChangeHandler != null) {
+            dataChangeHandler.resetDataAndSize(size);
+        }
+    }
+
+    /**
+     * Gets the number of pages currently in the cache.
+     */
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Gets the number of pages that have been fetched so far.
+     */
+    public int getFetchedPageCount() {
+        return fetchedPageCount;
+    }
+
+    /**
+     * Gets the number of pages that have been evicted from the cache.
+     */
+    public int getEvictedPageCount() {
+        return evictedPageCount;
+    }
+
+    private int firstPage() {
+        return wantedStart / pageSize;
+    }
+
+    private int lastPage() {
+        return (wantedEnd - 1) / pageSize;
+    }
+
+    private void fetchPage(final int page) {
+        final int fetchGeneration = generation;
+        final Integer key = Integer.valueOf(page);
+        pendingPages.add(key);
+        int first = page * pageSize;
+        fetcher.fetch(first, Math.min(pageSize, size - first),
+                new PageFetcher.Callback<T>() {
+                    @Override
+                    public void onRowsFetched(int firstRowIndex, List<T> rows) {
+                        if (fetchGeneration == generation) {
+                            onPageFetched(key, firstRowIndex, rows);
+                        }
+                    }
+                });
+    }
+
+    private void onPageFetched(Integer page, int firstRowIndex, List<T> rows) {
+        pendingPages.remove(page);
+        pages.put(page, rows);
+        for (int i = 0; i < rows.size(); i++) {
+            indicesByKey.put(keyProvider.getKey(rows.get(i)),
+                    Integer.valueOf(firstRowIndex + i));
+        }
+        fetchedPageCount++;
+        evictPages();
+
+        if (dataChangeHandler != null) {
+            if (!rows.isEmpty()) {
+                dataChangeHandler.dataUpdated(firstRowIndex, rows.size());
+            }
+            if (!requestingPages) {
+                fireDataAvailableIfReady();
+            }
+        }
+    }
+
+    private void evictPages() {
+        // Iterating the entries doesn't touch the access order
+        Iterator<Entry<Integer, List<T>>> i = pages.entrySet().iterator();
+        while (pages.size() > maxCachedPages && i.hasNext()) {
+            Entry<Integer, List<T>> entry = i.next();
+            int page = entry.getKey().intValue();
+            if (page < firstPage() || page > lastPage()) {
+                for (T row : entry.getValue()) {
+                    indicesByKey.remove(keyProvider.getKey(row));
+                }
+                i.remove();
+                evictedPageCount++;
+            }
+        }
+    }
+
+    /**
+     * Fires dataAvailable once per wanted range, when all of its pages are
+     * cached.
+     */
+    private void fireDataAvailableIfReady() {
+        if (dataChangeHandler == null || dataAvailableFired) {
+            return;
+        }
+        for (int page = firstPage(); wantedStart < wantedEnd
+                && page <= lastPage(); page++) {
+            if (!pages.containsKey(Integer.valueOf(page))) {
+                return;
+            }
+        }
+        dataAvailableFired = true;
+        dataChangeHandler.dataAvailable(wantedStart,
+                Math.max(0, wantedEnd - wantedStart));
+    }
+}
@@ -0,0 +1,294 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * Sorts the rows of a {@link ColumnarDataSource} without touching its column
+ * stores. The sorted order is an <code>Int32Array</code> of row indices,
+ * which is given to the data source with
+ * {@link ColumnarDataSource#setRows(Int32Array)}. As the number of rows
+ * doesn't change, Grid only repaints the rows that are visible.
+ * <p>
+ * Each {@link SortKey} is sorted with a stable sort that suits it: int
+ * columns with a radix sort, dictionary-encoded columns with a counting sort
+ * on the ranks of their codes, and anything else with a merge sort. Sorting
+ * by several keys sorts by the last key first, and by the first key last.
+ * <p>
+ * The rows that are sorted are the rows the data source showed when the
+ * sorter was created, e.g. the rows left by a filter.
+ */
+public class RowSorter {
+
+    /**
+     * Compares two rows, by their indices in the column stores.
+     */
+    public interface RowComparator {
+        int compare(int firstRow, int secondRow);
+    }
+
+    /**
+     * One column, or other criteria, to sort by.
+     */
+    public static abstract class SortKey {
+        final boolean ascending;
+
+        SortKey(boolean ascending) {
+            this.ascending = ascending;
+        }
+
+        /**
+         * Sorts the rows stably by this key.
+         *
+         * @param rows
+         *            the rows to sort
+         * @param scratch
+         *            an array of the same length to use while sorting
+         * @return the array with the sorted rows, either {@code rows} or
+         *         {@code scratch}
+         */
+        abstract Int32Array sort(Int32Array rows, Int32Array scratch);
+    }
+
+    private static final class IntKey extends SortKey {
+        private final IntColumnStore column;
+
+        IntKey(IntColumnStore column, boolean ascending) {
+            super(ascending);
+            this.column = column;
+        }
+
+        @Override
+        Int32Array sort(Int32Array rows, Int32Array scratch) {
+            int n = rows.length();
+            Int32Array keys = TypedArrays.createInt32Array(n);
+            for (int i = 0; i < n; i++) {
+                // Flipping the sign bit makes the keys sort as unsigned
+                int key = column.get(rows.get(i)) ^ Integer.MIN_VALUE;
+                keys.set(i, ascending ? key : ~key);
+            }
+            return radixSort(rows, keys, scratch);
+        }
+    }
+
+    private static final class DictionaryKey extends SortKey {
+        private final DictionaryColumnStore column;
+
+        DictionaryKey(DictionaryColumnStore column, boolean ascending) {
+            super(ascending);
+            this.column = column;
+        }
+
+        @Override
+        Int32Array sort(Int32Array rows, Int32Array scratch) {
+            StringDictionary dictionary = column.getDictionary();
+            int cardinality = dictionary.size();
+            int[] keysByCode = new int[cardinality];
+            for (int code = 0; code < cardinality; code++) {
+                int rank = dictionary.getRank(code);
+                keysByCode[code] = ascending ? rank : cardinality - 1 - rank;
+            }
+
+            int n = rows.length();
+            int[] offsets = new int[cardinality + 1];
+            for (int i = 0; i < n; i++) {
+                offsets[keysByCode[column.getCode(rows.get(i))] + 1]++;
+            }
+            for (int key = 0; key < cardinality; key++) {
+                offsets[key + 1] += offsets[key];
+            }
+            for (int i = 0; i < n; i++) {
+                int row = rows.get(i);
+                scratch.set(offsets[keysByCode[column.getCode(row)]]++, row);
+            }
+            return scratch;
+        }
+    }
+
+    private static final class ComparatorKey extends SortKey {
+        private final RowComparator comparator;
+
+        ComparatorKey(RowComparator comparator, boolean ascending) {
+            super(ascending);
+            this.comparator = comparator;
+        }
+
+        @Override
+        Int32Array sort(Int32Array rows, Int32Array scratch) {
+            return mergeSort(rows, scratch, comparator, ascending);
+        }
+    }
+
+    private final ColumnarDataSource dataSource;
+
+    /** The rows to sort, or null for all rows. */
+    private final Int32Array unsortedRows;
+
+    private double lastSortMillis = 0;
+
+    public RowSorter(ColumnarDataSource dataSource) {
+        this.dataSource = dataSource;
+        unsortedRows = dataSource.getRows();
+    }
+
+    public static SortKey byInt(IntColumnStore column, boolean ascending) {
+        return new IntKey(column, ascending);
+    }
+
+    public static SortKey byDictionary(DictionaryColumnStore column,
+            boolean ascending) {
+        return new DictionaryKey(column, ascending);
+    }
+
+    public static SortKey byDouble(final DoubleColumnStore column,
+            boolean ascending) {
+        return new ComparatorKey(new RowComparator() {
+            @Override
+            public int compare(int firstRow, int secondRow) {
+                // As Double.compare, without boxing: NaN last
+                double first = column.get(firstRow);
+                double second = column.get(secondRow);
+                if (first < second) {
+                    return -1;
+                } else if (first > second) {
+                    return 1;
+                } else if (first == second) {
+                    return 0;
+                }
+                return Double.isNaN(first) ? (Double.isNaN(second) ? 0 : 1)
+                        : -1;
+            }
+        }, ascending);
+    }
+
+    public static SortKey byComparator(RowComparator comparator,
+            boolean ascending) {
+        return new ComparatorKey(comparator, ascending);
+    }
+
+    public void sort(SortKey... keys) {
+        sort(Arrays.asList(keys));
+    }
+
+    /**
+     * Sorts the rows by the given keys, the first key being the most
+     * significant one. Sorting by no keys restores the unsorted order.
+     */
+    public void sort(List<SortKey> keys) {
+        double start = Duration.currentTimeMillis();
+
+        if (keys.isEmpty()) {
+            dataSource.setRows(unsortedRows);
+        } else {
+            int n = unsortedRows == null ? dataSource.getRowCount()
+                    : unsortedRows.length();
+            Int32Array rows = TypedArrays.createInt32Array(n);
+            if (unsortedRows == null) {
+                for (int i = 0; i < n; i++) {
+                    rows.set(i, i);
+                }
+            } else {
+                rows.set(unsortedRows);
+            }
+
+            Int32Array scratch = TypedArrays.createInt32Array(n);
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                Int32Array sorted = keys.get(i).sort(rows, scratch);
+                if (sorted == scratch) {
+                    scratch = rows;
+                    rows = sorted;
+                }
+            }
+            dataSource.setRows(rows);
+        }
+
+        lastSortMillis = Duration.currentTimeMillis() - start;
+    }
+
+    /**
+     * Gets the time the latest sort took, including repainting the visible
+     * rows.
+     */
+    public double getLastSortMillis() {
+        return lastSortMillis;
+    }
+
+    /**
+     * Sorts rows by unsigned int keys, a byte at a time. The passes where all
+     * keys have the same byte are skipped, so small values only take one or
+     * two passes.
+     */
+    private static Int32Array radixSort(Int32Array rows, Int32Array keys,
+            Int32Array scratch) {
+        int n = rows.length();
+        Int32Array scratchKeys = TypedArrays.createInt32Array(n);
+        int[] offsets = new int[257];
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < n; i++) {
+                offsets[((keys.get(i) >>> shift) & 0xff) + 1]++;
+            }
+            if (n == 0 || offsets[((keys.get(0) >>> shift) & 0xff) + 1] == n) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                offsets[b + 1] += offsets[b];
+            }
+            for (int i = 0; i < n; i++) {
+                int key = keys.get(i);
+                int position = offsets[(key >>> shift) & 0xff]++;
+                scratch.set(position, rows.get(i));
+                scratchKeys.set(position, key);
+            }
+
+            Int32Array swap = rows;
+            rows = scratch;
+            scratch = swap;
+            swap = keys;
+            keys = scratchKeys;
+            scratchKeys = swap;
+        }
+        return rows;
+    }
+
+    /**
+     * Sorts rows with a bottom-up merge sort, which is stable.
+     */
+    private static Int32Array mergeSort(Int32Array rows, Int32Array scratch,
+            RowComparator comparator, boolean ascending) {
+        int n = rows.length();
+        int sign = ascending ? 1 : -1;
+        for (int width = 1; width < n; width *= 2) {
+            for (int left = 0; left < n; left += 2 * width) {
+                int middle = Math.min(left + width, n);
+                int right = Math.min(left + 2 * width, n);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    // Taking from the left on ties keeps the sort stable
+                    if (sign * comparator.compare(rows.get(j), rows.get(i)) < 0) {
+                        scratch.set(k++, rows.get(j++));
+                    } else {
+                        scratch.set(k++, rows.get(i++));
+                    }
+                }
+                while (i < middle) {
+                    scratch.set(k++, rows.get(i++));
+                }
+                while (j < right) {
+                    scratch.set(k++, rows.get(j++));
+                }
+            }
+            Int32Array swap = rows;
+            rows = scratch;
+            scratch = swap;
+        }
+        return rows;
+    }
+}
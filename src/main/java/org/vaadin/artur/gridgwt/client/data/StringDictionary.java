@@ -0,0 +1,140 @@
+package org.vaadin.artur.gridgwt.client.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * The distinct values of one or more {@link DictionaryColumnStore
+ * dictionary-encoded columns}. Each value is stored once and gets an int
+ * code, in the order the values are added. Code 0 is always
+ * <code>null</code>.
+ * <p>
+ * Columns with overlapping values, such as first names and surnames, can
+ * share a dictionary, so that each value is kept only once for all of them.
+ * Everything that is derived from the values (their sort order, whether they
+ * match a filter, the text rendered for them) is computed once per value
+ * instead of once per row.
+ */
+public class StringDictionary {
+
+    /**
+     * Decides whether a value is included by a filter.
+     */
+    public interface ValueFilter {
+        boolean accept(String value);
+    }
+
+    private final List<String> values = new ArrayList<String>();
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+    /** The position of each code in the sorted values, or null if stale. */
+    private Int32Array ranks = null;
+
+    public StringDictionary() {
+        encode(null);
+    }
+
+    /**
+     * Gets the code of a value, adding the value if it isn't there yet.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = Integer.valueOf(values.size());
+            values.add(value);
+            codes.put(value, code);
+            ranks = null;
+        }
+        return code.intValue();
+    }
+
+    /**
+     * Gets the value of a code.
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Gets the instance of a value that is kept in this dictionary, adding
+     * the value if it isn't there yet.
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * Gets the number of values, including <code>null</code>.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Gets the position of a value among all values in ascending order, with
+     * <code>null</code> first. Comparing the ranks of two codes is the same
+     * as comparing their values.
+     */
+    public int getRank(int code) {
+        if (ranks == null) {
+            ranks = computeRanks();
+        }
+        return ranks.get(code);
+    }
+
+    /**
+     * Runs a filter once for each value.
+     *
+     * @return the accepted codes, as a flag by code
+     */
+    public boolean[] filter(ValueFilter filter) {
+        boolean[] accepted = new boolean[values.size()];
+        for (int code = 0; code < accepted.length; code++) {
+            accepted[code] = filter.accept(values.get(code));
+        }
+        return accepted;
+    }
+
+    /**
+     * Gets an estimate of the memory used by the values: two bytes per
+     * character and 16 bytes per value.
+     */
+    public int getByteSize() {
+        int bytes = 0;
+        for (String value : values) {
+            bytes += 16 + (value == null ? 0 : 2 * value.length());
+        }
+        return bytes;
+    }
+
+    private Int32Array computeRanks() {
+        Integer[] sorted = new Integer[values.size()];
+        for (int code = 0; code < sorted.length; code++) {
+            sorted[code] = Integer.valueOf(code);
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                String first = values.get(a.intValue());
+                String second = values.get(b.intValue());
+                if (first == null || second == null) {
+                    return first == null ? (second == null ? 0 : -1) : 1;
+                }
+                return first.compareTo(second);
+            }
+        });
+
+        Int32Array ranks = TypedArrays.createInt32Array(sorted.length);
+        for (int rank = 0; rank < sorted.length; rank++) {
+            ranks.set(sorted[rank].intValue(), rank);
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,28 @@
+package org.vaadin.artur.gridgwt.client.renderers;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Writes text into cells without replacing their text node.
+ */
+public final class CellText {
+
+    private CellText() {
+    }
+
+    /**
+     * Sets the text of a cell. If the cell has a single text node, the node
+     * is reused, and it isn't touched at all if it already has the text.
+     */
+    public static native void set(Element element, String text)
+    /*-{
+        var node = element.firstChild;
+        if (node && node.nodeType == 3 && !node.nextSibling) {
+            if (node.nodeValue !== text) {
+                node.nodeValue = text;
+            }
+        } else {
+            element.textContent = text;
+        }
+    }-*/;
+}
@@ -0,0 +1,27 @@
+package org.vaadin.artur.gridgwt.client.renderers;
+
+import org.vaadin.artur.gridgwt.client.data.StringDictionary;
+
+import com.vaadin.client.renderers.Renderer;
+import com.vaadin.client.widget.grid.RendererCellReference;
+
+/**
+ * Renders the codes of a dictionary-encoded column as their values.
+ * <p>
+ * The text of a code is the string kept in the dictionary, so rendering
+ * creates no strings. The text is written with {@link CellText}.
+ */
+public class DictionaryRenderer implements Renderer<Integer> {
+
+    private final StringDictionary dictionary;
+
+    public DictionaryRenderer(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void render(RendererCellReference cell, Integer code) {
+        String text = code == null ? null : dictionary.decode(code.intValue());
+        CellText.set(cell.getElement(), text == null ? "" : text);
+    }
+}
@@ -0,0 +1,209 @@
+package org.vaadin.artur.gridgwt.client.renderers;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.i18n.client.LocaleInfo;
+import com.google.gwt.i18n.client.constants.NumberConstants;
+
+/**
+ * Formats numbers for cells, with the grouping and decimal separators of the
+ * current locale and a fixed number of decimals.
+ * <p>
+ * The digits are written into a buffer that is reused for every number, and
+ * the formatted text is cached by value, so formatting a number that has
+ * been formatted before creates nothing at all. The caches are cleared when
+ * they grow past {@link #getMaxCacheSize()} values.
+ * <p>
+ * The digits are computed with doubles, as <code>long</code> is emulated in
+ * GWT. Integral values beyond 2<sup>53</sup>, doubles that don't fit in that
+ * range once scaled, and NaN and infinities are formatted with
+ * <code>String.valueOf</code> instead, without grouping.
+ */
+public class NumberTextFormatter {
+
+    public static final int DEFAULT_MAX_CACHE_SIZE = 10000;
+
+    private static final double MAX_EXACT = 9007199254740992d;
+
+    private final boolean grouping;
+    private final int decimals;
+    private final double scale;
+    private final int maxCacheSize;
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+
+    /** May be more than one char, e.g. with a direction mark. */
+    private final String minusSign;
+
+    /** Enough for 16 digits, 15 decimals and the separators. */
+    private final char[] buffer = new char[48];
+
+    private final JavaScriptObject integralCache = createCache();
+    private final JavaScriptObject decimalCache = createCache();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * Creates a formatter for integers with grouping.
+     */
+    public NumberTextFormatter() {
+        this(true, 0, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    /**
+     * @param grouping
+     *            whether the integer digits are grouped by thousands
+     * @param decimals
+     *            the number of decimals doubles are formatted with, 0-15;
+     *            integers are always formatted without decimals
+     * @param maxCacheSize
+     *            the number of formatted values to keep per cache
+     */
+    public NumberTextFormatter(boolean grouping, int decimals, int maxCacheSize) {
+        if (decimals < 0 || decimals > 15) {
+            throw new IllegalArgumentException(
+                    "Decimals must be between 0 and 15 (was " + decimals + ")");
+        }
+        this.grouping = grouping;
+        this.decimals = decimals;
+        this.scale = Math.pow(10, decimals);
+        this.maxCacheSize = Math.max(0, maxCacheSize);
+
+        NumberConstants constants = LocaleInfo.getCurrentLocale()
+                .getNumberConstants();
+        groupingSeparator = constants.groupingSeparator().charAt(0);
+        decimalSeparator = constants.decimalSeparator().charAt(0);
+        minusSign = constants.minusSign();
+    }
+
+    public String format(int value) {
+        return formatIntegral(value);
+    }
+
+    public String format(long value) {
+        if (value > MAX_EXACT || value < -MAX_EXACT) {
+            missCount++;
+            return String.valueOf(value);
+        }
+        return formatIntegral(value);
+    }
+
+    public String format(double value) {
+        String text = get(decimalCache, value);
+        if (text != null) {
+            hitCount++;
+            return text;
+        }
+        missCount++;
+
+        double scaled = Math.floor(Math.abs(value) * scale + 0.5);
+        if (scaled < MAX_EXACT) {
+            text = formatDigits(scaled, value < 0 && scaled != 0, decimals);
+        } else {
+            // Also NaN and the infinities
+            text = String.valueOf(value);
+        }
+        put(decimalCache, value, text);
+        return text;
+    }
+
+    public int getDecimals() {
+        return decimals;
+    }
+
+    public boolean isGrouping() {
+        return grouping;
+    }
+
+    public int getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
+    /**
+     * Gets the number of values that were found in the cache.
+     */
+    public int getCacheHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of values that had to be formatted.
+     */
+    public int getCacheMissCount() {
+        return missCount;
+    }
+
+    private String formatIntegral(double value) {
+        String text = get(integralCache, value);
+        if (text != null) {
+            hitCount++;
+            return text;
+        }
+        missCount++;
+        text = formatDigits(Math.abs(value), value < 0, 0);
+        put(integralCache, value, text);
+        return text;
+    }
+
+    /**
+     * Writes the digits of an integral magnitude into the buffer, from the
+     * end, with the last {@code decimals} digits as decimals.
+     */
+    private String formatDigits(double magnitude, boolean negative,
+            int decimals) {
+        int position = buffer.length;
+        int digitCount = 0;
+        do {
+            if (digitCount == decimals && decimals > 0) {
+                buffer[--position] = decimalSeparator;
+            } else if (grouping && digitCount > decimals
+                    && (digitCount - decimals) % 3 == 0) {
+                buffer[--position] = groupingSeparator;
+            }
+            buffer[--position] = (char) ('0' + (int) (magnitude % 10));
+            magnitude = Math.floor(magnitude / 10);
+            digitCount++;
+        } while (magnitude > 0 || digitCount <= decimals);
+
+        String digits = new String(buffer, position, buffer.length - position);
+        return negative ? minusSign + digits : digits;
+    }
+
+    private void put(JavaScriptObject cache, double value, String text) {
+        if (maxCacheSize == 0) {
+            return;
+        }
+        if (size(cache) >= maxCacheSize) {
+            clear(cache);
+        }
+        set(cache, value, text);
+    }
+
+    private static native JavaScriptObject createCache()
+    /*-{
+        return new Map();
+    }-*/;
+
+    private static native String get(JavaScriptObject cache, double value)
+    /*-{
+        var text = cache.get(value);
+        return text === undefined ? null : text;
+    }-*/;
+
+    private static native void set(JavaScriptObject cache, double value,
+            String text)
+    /*-{
+        cache.set(value, text);
+    }-*/;
+
+    private static native int size(JavaScriptObject cache)
+    /*-{
+        return cache.size;
+    }-*/;
+
+    private static native void clear(JavaScriptObject cache)
+    /*-{
+        cache.clear();
+    }-*/;
+}